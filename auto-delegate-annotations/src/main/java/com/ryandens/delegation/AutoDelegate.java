@@ -103,4 +103,351 @@ public @interface AutoDelegate {
    *     annotation
    */
   Class<?>[] to() default {};
+
+  /**
+   * @return whether the generated class should be {@code sealed}, permitting only the class
+   *     annotated by this {@link AutoDelegate} annotation to extend it. If the annotated class is
+   *     {@code final}, forwarding methods that it does not override are also made {@code final},
+   *     while they stay overridable for subclasses of a {@code sealed} or {@code non-sealed}
+   *     annotated class. With a single implementor and no overridable forwarding methods, class
+   *     hierarchy analysis can devirtualize and inline calls through the generated class. Note, the
+   *     annotated class must be declared {@code final}, {@code sealed}, or {@code non-sealed}, and
+   *     the source version must be 17 or above.
+   */
+  boolean sealed() default false;
+
+  /**
+   * @return whether the generated class should skip forwarding methods for APIs that the class
+   *     annotated by this {@link AutoDelegate} annotation overrides, reducing the size of the
+   *     generated class. As the annotated class can no longer call {@code super} for those APIs, a
+   *     {@code protected} accessor for each inner composed instance is generated instead (e.g.
+   *     {@code inner0()}), which must be used to delegate from overriding methods.
+   */
+  boolean skipOverridden() default false;
+
+  /**
+   * @return whether the generated class should count and time every call to its forwarding methods.
+   *     Each forwarding method is assigned a stable {@code int} ID and records into its own
+   *     contention-free counter and fixed-bucket latency histogram, which are exposed to the
+   *     annotated class via a {@code protected} {@code delegationMetrics()} accessor returning a
+   *     {@code com.ryandens.delegation.runtime.DelegationMetrics}. The instrumentation can be
+   *     stripped for a whole compilation with the processor option {@code
+   *     -Aautodelegate.instrumentation=off}, in which case forwarding methods only call the inner
+   *     composed instance and the accessor returns metrics that are never recorded into. The
+   *     metrics are allocated per instance of the generated class, and cost a reference per
+   *     forwarding method until it is called, after which each latency bucket it records into
+   *     allocates a {@link java.util.concurrent.atomic.LongAdder} on first use. Note, this requires
+   *     the {@code auto-delegate-runtime} artifact on the classpath of the annotated class.
+   */
+  boolean instrument() default false;
+
+  /**
+   * @return the average number of calls to a forwarding method per call that is counted and timed
+   *     when {@link #instrument()} is enabled, e.g. {@code 64} to measure 1 in 64 calls. Calls are
+   *     sampled with a thread-local random number generator, so sampling costs a few instructions
+   *     and no contention, and counts are extrapolated by the sample rate to estimate the total
+   *     number of calls. This allows instrumentation to be left on for very hot delegators. Must be
+   *     positive, and may only differ from the default of {@code 1} when {@link #instrument()} is
+   *     enabled.
+   */
+  int sampleRate() default 1;
+
+  /**
+   * @return whether the generated class should invoke an interceptor before and after every call to
+   *     its forwarding methods. A companion {@code public} interface named after the generated
+   *     class with an {@code Interceptor} suffix (e.g. {@code
+   *     AutoDelegate_InstrumentedSetInterceptor}) is generated with a {@code default} before and
+   *     after hook for each forwarded API, taking the same parameter types as that API, so that no
+   *     arguments are boxed or copied into arrays as they would be by a {@link
+   *     java.lang.reflect.Proxy}. An instance of the interceptor is accepted as the last parameter
+   *     of the generated constructor, and multiple interceptors can be combined with its static
+   *     {@code chain} method.
+   */
+  boolean intercept() default false;
+
+  /**
+   * @return whether the generated class should record every call to its forwarding methods as a <a
+   *     href="https://docs.oracle.com/en/java/javase/17/jfapi/">JDK Flight Recorder</a> event, so
+   *     that delegation layers are visible in recordings rather than only as opaque stack frames.
+   *     Events are named after the annotated class with a {@code .Delegation} suffix and include
+   *     the duration of the call, the signature of the forwarded API, and the class of the inner
+   *     composed instance. As forwarded calls can be very frequent, events are disabled unless a
+   *     recording enables them, and event fields are only populated when the call exceeds the
+   *     threshold of such a recording. Like {@link #instrument()}, events can be stripped for a
+   *     whole compilation with {@code -Aautodelegate.instrumentation=off}. Note, this requires the
+   *     {@code jdk.jfr} module.
+   */
+  boolean jfr() default false;
+
+  /**
+   * @return whether the generated class should create its inner composed instances lazily. The
+   *     generated constructor accepts a {@link java.util.function.Supplier} for each delegation
+   *     target instead of an instance, and each supplier is invoked at most once, on the first call
+   *     to a forwarding method of its delegation target. Initialization is thread-safe, and once an
+   *     inner composed instance is created, reaching it costs a single acquiring field read, which
+   *     is a plain load on x86. This avoids creating expensive inner composed instances, such as
+   *     clients of remote services, before they are needed. When {@link #skipOverridden()} is
+   *     enabled, the generated accessors also create the inner composed instances on first use.
+   */
+  boolean lazy() default false;
+
+  /**
+   * @return whether the inner composed instances of the generated class can be replaced while it is
+   *     in use, e.g. to move to a bigger thread pool without a restart. For each delegation target,
+   *     a {@code protected} {@code swap} method named after the inner composed instance (e.g.
+   *     {@code swapInner0}) is generated that atomically replaces it and returns the replaced
+   *     instance, so that the annotated class can decide how to expose it and what to do with the
+   *     replaced instance. Forwarding methods read the current instance with acquire ordering
+   *     without taking a lock, so a call that starts after a swap returns is forwarded to the
+   *     replacement, or to an even newer instance. When {@link #skipOverridden()} is enabled, the
+   *     generated accessors also return the current instance. Note, the generated class must be
+   *     safely published, as the inner composed instances are not {@code final}. May not be
+   *     combined with {@link #lazy()}.
+   */
+  boolean swappable() default false;
+
+  /**
+   * @return whether forwarding methods of a {@link #swappable()} generated class should read the
+   *     current inner composed instance with a plain read rather than with acquire ordering. This
+   *     saves a barrier on weakly ordered processors such as ARM, but calls may be forwarded to a
+   *     replaced instance for some time after a swap, so it is only appropriate when the replaced
+   *     instance keeps working after it is swapped out. May only be enabled when {@link
+   *     #swappable()} is enabled.
+   */
+  boolean plainReads() default false;
+
+  /**
+   * @return whether the generated class should delegate to multiple inner composed instances, or
+   *     shards, of each delegation target, e.g. to stripe the locks of synchronized maps. The
+   *     generated constructor accepts a {@link java.util.List} of shards for each delegation
+   *     target, and calls to the APIs named by {@link #keyedApis()} are routed to one of the shards
+   *     by a spread hash of their first argument. APIs without parameters are forwarded to every
+   *     shard, and their results are combined according to their return type: {@code int} and
+   *     {@code long} results are summed, {@code boolean} results are true if every shard returns
+   *     true, and {@link java.util.Set}, {@link java.util.List} and {@link java.util.Collection}
+   *     results are combined into an unmodifiable snapshot. Forwarding methods are not generated
+   *     for other APIs, so the annotated class must implement the abstract ones, while default ones
+   *     keep their default implementation. A {@code protected} accessor named after the inner
+   *     composed instance with a {@code Shards} suffix (e.g. {@code inner0Shards()}) returns the
+   *     shards, and a {@code protected} method named after the inner composed instance (e.g. {@code
+   *     inner0(Object)}) returns the shard of a key. May not be combined with {@link #lazy()} or
+   *     {@link #swappable()}.
+   */
+  boolean sharded() default false;
+
+  /**
+   * @return the names of the APIs of the delegation targets whose first parameter is a key, such as
+   *     {@code "get"} and {@code "put"} for {@link java.util.Map}, which are routed to the shard of
+   *     that key when the generated class is {@link #sharded()}. A name applies to every API with
+   *     that name. May only be specified when {@link #sharded()} is enabled.
+   */
+  String[] keyedApis() default {};
+
+  /**
+   * @return whether the generated class should guard every call to its forwarding methods with a
+   *     {@link java.util.concurrent.locks.StampedLock}, making a delegate that isn't thread-safe,
+   *     such as a {@link java.util.HashSet}, thread-safe while allowing concurrent reads. Each API
+   *     is classified as a read or a write: APIs annotated with {@link Read} or {@link Write},
+   *     either in the delegation target or in an overriding method of the annotated class, are
+   *     classified accordingly, and otherwise APIs named like reads, such as {@code size}, {@code
+   *     isEmpty}, {@code get*}, {@code contains*} and {@code to*}, are reads, unless the prefix is
+   *     followed by {@code And}, as in {@code getAndSet}, while every other API is a write. Reads
+   *     take the read lock, or first try an optimistic read if {@link #optimisticReads()} is
+   *     enabled, and writes take the write lock. The lock is exposed to the annotated class via a
+   *     {@code protected} {@code delegationLock()} accessor, e.g. for compound operations. Note,
+   *     the lock is not reentrant, so callbacks passed to the delegate must not call the generated
+   *     class, and iterators and views returned by the delegate are not guarded by it. May not be
+   *     combined with {@link #sharded()}.
+   */
+  boolean locked() default false;
+
+  /**
+   * @return whether reads of a {@link #locked()} generated class should first be attempted without
+   *     taking the read lock, and only be repeated under the read lock if a write happened
+   *     concurrently. This avoids writing to the lock on every read, so reads scale across cores,
+   *     but requires reads of the delegate to terminate without side effects even when they observe
+   *     a write in progress. Whatever such reads throw, including checked exceptions and errors, is
+   *     discarded if a write happened concurrently. May only be enabled when {@link #locked()} is
+   *     enabled.
+   */
+  boolean optimisticReads() default false;
+
+  /**
+   * @return whether the generated class should treat its inner composed instances as snapshots that
+   *     are copied on every write, so that reads never block or contend, e.g. for configuration or
+   *     routing tables that are read far more often than they are written. The generated
+   *     constructor accepts a {@link java.util.function.UnaryOperator} for each delegation target
+   *     that returns a mutable copy of an instance, such as {@code HashMap::new}, and uses it to
+   *     copy the initial instance. APIs are classified as reads or writes as described by {@link
+   *     #locked()}. Reads are forwarded to the current snapshot, read with acquire ordering and
+   *     without a lock. Writes are serialized on the generated class: each one is applied to a new
+   *     copy of the current snapshot, which then atomically replaces it, so a write that throws
+   *     leaves the snapshot unchanged. A {@code protected} {@code update} method named after the
+   *     inner composed instance (e.g. {@code updateInner0}) applies a batch of writes to a single
+   *     copy, which is published once. Note, views and iterators returned by reads must not be
+   *     modified, as they may be backed by a published snapshot, and callbacks passed to writes
+   *     must not write to the generated class. May not be combined with {@link #lazy()}, {@link
+   *     #swappable()}, {@link #sharded()} or {@link #locked()}.
+   */
+  boolean copyOnWrite() default false;
+
+  /**
+   * @return whether the generated class should forward each call to an instance confined to the
+   *     calling thread, so that implementations that aren't thread-safe, such as parsers,
+   *     formatters or caches, scale across cores without locks. The generated constructor accepts a
+   *     {@link java.util.function.Supplier} for each delegation target that creates a new instance
+   *     each time it is called. Each platform thread creates its own instance on its first call,
+   *     while virtual threads borrow an instance from a pool for the duration of each call, rather
+   *     than creating one per virtual thread. Therefore, calls on different threads, or by the same
+   *     virtual thread, may not observe the state left behind by each other, and results backed by
+   *     an instance, such as views or streams, must only be used by the calling thread. When {@link
+   *     #skipOverridden()} is enabled, the generated accessors return the {@code
+   *     com.ryandens.delegation.runtime.PerThreadInstances} that manage the instances. Requires the
+   *     {@code auto-delegate-runtime} artifact at runtime. May not be combined with {@link
+   *     #lazy()}, {@link #swappable()}, {@link #sharded()}, {@link #locked()} or {@link
+   *     #copyOnWrite()}.
+   */
+  boolean perThread() default false;
+
+  /**
+   * @return whether the generated class should forward each call to an instance borrowed from a
+   *     pool, and return it once the call completes, even if it throws, e.g. for implementations
+   *     that aren't thread-safe and are too expensive to create one of per thread, such as
+   *     compressors or connections. The generated constructor accepts a {@code
+   *     com.ryandens.delegation.runtime.DelegatePool} for each delegation target, which decides how
+   *     many instances are created and whether calls wait for an instance when all of them are
+   *     borrowed. Calls may not observe the state left behind by previous calls, and results backed
+   *     by an instance, such as views or streams, must not be used after the call. When {@link
+   *     #skipOverridden()} is enabled, the generated accessors return the pools. Requires the
+   *     {@code auto-delegate-runtime} artifact at runtime. May not be combined with {@link
+   *     #lazy()}, {@link #swappable()}, {@link #sharded()}, {@link #locked()}, {@link
+   *     #copyOnWrite()} or {@link #perThread()}.
+   */
+  boolean pooled() default false;
+
+  /**
+   * @return whether an asynchronous facade should also be generated, named after the generated
+   *     class with an {@code Async} suffix (e.g. {@code AutoDelegate_FooAsync}), so that blocking
+   *     implementations of the delegation targets get callers that don't block. The facade accepts
+   *     an instance of each delegation target, such as an instance of the annotated class, and has
+   *     a method for each of their APIs with the same parameters that forwards the call on an
+   *     {@link java.util.concurrent.Executor} and returns a {@link
+   *     java.util.concurrent.CompletableFuture} of its result, which is completed exceptionally
+   *     with whatever the call throws, including checked exceptions. Unless an executor is passed
+   *     to its constructor, the facade runs each call on a new virtual thread, or on a shared pool
+   *     of daemon threads on versions of Java without virtual threads. Requires the {@code
+   *     auto-delegate-runtime} artifact at runtime.
+   */
+  boolean async() default false;
+
+  /**
+   * @return whether the generated class should broadcast every call to multiple inner composed
+   *     instances of each delegation target, e.g. to replace a hand-written composite of listeners.
+   *     The generated constructor accepts a {@link java.util.List} of at least one delegate for
+   *     each delegation target, which is copied into an array so that broadcasting a call neither
+   *     locks nor allocates an iterator. Calls are forwarded to every delegate in order, stopping
+   *     at the first one that throws, unless {@link #parallelBroadcast()} is enabled. For each API
+   *     that doesn't return {@code void}, the generated class declares a {@code protected abstract}
+   *     reducer named after the API with a {@code reduce} prefix (e.g. {@code reduceIsEnabled}),
+   *     which the annotated class implements to combine the result accumulated so far with the
+   *     result of the next delegate. A {@code protected} accessor named after the inner composed
+   *     instance with a {@code Delegates} suffix (e.g. {@code inner0Delegates()}) returns the
+   *     delegates. May not be combined with {@link #lazy()}, {@link #swappable()}, {@link
+   *     #sharded()}, {@link #copyOnWrite()}, {@link #perThread()} or {@link #pooled()}.
+   */
+  boolean broadcast() default false;
+
+  /**
+   * @return whether a {@link #broadcast()} generated class should forward each call to every
+   *     delegate but the first on an {@link java.util.concurrent.Executor}, while the calling
+   *     thread forwards it to the first one, e.g. for delegates that block. The executor runs each
+   *     call on a virtual thread where available, and the annotated class may override the
+   *     generated {@code protected} accessor of the executor, e.g. {@code inner0Executor()}, to use
+   *     another one. The call returns once every delegate returns, and results are still reduced in
+   *     the order of the delegates. If any delegate throws, the exception of the first such
+   *     delegate is rethrown once every delegate is done. APIs that throw exceptions declared by a
+   *     type variable are still broadcast sequentially. Requires the {@code auto-delegate-runtime}
+   *     artifact at runtime. May only be enabled when {@link #broadcast()} is enabled.
+   */
+  boolean parallelBroadcast() default false;
+
+  /**
+   * @return whether the generated class should route each call to one of several interchangeable
+   *     inner composed instances of each delegation target, e.g. to spread submissions across
+   *     several smaller thread pools rather than contending on the queue of one big pool. The
+   *     generated constructor accepts a {@code com.ryandens.delegation.runtime.LoadBalancer} for
+   *     each delegation target, which holds the delegates and decides how calls are routed: in
+   *     turn, to the delegate with fewer calls in flight out of two chosen at random, or to the one
+   *     with the lower moving average latency out of two chosen at random. Every call is routed
+   *     independently, so APIs that must reach every delegate, such as {@code shutdown}, must be
+   *     overridden by the annotated class. When {@link #skipOverridden()} is enabled, the generated
+   *     accessors return the balancers. Requires the {@code auto-delegate-runtime} artifact at
+   *     runtime. May not be combined with {@link #lazy()}, {@link #swappable()}, {@link
+   *     #sharded()}, {@link #locked()}, {@link #copyOnWrite()}, {@link #perThread()}, {@link
+   *     #pooled()} or {@link #broadcast()}.
+   */
+  boolean balanced() default false;
+
+  /**
+   * @return whether the generated class should bound how many calls to its forwarding methods are
+   *     in flight at once with a {@code com.ryandens.delegation.runtime.ConcurrencyLimiter}, which
+   *     is accepted as the last parameter of the generated constructor, so that an overloaded
+   *     delegate keeps its tail latency bounded rather than queueing calls without bound. The
+   *     limiter decides whether its limit is fixed or adapts to the latency of calls, and whether
+   *     calls over the limit fail fast or wait for a permit up to a timeout, after which they are
+   *     rejected with a {@link java.util.concurrent.RejectedExecutionException}. Every API is
+   *     limited, unless any API is annotated with {@link Limited}, either in the delegation target
+   *     or in an overriding method of the annotated class, in which case only those are. The
+   *     limiter is exposed to the annotated class via a {@code protected} {@code
+   *     delegationLimiter()} accessor. Requires the {@code auto-delegate-runtime} artifact at
+   *     runtime.
+   */
+  boolean limited() default false;
+
+  /**
+   * @return whether the generated class should hedge calls to read-only APIs across two replicas of
+   *     each delegation target, so that a slow replica doesn't set the tail latency of callers. The
+   *     generated constructor accepts a {@code com.ryandens.delegation.runtime.Hedger} for each
+   *     delegation target, which sends each call to its primary replica, and if the call hasn't
+   *     completed after a delay, which tracks a quantile of the latency of calls such as the 95th
+   *     percentile, sends it to its secondary replica too. The first call to return wins, and the
+   *     other is cancelled by interrupting it. APIs are classified as reads as described by {@link
+   *     #locked()}, and every other API is only forwarded to the primary replica, as repeating it
+   *     may not be safe. APIs that throw exceptions declared by a type variable aren't hedged
+   *     either. {@link #jfr()} events record the class of the primary replica, even when the
+   *     secondary one returned first. When {@link #skipOverridden()} is enabled, the generated
+   *     accessors return the {@code Hedger}. Requires the {@code auto-delegate-runtime} artifact at
+   *     runtime. May not be combined with {@link #lazy()}, {@link #swappable()}, {@link
+   *     #sharded()}, {@link #locked()}, {@link #copyOnWrite()}, {@link #perThread()}, {@link
+   *     #pooled()}, {@link #broadcast()} or {@link #balanced()}.
+   */
+  boolean hedged() default false;
+
+  /**
+   * Classifies an API as a read when the generated class is {@link #locked()} or {@link
+   * #copyOnWrite()}, e.g. for reads that aren't named like reads. Applies when present on the API
+   * in the delegation target or on an overriding method in the annotated class
+   */
+  @Target(ElementType.METHOD)
+  @Retention(RetentionPolicy.CLASS)
+  @interface Read {}
+
+  /**
+   * Classifies an API as a write when the generated class is {@link #locked()} or {@link
+   * #copyOnWrite()}, e.g. for the {@code get} of a {@link java.util.LinkedHashMap} in access order,
+   * which reorders its entries. Applies when present on the API in the delegation target or on an
+   * overriding method in the annotated class
+   */
+  @Target(ElementType.METHOD)
+  @Retention(RetentionPolicy.CLASS)
+  @interface Write {}
+
+  /**
+   * Limits only the annotated APIs when the generated class is {@link #limited()}, e.g. to guard
+   * slow writes without guarding fast reads. Applies when present on the API in the delegation
+   * target or on an overriding method in the annotated class
+   */
+  @Target(ElementType.METHOD)
+  @Retention(RetentionPolicy.CLASS)
+  @interface Limited {}
 }
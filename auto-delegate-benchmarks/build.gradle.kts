@@ -0,0 +1,34 @@
+plugins {
+    java
+    id("me.champeau.jmh") version "0.7.3"
+}
+
+description =
+    """
+    JMH benchmarks comparing generated auto-delegating classes against direct calls and hand-written forwarding classes,
+    and measuring the compile-time cost of the annotation processor.
+    """.trimIndent()
+
+tasks.withType<JavaCompile>().configureEach {
+    options.release.set(17)
+}
+
+dependencies {
+    jmh(project(":auto-delegate-examples"))
+    jmh(project(":auto-delegate-processor"))
+    jmhCompileOnly(project(":auto-delegate-annotations"))
+    jmhAnnotationProcessor(project(":auto-delegate-processor", "shadow"))
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    // report the allocation rate of each benchmark alongside its throughput
+    profilers.add("gc")
+    // compiling synthetic sources takes far longer than the call overhead benchmarks, so the
+    // processor benchmark only runs when requested with -PprocessorBenchmark
+    if (project.hasProperty("processorBenchmark")) {
+        includes.add("ProcessorBenchmark")
+    } else {
+        excludes.add("ProcessorBenchmark")
+    }
+}
@@ -0,0 +1,34 @@
+package com.ryandens.delegation.benchmarks;
+
+import java.util.function.Supplier;
+
+/**
+ * Describes how many distinct receiver types a call site observes. HotSpot inlines monomorphic and
+ * bimorphic call sites from the type profile, while megamorphic call sites fall back to a virtual
+ * or interface dispatch.
+ */
+public enum CallSiteShape {
+  MONOMORPHIC(1),
+  BIMORPHIC(2),
+  MEGAMORPHIC(4);
+
+  private final int receiverTypes;
+
+  CallSiteShape(final int receiverTypes) {
+    this.receiverTypes = receiverTypes;
+  }
+
+  /**
+   * @return a new instance created by one of the provided factories, chosen round-robin by {@code
+   *     index} so that exactly as many receiver types as this shape requires are created
+   * @throws IllegalArgumentException if fewer factories than receiver types are provided
+   */
+  @SafeVarargs
+  final <T> T create(final int index, final Supplier<? extends T>... factories) {
+    if (factories.length < receiverTypes) {
+      throw new IllegalArgumentException(
+          this + " requires " + receiverTypes + " factories, but got " + factories.length);
+    }
+    return factories[index % receiverTypes].get();
+  }
+}
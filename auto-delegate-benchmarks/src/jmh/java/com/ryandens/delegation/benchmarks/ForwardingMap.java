@@ -0,0 +1,102 @@
+package com.ryandens.delegation.benchmarks;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hand-written forwarding {@link Map}, used as the baseline that the generated {@code
+ * AutoDelegate_InstrumentedMap} is compared against. Like the generated class, default methods of
+ * {@link Map} are forwarded rather than inherited so that implementation specific overrides are
+ * used.
+ *
+ * @param <K> type of the keys in the {@link Map}
+ * @param <V> type of the values in the {@link Map}
+ */
+public abstract class ForwardingMap<K, V> implements Map<K, V> {
+  private final Map<K, V> m;
+
+  protected ForwardingMap(final Map<K, V> m) {
+    this.m = m;
+  }
+
+  @Override
+  public int size() {
+    return m.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return m.isEmpty();
+  }
+
+  @Override
+  public boolean containsKey(final Object key) {
+    return m.containsKey(key);
+  }
+
+  @Override
+  public boolean containsValue(final Object value) {
+    return m.containsValue(value);
+  }
+
+  @Override
+  public V get(final Object key) {
+    return m.get(key);
+  }
+
+  @Override
+  public V getOrDefault(final Object key, final V defaultValue) {
+    return m.getOrDefault(key, defaultValue);
+  }
+
+  @Override
+  public V put(final K key, final V value) {
+    return m.put(key, value);
+  }
+
+  @Override
+  public V remove(final Object key) {
+    return m.remove(key);
+  }
+
+  @Override
+  public void putAll(final Map<? extends K, ? extends V> map) {
+    m.putAll(map);
+  }
+
+  @Override
+  public void clear() {
+    m.clear();
+  }
+
+  @Override
+  public Set<K> keySet() {
+    return m.keySet();
+  }
+
+  @Override
+  public Collection<V> values() {
+    return m.values();
+  }
+
+  @Override
+  public Set<Entry<K, V>> entrySet() {
+    return m.entrySet();
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    return m.equals(o);
+  }
+
+  @Override
+  public int hashCode() {
+    return m.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return m.toString();
+  }
+}
@@ -0,0 +1,99 @@
+package com.ryandens.delegation.benchmarks;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Hand-written forwarding {@link Set} from Effective Java, used as the baseline that the generated
+ * {@code AutoDelegate_InstrumentedSet} is compared against
+ *
+ * @param <E> type of the element in the {@link Set}
+ */
+public abstract class ForwardingSet<E> implements Set<E> {
+  private final Set<E> s;
+
+  protected ForwardingSet(final Set<E> s) {
+    this.s = s;
+  }
+
+  @Override
+  public int size() {
+    return s.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return s.isEmpty();
+  }
+
+  @Override
+  public boolean contains(final Object o) {
+    return s.contains(o);
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return s.iterator();
+  }
+
+  @Override
+  public Object[] toArray() {
+    return s.toArray();
+  }
+
+  @Override
+  public <T> T[] toArray(final T[] a) {
+    return s.toArray(a);
+  }
+
+  @Override
+  public boolean add(final E e) {
+    return s.add(e);
+  }
+
+  @Override
+  public boolean remove(final Object o) {
+    return s.remove(o);
+  }
+
+  @Override
+  public boolean containsAll(final Collection<?> c) {
+    return s.containsAll(c);
+  }
+
+  @Override
+  public boolean addAll(final Collection<? extends E> c) {
+    return s.addAll(c);
+  }
+
+  @Override
+  public boolean retainAll(final Collection<?> c) {
+    return s.retainAll(c);
+  }
+
+  @Override
+  public boolean removeAll(final Collection<?> c) {
+    return s.removeAll(c);
+  }
+
+  @Override
+  public void clear() {
+    s.clear();
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    return s.equals(o);
+  }
+
+  @Override
+  public int hashCode() {
+    return s.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return s.toString();
+  }
+}
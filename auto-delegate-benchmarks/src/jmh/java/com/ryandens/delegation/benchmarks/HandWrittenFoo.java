@@ -0,0 +1,48 @@
+package com.ryandens.delegation.benchmarks;
+
+import com.ryandens.delegation.examples.Bar;
+import com.ryandens.delegation.examples.Baz;
+
+/**
+ * Hand-written class forwarding to both a {@link Bar} and a {@link Baz}, used as the baseline that
+ * the generated two-target {@code AutoDelegate_Foo} is compared against
+ */
+public final class HandWrittenFoo implements Bar, Baz {
+  private final Bar bar;
+  private final Baz baz;
+
+  public HandWrittenFoo(final Bar bar, final Baz baz) {
+    this.bar = bar;
+    this.baz = baz;
+  }
+
+  @Override
+  public boolean a() {
+    return bar.a();
+  }
+
+  @Override
+  public String b() {
+    return bar.b();
+  }
+
+  @Override
+  public int c() {
+    return bar.c();
+  }
+
+  @Override
+  public Object d() {
+    return baz.d();
+  }
+
+  @Override
+  public long f() {
+    return baz.f();
+  }
+
+  @Override
+  public String g() {
+    return baz.g();
+  }
+}
@@ -0,0 +1,36 @@
+package com.ryandens.delegation.benchmarks;
+
+import java.util.Map;
+
+/**
+ * Hand-written equivalent of {@link com.ryandens.delegation.examples.InstrumentedMap} built on
+ * {@link ForwardingMap}
+ *
+ * <p>Not thread-safe
+ *
+ * @param <K> type of the keys in the {@link Map}
+ * @param <V> type of the values in the {@link Map}
+ */
+public final class HandWrittenInstrumentedMap<K, V> extends ForwardingMap<K, V> {
+  private int putCount;
+
+  public HandWrittenInstrumentedMap(final Map<K, V> m) {
+    super(m);
+  }
+
+  @Override
+  public V put(final K k, final V v) {
+    putCount++;
+    return super.put(k, v);
+  }
+
+  @Override
+  public void putAll(final Map<? extends K, ? extends V> m) {
+    putCount += m.size();
+    super.putAll(m);
+  }
+
+  public int putCount() {
+    return putCount;
+  }
+}
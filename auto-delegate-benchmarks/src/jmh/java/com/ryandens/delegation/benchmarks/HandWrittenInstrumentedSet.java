@@ -0,0 +1,36 @@
+package com.ryandens.delegation.benchmarks;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Hand-written equivalent of {@link com.ryandens.delegation.examples.InstrumentedSet} built on
+ * {@link ForwardingSet}
+ *
+ * <p>Not thread-safe
+ *
+ * @param <E> type of the element in the {@link Set}
+ */
+public final class HandWrittenInstrumentedSet<E> extends ForwardingSet<E> {
+  private int addCount;
+
+  public HandWrittenInstrumentedSet(final Set<E> s) {
+    super(s);
+  }
+
+  @Override
+  public boolean add(final E e) {
+    addCount++;
+    return super.add(e);
+  }
+
+  @Override
+  public boolean addAll(final Collection<? extends E> c) {
+    addCount += c.size();
+    return super.addAll(c);
+  }
+
+  public int addCount() {
+    return addCount;
+  }
+}
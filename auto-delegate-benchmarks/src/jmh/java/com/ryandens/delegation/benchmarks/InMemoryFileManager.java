@@ -0,0 +1,61 @@
+package com.ryandens.delegation.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+
+/**
+ * {@link JavaFileManager} that keeps generated sources in memory, so that the compiler can read
+ * them in the next round, and discards class files, so that benchmarks don't measure the file
+ * system
+ */
+final class InMemoryFileManager extends ForwardingJavaFileManager<JavaFileManager> {
+
+  InMemoryFileManager(final JavaFileManager fileManager) {
+    super(fileManager);
+  }
+
+  @Override
+  public JavaFileObject getJavaFileForOutput(
+      final Location location,
+      final String className,
+      final JavaFileObject.Kind kind,
+      final FileObject sibling) {
+    final var uri = URI.create("mem:///" + className.replace('.', '/') + kind.extension);
+    if (kind == JavaFileObject.Kind.SOURCE) {
+      return new GeneratedSource(uri);
+    }
+    return new SimpleJavaFileObject(uri, kind) {
+      @Override
+      public OutputStream openOutputStream() {
+        return OutputStream.nullOutputStream();
+      }
+    };
+  }
+
+  /** A generated source file, which is read back by the compiler after it is written */
+  private static final class GeneratedSource extends SimpleJavaFileObject {
+    private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+    private GeneratedSource(final URI uri) {
+      super(uri, Kind.SOURCE);
+    }
+
+    @Override
+    public OutputStream openOutputStream() {
+      content.reset();
+      return content;
+    }
+
+    @Override
+    public CharSequence getCharContent(final boolean ignoreEncodingErrors) {
+      return content.toString(StandardCharsets.UTF_8);
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package com.ryandens.delegation.benchmarks;
+
+import com.ryandens.delegation.examples.InstrumentedMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares calls made directly against a {@link Map} with calls made through the generated {@code
+ * AutoDelegate_InstrumentedMap} (via {@link InstrumentedMap}) and through the hand-written {@link
+ * HandWrittenInstrumentedMap}. Includes {@link Map#getOrDefault(Object, Object)} to measure
+ * forwarding of an interface default method.
+ *
+ * @see SetDelegationBenchmark for a description of how {@link CallSiteShape} is applied
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MapDelegationBenchmark {
+  private static final int RECEIVERS = 16;
+  private static final int ENTRIES = 64;
+
+  @Param private CallSiteShape shape;
+
+  private Map<Integer, String>[] direct;
+  private Map<Integer, String>[] autoDelegate;
+  private Map<Integer, String>[] handWritten;
+  private Integer present;
+  private Integer absent;
+
+  @Setup
+  @SuppressWarnings("unchecked")
+  public void setup() {
+    direct = new Map[RECEIVERS];
+    autoDelegate = new Map[RECEIVERS];
+    handWritten = new Map[RECEIVERS];
+    for (int i = 0; i < RECEIVERS; i++) {
+      final Map<Integer, String> inner =
+          shape.create(i, HashMap::new, TreeMap::new, LinkedHashMap::new, ConcurrentHashMap::new);
+      for (int key = 0; key < ENTRIES; key++) {
+        inner.put(key, Integer.toString(key));
+      }
+      direct[i] = inner;
+      autoDelegate[i] = new InstrumentedMap<>(inner);
+      handWritten[i] = new HandWrittenInstrumentedMap<>(inner);
+    }
+    present = ENTRIES / 2;
+    absent = ENTRIES * 2;
+  }
+
+  @Benchmark
+  public void getDirect(final Blackhole blackhole) {
+    get(direct, blackhole);
+  }
+
+  @Benchmark
+  public void getAutoDelegate(final Blackhole blackhole) {
+    get(autoDelegate, blackhole);
+  }
+
+  @Benchmark
+  public void getHandWritten(final Blackhole blackhole) {
+    get(handWritten, blackhole);
+  }
+
+  @Benchmark
+  public void getOrDefaultDirect(final Blackhole blackhole) {
+    getOrDefault(direct, blackhole);
+  }
+
+  @Benchmark
+  public void getOrDefaultAutoDelegate(final Blackhole blackhole) {
+    getOrDefault(autoDelegate, blackhole);
+  }
+
+  @Benchmark
+  public void getOrDefaultHandWritten(final Blackhole blackhole) {
+    getOrDefault(handWritten, blackhole);
+  }
+
+  /** Replaces the value of an existing key so the maps do not grow between invocations */
+  @Benchmark
+  public void putDirect(final Blackhole blackhole) {
+    put(direct, blackhole);
+  }
+
+  @Benchmark
+  public void putAutoDelegate(final Blackhole blackhole) {
+    put(autoDelegate, blackhole);
+  }
+
+  @Benchmark
+  public void putHandWritten(final Blackhole blackhole) {
+    put(handWritten, blackhole);
+  }
+
+  private void get(final Map<Integer, String>[] maps, final Blackhole blackhole) {
+    for (final Map<Integer, String> map : maps) {
+      blackhole.consume(map.get(present));
+      blackhole.consume(map.get(absent));
+    }
+  }
+
+  private void getOrDefault(final Map<Integer, String>[] maps, final Blackhole blackhole) {
+    for (final Map<Integer, String> map : maps) {
+      blackhole.consume(map.getOrDefault(absent, "default"));
+    }
+  }
+
+  private void put(final Map<Integer, String>[] maps, final Blackhole blackhole) {
+    for (final Map<Integer, String> map : maps) {
+      blackhole.consume(map.put(present, "value"));
+    }
+  }
+}
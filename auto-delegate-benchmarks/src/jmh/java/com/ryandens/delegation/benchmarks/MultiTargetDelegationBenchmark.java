@@ -0,0 +1,167 @@
+package com.ryandens.delegation.benchmarks;
+
+import com.ryandens.delegation.examples.Bar;
+import com.ryandens.delegation.examples.Baz;
+import com.ryandens.delegation.examples.Foo;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares calls made directly against {@link Bar} and {@link Baz} implementations with calls made
+ * through the generated two-target {@code AutoDelegate_Foo} (via {@link Foo}) and through the
+ * hand-written {@link HandWrittenFoo}. Only APIs that {@link Foo} does not override are called, so
+ * each call through {@link Foo} measures a single generated forwarding method. {@link Baz#g()} is a
+ * default method.
+ *
+ * @see SetDelegationBenchmark for a description of how {@link CallSiteShape} is applied
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MultiTargetDelegationBenchmark {
+  private static final int RECEIVERS = 16;
+
+  @Param private CallSiteShape shape;
+
+  private Bar[] directBars;
+  private Baz[] directBazs;
+  private Foo[] autoDelegate;
+  private HandWrittenFoo[] handWritten;
+
+  @Setup
+  public void setup() {
+    directBars = new Bar[RECEIVERS];
+    directBazs = new Baz[RECEIVERS];
+    autoDelegate = new Foo[RECEIVERS];
+    handWritten = new HandWrittenFoo[RECEIVERS];
+    for (int i = 0; i < RECEIVERS; i++) {
+      final Bar bar = shape.create(i, BarA::new, BarB::new, BarC::new, BarD::new);
+      final Baz baz = shape.create(i, BazA::new, BazB::new, BazC::new, BazD::new);
+      directBars[i] = bar;
+      directBazs[i] = baz;
+      autoDelegate[i] = new Foo(bar, baz);
+      handWritten[i] = new HandWrittenFoo(bar, baz);
+    }
+  }
+
+  @Benchmark
+  public void direct(final Blackhole blackhole) {
+    for (final Bar bar : directBars) {
+      blackhole.consume(bar.b());
+      blackhole.consume(bar.c());
+    }
+    for (final Baz baz : directBazs) {
+      blackhole.consume(baz.f());
+      blackhole.consume(baz.g());
+    }
+  }
+
+  @Benchmark
+  public void autoDelegate(final Blackhole blackhole) {
+    for (final Foo foo : autoDelegate) {
+      blackhole.consume(foo.b());
+      blackhole.consume(foo.c());
+      blackhole.consume(foo.f());
+      blackhole.consume(foo.g());
+    }
+  }
+
+  @Benchmark
+  public void handWritten(final Blackhole blackhole) {
+    for (final HandWrittenFoo foo : handWritten) {
+      blackhole.consume(foo.b());
+      blackhole.consume(foo.c());
+      blackhole.consume(foo.f());
+      blackhole.consume(foo.g());
+    }
+  }
+
+  private abstract static class AbstractBar implements Bar {
+    @Override
+    public boolean a() {
+      return true;
+    }
+
+    @Override
+    public String b() {
+      return "b";
+    }
+  }
+
+  private static final class BarA extends AbstractBar {
+    @Override
+    public int c() {
+      return 1;
+    }
+  }
+
+  private static final class BarB extends AbstractBar {
+    @Override
+    public int c() {
+      return 2;
+    }
+  }
+
+  private static final class BarC extends AbstractBar {
+    @Override
+    public int c() {
+      return 3;
+    }
+  }
+
+  private static final class BarD extends AbstractBar {
+    @Override
+    public int c() {
+      return 4;
+    }
+  }
+
+  private abstract static class AbstractBaz implements Baz {
+    @Override
+    public Object d() {
+      return this;
+    }
+  }
+
+  private static final class BazA extends AbstractBaz {
+    @Override
+    public long f() {
+      return 1L;
+    }
+  }
+
+  private static final class BazB extends AbstractBaz {
+    @Override
+    public long f() {
+      return 2L;
+    }
+  }
+
+  private static final class BazC extends AbstractBaz {
+    @Override
+    public long f() {
+      return 3L;
+    }
+  }
+
+  private static final class BazD extends AbstractBaz {
+    @Override
+    public long f() {
+      return 4L;
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package com.ryandens.delegation.benchmarks;
+
+import com.ryandens.delegation.AutoDelegateProcessor;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.tools.JavaFileObject;
+import javax.tools.ToolProvider;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the compile-time cost of the {@link AutoDelegateProcessor} by compiling synthetic
+ * sources from {@link SyntheticSources} with {@link javax.tools.JavaCompiler}. Each invocation is a
+ * full compilation: the score is its wall time, the GC profiler reports the allocation of the whole
+ * compilation, and {@link ProcessorTime} reports the time spent in the processor in each round. The
+ * difference between the wall time and the processor time is the cost of compiling the sources and
+ * the generated classes.
+ *
+ * <p>The largest parameter combinations take minutes and gigabytes of heap per compilation, so
+ * select the parameters relevant to a change, e.g. {@code -p classCount=1000 -p methodCount=5,50}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class ProcessorBenchmark {
+
+  @Param({"1000", "10000", "50000"})
+  private int classCount;
+
+  @Param({"5", "50", "500"})
+  private int methodCount;
+
+  @Param({"1", "3"})
+  private int targetCount;
+
+  private List<JavaFileObject> sources;
+
+  @Setup
+  public void setup() {
+    sources = SyntheticSources.create(classCount, methodCount, targetCount);
+  }
+
+  /**
+   * Time spent in the processor during each compilation, reported alongside the wall time. Like the
+   * {@code gc.count} and {@code gc.time} metrics of the GC profiler, these are summed over the
+   * measurement iterations, so divide them by the iteration count for per-compilation values
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class ProcessorTime {
+    /** Number of rounds the processor ran in */
+    public long rounds;
+
+    /** Milliseconds spent in the processor in the first round, which processes the sources */
+    public double firstRoundMs;
+
+    /** Milliseconds spent in the processor across all rounds */
+    public double totalMs;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      rounds = 0;
+      firstRoundMs = 0;
+      totalMs = 0;
+    }
+
+    private void record(final List<Long> roundNanos) {
+      rounds += roundNanos.size();
+      firstRoundMs += roundNanos.isEmpty() ? 0 : roundNanos.get(0) / 1e6;
+      totalMs += roundNanos.stream().mapToLong(Long::longValue).sum() / 1e6;
+    }
+  }
+
+  @Benchmark
+  public boolean compile(final ProcessorTime processorTime) {
+    final var processor = new RoundTimingProcessor(new AutoDelegateProcessor());
+    final var compiler = ToolProvider.getSystemJavaCompiler();
+    try (var fileManager =
+        new InMemoryFileManager(compiler.getStandardFileManager(null, null, null))) {
+      final var task =
+          compiler.getTask(
+              null,
+              fileManager,
+              null,
+              List.of(
+                  "-classpath", System.getProperty("java.class.path"), "-nowarn", "-Xlint:none"),
+              null,
+              sources);
+      task.setProcessors(List.of(processor));
+      final var success = task.call();
+      if (!success) {
+        throw new IllegalStateException("Compilation of synthetic sources failed");
+      }
+      processorTime.record(processor.roundNanos());
+      return success;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
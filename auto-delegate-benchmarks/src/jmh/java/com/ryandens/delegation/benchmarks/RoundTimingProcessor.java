@@ -0,0 +1,76 @@
+package com.ryandens.delegation.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import javax.annotation.processing.Completion;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+
+/**
+ * {@link Processor} that forwards to another {@link Processor}, recording how long each call to
+ * {@link Processor#process} takes. Each call processes a single round.
+ */
+final class RoundTimingProcessor implements Processor {
+  private final Processor processor;
+  private final List<Long> roundNanos;
+
+  RoundTimingProcessor(final Processor processor) {
+    this.processor = Objects.requireNonNull(processor);
+    this.roundNanos = new ArrayList<>();
+  }
+
+  /**
+   * @return the time spent in the forwarded {@link Processor} in each round, in nanoseconds
+   */
+  List<Long> roundNanos() {
+    return roundNanos;
+  }
+
+  @Override
+  public boolean process(
+      final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+    final long startNanos = System.nanoTime();
+    try {
+      return processor.process(annotations, roundEnv);
+    } finally {
+      roundNanos.add(System.nanoTime() - startNanos);
+    }
+  }
+
+  @Override
+  public Set<String> getSupportedOptions() {
+    return processor.getSupportedOptions();
+  }
+
+  @Override
+  public Set<String> getSupportedAnnotationTypes() {
+    return processor.getSupportedAnnotationTypes();
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return processor.getSupportedSourceVersion();
+  }
+
+  @Override
+  public void init(final ProcessingEnvironment processingEnv) {
+    processor.init(processingEnv);
+  }
+
+  @Override
+  public Iterable<? extends Completion> getCompletions(
+      final Element element,
+      final AnnotationMirror annotation,
+      final ExecutableElement member,
+      final String userText) {
+    return processor.getCompletions(element, annotation, member, userText);
+  }
+}
@@ -0,0 +1,115 @@
+package com.ryandens.delegation.benchmarks;
+
+import com.ryandens.delegation.examples.InstrumentedSet;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares calls made directly against a {@link Set} with calls made through the generated {@code
+ * AutoDelegate_InstrumentedSet} (via {@link InstrumentedSet}) and through the hand-written {@link
+ * HandWrittenInstrumentedSet}.
+ *
+ * <p>The {@link CallSiteShape} controls how many {@link Set} implementations back the receivers.
+ * For the direct calls this is the shape of the benchmark's own call site, for the forwarding
+ * classes it is the shape of the call site inside the forwarding method, which is shared by every
+ * instance of the forwarding class.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SetDelegationBenchmark {
+  private static final int RECEIVERS = 16;
+  private static final int ELEMENTS = 64;
+
+  @Param private CallSiteShape shape;
+
+  private Set<Integer>[] direct;
+  private Set<Integer>[] autoDelegate;
+  private Set<Integer>[] handWritten;
+  private Integer present;
+  private Integer absent;
+
+  @Setup
+  @SuppressWarnings("unchecked")
+  public void setup() {
+    direct = new Set[RECEIVERS];
+    autoDelegate = new Set[RECEIVERS];
+    handWritten = new Set[RECEIVERS];
+    for (int i = 0; i < RECEIVERS; i++) {
+      final Set<Integer> inner =
+          shape.create(
+              i, HashSet::new, TreeSet::new, LinkedHashSet::new, ConcurrentSkipListSet::new);
+      for (int element = 0; element < ELEMENTS; element++) {
+        inner.add(element);
+      }
+      direct[i] = inner;
+      autoDelegate[i] = new InstrumentedSet<>(inner);
+      handWritten[i] = new HandWrittenInstrumentedSet<>(inner);
+    }
+    present = ELEMENTS / 2;
+    absent = ELEMENTS * 2;
+  }
+
+  @Benchmark
+  public void containsDirect(final Blackhole blackhole) {
+    contains(direct, blackhole);
+  }
+
+  @Benchmark
+  public void containsAutoDelegate(final Blackhole blackhole) {
+    contains(autoDelegate, blackhole);
+  }
+
+  @Benchmark
+  public void containsHandWritten(final Blackhole blackhole) {
+    contains(handWritten, blackhole);
+  }
+
+  /** Adds an element that is already present so the sets do not grow between invocations */
+  @Benchmark
+  public void addDirect(final Blackhole blackhole) {
+    add(direct, blackhole);
+  }
+
+  @Benchmark
+  public void addAutoDelegate(final Blackhole blackhole) {
+    add(autoDelegate, blackhole);
+  }
+
+  @Benchmark
+  public void addHandWritten(final Blackhole blackhole) {
+    add(handWritten, blackhole);
+  }
+
+  private void contains(final Set<Integer>[] sets, final Blackhole blackhole) {
+    for (final Set<Integer> set : sets) {
+      blackhole.consume(set.contains(present));
+      blackhole.consume(set.contains(absent));
+    }
+  }
+
+  private void add(final Set<Integer>[] sets, final Blackhole blackhole) {
+    for (final Set<Integer> set : sets) {
+      blackhole.consume(set.add(present));
+    }
+  }
+}
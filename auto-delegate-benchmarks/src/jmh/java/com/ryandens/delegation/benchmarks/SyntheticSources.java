@@ -0,0 +1,112 @@
+package com.ryandens.delegation.benchmarks;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+
+/**
+ * Generates synthetic sources for compiling with the {@code AutoDelegateProcessor}: a number of
+ * interfaces with a number of methods each, and a number of classes annotated with {@code
+ * AutoDelegate} that all delegate to every one of those interfaces.
+ */
+final class SyntheticSources {
+  private static final String PACKAGE = "synthetic";
+
+  private SyntheticSources() {}
+
+  /**
+   * @param classCount the number of classes annotated with {@code AutoDelegate}
+   * @param methodCount the number of methods of each interface
+   * @param targetCount the number of interfaces each annotated class delegates to, via {@code
+   *     AutoDelegate#to()} if more than one
+   * @return the sources of the interfaces followed by the sources of the annotated classes
+   */
+  static List<JavaFileObject> create(
+      final int classCount, final int methodCount, final int targetCount) {
+    final var sources = new ArrayList<JavaFileObject>(targetCount + classCount);
+    for (int target = 0; target < targetCount; target++) {
+      sources.add(source("Api" + target, api(target, methodCount)));
+    }
+    for (int i = 0; i < classCount; i++) {
+      sources.add(source("Delegator" + i, delegator(i, targetCount)));
+    }
+    return sources;
+  }
+
+  private static String api(final int target, final int methodCount) {
+    final var source = new StringBuilder();
+    source.append("package ").append(PACKAGE).append(";\n\n");
+    source.append("public interface Api").append(target).append(" {\n");
+    for (int method = 0; method < methodCount; method++) {
+      // vary the shapes of the methods, as each shape is generated differently
+      final var name = "m" + target + "_" + method;
+      switch (method % 3) {
+        case 0:
+          source.append("  void ").append(name).append("();\n");
+          break;
+        case 1:
+          source.append("  String ").append(name).append("(int count, String value);\n");
+          break;
+        default:
+          source
+              .append("  default long ")
+              .append(name)
+              .append("(long value) {\n    return value;\n  }\n");
+      }
+    }
+    return source.append("}\n").toString();
+  }
+
+  private static String delegator(final int index, final int targetCount) {
+    final var targets = new StringBuilder();
+    final var parameters = new StringBuilder();
+    final var arguments = new StringBuilder();
+    for (int target = 0; target < targetCount; target++) {
+      final var separator = target == 0 ? "" : ", ";
+      targets.append(separator).append("Api").append(target);
+      parameters.append(separator).append("Api").append(target).append(" inner").append(target);
+      arguments.append(separator).append("inner").append(target);
+    }
+    final var annotation =
+        targetCount == 1
+            ? "@AutoDelegate(Api0.class)"
+            : "@AutoDelegate(to = {" + targets.toString().replace(", ", ".class, ") + ".class})";
+    final var className = "Delegator" + index;
+    return "package "
+        + PACKAGE
+        + ";\n\n"
+        + "import com.ryandens.delegation.AutoDelegate;\n\n"
+        + annotation
+        + "\n"
+        + "abstract class "
+        + className
+        + " extends AutoDelegate_"
+        + className
+        + " implements "
+        + targets
+        + " {\n"
+        + "  "
+        + className
+        + "("
+        + parameters
+        + ") {\n"
+        + "    super("
+        + arguments
+        + ");\n"
+        + "  }\n"
+        + "}\n";
+  }
+
+  private static JavaFileObject source(final String simpleName, final String content) {
+    return new SimpleJavaFileObject(
+        URI.create("string:///" + PACKAGE + "/" + simpleName + ".java"),
+        JavaFileObject.Kind.SOURCE) {
+      @Override
+      public CharSequence getCharContent(final boolean ignoreEncodingErrors) {
+        return content;
+      }
+    };
+  }
+}
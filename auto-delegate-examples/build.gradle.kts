@@ -8,6 +8,7 @@ tasks.compileJava {
 
 dependencies {
     compileOnly(project(":auto-delegate-annotations"))
+    implementation(project(":auto-delegate-runtime"))
     annotationProcessor(project(":auto-delegate-processor", "shadow"))
     testImplementation("org.junit.jupiter:junit-jupiter:6.1.2")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
@@ -0,0 +1,72 @@
+package com.ryandens.delegation.examples;
+
+import com.ryandens.delegation.AutoDelegate;
+import com.ryandens.delegation.runtime.LoadBalancer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ExecutorService} that spreads submissions across several smaller thread pools in turn, so
+ * that submitting threads contend on different queues rather than on the queue of one big pool.
+ * Submissions return as soon as they are queued, so they are routed round-robin rather than by
+ * their calls in flight. Lifecycle methods apply to every pool
+ *
+ * <p>Thread-safe
+ */
+@AutoDelegate(value = ExecutorService.class, balanced = true, skipOverridden = true)
+public final class BalancedExecutorService extends AutoDelegate_BalancedExecutorService
+    implements ExecutorService {
+
+  /**
+   * @param pools the number of thread pools
+   * @param threadsPerPool the number of threads of each pool
+   */
+  public BalancedExecutorService(final int pools, final int threadsPerPool) {
+    super(LoadBalancer.roundRobin(fixedThreadPools(pools, threadsPerPool)));
+  }
+
+  private static List<ExecutorService> fixedThreadPools(final int pools, final int threadsPerPool) {
+    final var executorServices = new ArrayList<ExecutorService>(pools);
+    for (int pool = 0; pool < pools; pool++) {
+      executorServices.add(Executors.newFixedThreadPool(threadsPerPool));
+    }
+    return executorServices;
+  }
+
+  @Override
+  public void shutdown() {
+    inner0().delegates().forEach(ExecutorService::shutdown);
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    final var neverCommenced = new ArrayList<Runnable>();
+    inner0().delegates().forEach(pool -> neverCommenced.addAll(pool.shutdownNow()));
+    return neverCommenced;
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return inner0().delegates().stream().allMatch(ExecutorService::isShutdown);
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return inner0().delegates().stream().allMatch(ExecutorService::isTerminated);
+  }
+
+  @Override
+  public boolean awaitTermination(final long timeout, final TimeUnit unit)
+      throws InterruptedException {
+    final long deadline = System.nanoTime() + unit.toNanos(timeout);
+    for (ExecutorService pool : inner0().delegates()) {
+      if (!pool.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
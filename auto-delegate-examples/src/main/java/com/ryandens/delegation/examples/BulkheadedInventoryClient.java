@@ -0,0 +1,31 @@
+package com.ryandens.delegation.examples;
+
+import com.ryandens.delegation.AutoDelegate;
+import com.ryandens.delegation.runtime.ConcurrencyLimiter;
+import java.time.Duration;
+
+/**
+ * {@link InventoryClient} that bounds how many reservations are in flight at once, rejecting
+ * reservations over the limit rather than letting them queue up behind a slow inventory service.
+ * Checking availability is cheap, so it isn't limited
+ *
+ * <p>Thread-safe if the delegate is
+ */
+@AutoDelegate(value = InventoryClient.class, limited = true)
+public final class BulkheadedInventoryClient extends AutoDelegate_BulkheadedInventoryClient
+    implements InventoryClient {
+
+  /**
+   * @param delegate to forward calls to
+   * @param maxReservations the maximum number of reservations in flight
+   */
+  public BulkheadedInventoryClient(final InventoryClient delegate, final int maxReservations) {
+    super(delegate, ConcurrencyLimiter.fixed(maxReservations, Duration.ZERO));
+  }
+
+  @AutoDelegate.Limited
+  @Override
+  public void reserve(final String sku, final int quantity) {
+    super.reserve(sku, quantity);
+  }
+}
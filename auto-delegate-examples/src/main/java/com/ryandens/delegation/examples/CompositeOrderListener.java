@@ -0,0 +1,27 @@
+package com.ryandens.delegation.examples;
+
+import com.ryandens.delegation.AutoDelegate;
+import java.util.List;
+
+/**
+ * {@link OrderListener} that broadcasts each event to a fixed sequence of listeners, in order,
+ * without allocating an iterator per event. An order is only accepted if every listener accepts it
+ *
+ * <p>Thread-safe if the listeners are
+ */
+@AutoDelegate(value = OrderListener.class, broadcast = true)
+public final class CompositeOrderListener extends AutoDelegate_CompositeOrderListener
+    implements OrderListener {
+
+  /**
+   * @param listeners to broadcast to, of which there must be at least one
+   */
+  public CompositeOrderListener(final List<? extends OrderListener> listeners) {
+    super(listeners);
+  }
+
+  @Override
+  protected boolean reduceAccepts(final boolean accumulated, final boolean next) {
+    return accumulated && next;
+  }
+}
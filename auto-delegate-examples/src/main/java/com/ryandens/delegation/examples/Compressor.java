@@ -0,0 +1,10 @@
+package com.ryandens.delegation.examples;
+
+/** Compresses bytes */
+public interface Compressor {
+
+  /**
+   * @return the compressed form of the provided bytes
+   */
+  byte[] compress(byte[] input);
+}
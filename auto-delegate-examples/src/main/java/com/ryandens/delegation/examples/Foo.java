@@ -13,7 +13,9 @@ import java.util.function.UnaryOperator;
  *
  * <p>Thread-safe
  */
-@AutoDelegate(to = {Bar.class, Baz.class})
+@AutoDelegate(
+    to = {Bar.class, Baz.class},
+    async = true)
 public final class Foo extends AutoDelegate_Foo implements Bar, Baz {
 
   private final AtomicReference<State> hasBeenInvoked;
@@ -0,0 +1,25 @@
+package com.ryandens.delegation.examples;
+
+import com.ryandens.delegation.AutoDelegate;
+import com.ryandens.delegation.runtime.Hedger;
+
+/**
+ * {@link PriceCatalog} that reads prices from a primary replica, and hedges reads that take longer
+ * than the 95th percentile with a secondary replica, so that a slow replica doesn't slow down the
+ * slowest reads. Prices are only set through the primary replica, which replicates them to the
+ * secondary one
+ *
+ * <p>Thread-safe if both replicas are
+ */
+@AutoDelegate(value = PriceCatalog.class, hedged = true)
+public final class HedgedPriceCatalog extends AutoDelegate_HedgedPriceCatalog
+    implements PriceCatalog {
+
+  /**
+   * @param primary replica that every call is forwarded to
+   * @param secondary replica that slow reads are also forwarded to
+   */
+  public HedgedPriceCatalog(final PriceCatalog primary, final PriceCatalog secondary) {
+    super(Hedger.create(primary, secondary, 0.95));
+  }
+}
@@ -15,9 +15,12 @@ import java.util.concurrent.atomic.AtomicInteger;
  * Thread-safe {@link ExecutorService} implementation that counts the number of jobs that the
  * composed {@link ExecutorService} must execute
  *
+ * <p>The generated superclass is sealed, so this is the only class that may extend it and the
+ * forwarding methods this class does not override are final.
+ *
  * <p>Thread-safe
  */
-@AutoDelegate(ExecutorService.class)
+@AutoDelegate(value = ExecutorService.class, sealed = true)
 public final class InstrumentedExecutorService extends AutoDelegate_InstrumentedExecutorService
     implements ExecutorService {
 
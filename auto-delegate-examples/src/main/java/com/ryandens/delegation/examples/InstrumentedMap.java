@@ -8,7 +8,7 @@ public final class InstrumentedMap<K, V> extends AutoDelegate_InstrumentedMap<K,
     implements Map<K, V> {
   private int putCount;
 
-  InstrumentedMap(final Map<K, V> inner0) {
+  public InstrumentedMap(final Map<K, V> inner0) {
     super(inner0);
   }
 
@@ -0,0 +1,22 @@
+package com.ryandens.delegation.examples;
+
+import com.ryandens.delegation.AutoDelegate;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * {@link ExecutorService} implementation that invokes a generated, typed {@link
+ * AutoDelegate_InterceptedExecutorServiceInterceptor} before and after every call to the composed
+ * {@link ExecutorService}, rather than wrapping it in a {@link java.lang.reflect.Proxy}
+ *
+ * <p>Thread-safe if the provided interceptor is thread-safe
+ */
+@AutoDelegate(value = ExecutorService.class, intercept = true)
+public final class InterceptedExecutorService extends AutoDelegate_InterceptedExecutorService
+    implements ExecutorService {
+
+  public InterceptedExecutorService(
+      final ExecutorService inner,
+      final AutoDelegate_InterceptedExecutorServiceInterceptor interceptor) {
+    super(inner, interceptor);
+  }
+}
@@ -0,0 +1,13 @@
+package com.ryandens.delegation.examples;
+
+/** Client of a remote inventory service */
+public interface InventoryClient {
+
+  /**
+   * @return the quantity of the item available
+   */
+  int available(String sku);
+
+  /** Reserves the quantity of the item for an order */
+  void reserve(String sku, int quantity);
+}
@@ -0,0 +1,20 @@
+package com.ryandens.delegation.examples;
+
+import com.ryandens.delegation.AutoDelegate;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * {@link ExecutorService} implementation that creates the composed {@link ExecutorService}, along
+ * with any threads it starts, on the first call to it rather than on construction
+ *
+ * <p>Thread-safe if the created {@link ExecutorService} is thread-safe
+ */
+@AutoDelegate(value = ExecutorService.class, lazy = true)
+public final class LazyExecutorService extends AutoDelegate_LazyExecutorService
+    implements ExecutorService {
+
+  public LazyExecutorService(final Supplier<? extends ExecutorService> inner) {
+    super(inner);
+  }
+}
@@ -0,0 +1,46 @@
+package com.ryandens.delegation.examples;
+
+import com.ryandens.delegation.AutoDelegate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link Map} implementation that evicts its least recently used entry once it exceeds a maximum
+ * size. Reads that don't update the order of entries, such as {@link #containsKey(Object)} and
+ * {@link #size()}, proceed concurrently and optimistically, while {@link #get(Object)} and {@link
+ * #getOrDefault(Object, Object)} move the entry they find to the end of the order, so they are
+ * classified as writes
+ *
+ * <p>Thread-safe, but iteration over the collection views must be guarded by the read lock
+ */
+@AutoDelegate(value = Map.class, locked = true, optimisticReads = true)
+public final class LruCache<K, V> extends AutoDelegate_LruCache<K, V> implements Map<K, V> {
+
+  public LruCache(final int maximumSize) {
+    super(accessOrderedMap(maximumSize));
+  }
+
+  @AutoDelegate.Write
+  @Override
+  public V get(final Object key) {
+    return super.get(key);
+  }
+
+  @AutoDelegate.Write
+  @Override
+  public V getOrDefault(final Object key, final V defaultValue) {
+    return super.getOrDefault(key, defaultValue);
+  }
+
+  private static <K, V> Map<K, V> accessOrderedMap(final int maximumSize) {
+    if (maximumSize < 1) {
+      throw new IllegalArgumentException("maximumSize must be positive, was " + maximumSize);
+    }
+    return new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+        return size() > maximumSize;
+      }
+    };
+  }
+}
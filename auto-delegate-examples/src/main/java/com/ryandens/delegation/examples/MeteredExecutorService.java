@@ -0,0 +1,28 @@
+package com.ryandens.delegation.examples;
+
+import com.ryandens.delegation.AutoDelegate;
+import com.ryandens.delegation.runtime.DelegationMetrics;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * {@link ExecutorService} implementation that counts and times every call to the composed {@link
+ * ExecutorService} using generated instrumentation, rather than hand-written counters like {@link
+ * InstrumentedExecutorService}
+ *
+ * <p>Thread-safe
+ */
+@AutoDelegate(value = ExecutorService.class, instrument = true)
+public final class MeteredExecutorService extends AutoDelegate_MeteredExecutorService
+    implements ExecutorService {
+
+  public MeteredExecutorService(final ExecutorService inner) {
+    super(inner);
+  }
+
+  /**
+   * @return the {@link DelegationMetrics} recorded for calls to the composed instance
+   */
+  public DelegationMetrics metrics() {
+    return delegationMetrics();
+  }
+}
@@ -0,0 +1,13 @@
+package com.ryandens.delegation.examples;
+
+/** Listens to orders as they are placed */
+public interface OrderListener {
+
+  /** Called for each order that is placed */
+  void onOrder(String orderId, int quantity);
+
+  /**
+   * @return true if the order should be placed
+   */
+  boolean accepts(String orderId);
+}
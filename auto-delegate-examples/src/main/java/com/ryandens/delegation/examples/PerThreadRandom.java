@@ -0,0 +1,42 @@
+package com.ryandens.delegation.examples;
+
+import com.ryandens.delegation.AutoDelegate;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+/**
+ * {@link RandomGenerator} that forwards each call to a {@link SplittableRandom} confined to the
+ * calling thread, so that threads generate numbers without contending on a shared seed, as they
+ * would with a shared {@link java.util.Random}
+ *
+ * <p>Thread-safe. Streams must be consumed by the thread that created them
+ */
+@AutoDelegate(value = RandomGenerator.class, perThread = true)
+public final class PerThreadRandom extends AutoDelegate_PerThreadRandom implements RandomGenerator {
+
+  public PerThreadRandom() {
+    this(new SplittableRandom());
+  }
+
+  /**
+   * @param seeds which each per-thread generator is split from, so that it is statistically
+   *     independent of the others
+   */
+  public PerThreadRandom(final SplittableRandom seeds) {
+    this(splitting(seeds));
+  }
+
+  PerThreadRandom(final Supplier<? extends RandomGenerator> generators) {
+    super(generators);
+  }
+
+  private static Supplier<SplittableRandom> splitting(final SplittableRandom seeds) {
+    return () -> {
+      // splitting modifies the seeds, which aren't thread-safe
+      synchronized (seeds) {
+        return seeds.split();
+      }
+    };
+  }
+}
@@ -0,0 +1,50 @@
+package com.ryandens.delegation.examples;
+
+import com.ryandens.delegation.AutoDelegate;
+import com.ryandens.delegation.runtime.DelegatePool;
+import java.io.ByteArrayOutputStream;
+import java.util.zip.Deflater;
+
+/**
+ * {@link Compressor} that borrows a {@link Deflater} from a bounded pool for each call, as
+ * deflaters aren't thread-safe and each holds native memory, so creating one per call or per thread
+ * would be too expensive
+ *
+ * <p>Thread-safe
+ */
+@AutoDelegate(value = Compressor.class, pooled = true, skipOverridden = true)
+public final class PooledCompressor extends AutoDelegate_PooledCompressor implements Compressor {
+
+  /**
+   * @param size the maximum number of deflaters, beyond which calls wait for one to be returned
+   */
+  public PooledCompressor(final int size) {
+    super(DelegatePool.blocking(DeflaterCompressor::new, size));
+  }
+
+  /**
+   * @return the number of deflaters created so far
+   */
+  public int deflaters() {
+    return inner0().size();
+  }
+
+  /** {@link Compressor} that reuses a single {@link Deflater}, which isn't thread-safe */
+  private static final class DeflaterCompressor implements Compressor {
+
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final byte[] buffer = new byte[8192];
+
+    @Override
+    public byte[] compress(final byte[] input) {
+      deflater.reset();
+      deflater.setInput(input);
+      deflater.finish();
+      final var output = new ByteArrayOutputStream();
+      while (!deflater.finished()) {
+        output.write(buffer, 0, deflater.deflate(buffer));
+      }
+      return output.toByteArray();
+    }
+  }
+}
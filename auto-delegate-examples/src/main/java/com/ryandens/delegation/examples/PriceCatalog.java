@@ -0,0 +1,20 @@
+package com.ryandens.delegation.examples;
+
+import java.io.IOException;
+
+/** Catalog of the prices of items, backed by a remote store */
+public interface PriceCatalog {
+
+  /**
+   * @return the price of the item, in cents
+   * @throws IOException if the store can't be reached
+   */
+  long getPrice(String sku) throws IOException;
+
+  /**
+   * Sets the price of the item, in cents
+   *
+   * @throws IOException if the store can't be reached
+   */
+  void setPrice(String sku, long price) throws IOException;
+}
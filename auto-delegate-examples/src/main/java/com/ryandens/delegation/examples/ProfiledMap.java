@@ -0,0 +1,19 @@
+package com.ryandens.delegation.examples;
+
+import com.ryandens.delegation.AutoDelegate;
+import java.util.Map;
+
+/**
+ * {@link Map} implementation that records every call to the composed {@link Map} as a JDK Flight
+ * Recorder event named {@code com.ryandens.delegation.examples.ProfiledMap.Delegation}, so that it
+ * is visible in recordings as a delegation layer rather than only as stack frames
+ *
+ * <p>Thread-safe if the composed {@link Map} is thread-safe
+ */
+@AutoDelegate(value = Map.class, jfr = true)
+public final class ProfiledMap<K, V> extends AutoDelegate_ProfiledMap<K, V> implements Map<K, V> {
+
+  public ProfiledMap(final Map<K, V> inner) {
+    super(inner);
+  }
+}
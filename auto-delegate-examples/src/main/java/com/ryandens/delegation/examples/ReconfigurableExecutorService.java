@@ -0,0 +1,31 @@
+package com.ryandens.delegation.examples;
+
+import com.ryandens.delegation.AutoDelegate;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * {@link ExecutorService} implementation whose composed {@link ExecutorService} can be replaced
+ * while it is in use, e.g. to move to a bigger thread pool without a restart
+ *
+ * <p>Thread-safe if the composed {@link ExecutorService}s are thread-safe
+ */
+@AutoDelegate(value = ExecutorService.class, swappable = true)
+public final class ReconfigurableExecutorService extends AutoDelegate_ReconfigurableExecutorService
+    implements ExecutorService {
+
+  public ReconfigurableExecutorService(final ExecutorService inner) {
+    super(inner);
+  }
+
+  /**
+   * Replaces the composed {@link ExecutorService} and shuts down the replaced one once its
+   * previously submitted tasks have been executed
+   *
+   * @return the replaced {@link ExecutorService}
+   */
+  public ExecutorService reconfigure(final ExecutorService replacement) {
+    final var replaced = swapInner0(replacement);
+    replaced.shutdown();
+    return replaced;
+  }
+}
@@ -0,0 +1,27 @@
+package com.ryandens.delegation.examples;
+
+import com.ryandens.delegation.AutoDelegate;
+import com.ryandens.delegation.runtime.DelegationMetrics;
+import java.util.Set;
+
+/**
+ * {@link Set} implementation that counts and times 1 in every 64 calls to the composed {@link Set}
+ * using generated instrumentation, which is cheap enough to leave enabled for very hot sets
+ *
+ * <p>Thread-safe if the composed {@link Set} is thread-safe
+ */
+@AutoDelegate(value = Set.class, instrument = true, sampleRate = 64)
+public final class SampledMeteredSet<E> extends AutoDelegate_SampledMeteredSet<E>
+    implements Set<E> {
+
+  public SampledMeteredSet(final Set<E> inner) {
+    super(inner);
+  }
+
+  /**
+   * @return the {@link DelegationMetrics} sampled from calls to the composed instance
+   */
+  public DelegationMetrics metrics() {
+    return delegationMetrics();
+  }
+}
@@ -0,0 +1,36 @@
+package com.ryandens.delegation.examples;
+
+import com.ryandens.delegation.AutoDelegate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * {@link Map} implementation for read-mostly data, such as routing tables, whose reads are
+ * forwarded to an immutable snapshot without blocking or contending with each other. Each write
+ * replaces the snapshot with an updated copy, and {@link #update(Consumer)} applies a batch of
+ * writes with a single copy
+ *
+ * <p>Thread-safe. The collection views reflect the snapshot they were created from, and must not be
+ * modified
+ */
+@AutoDelegate(value = Map.class, copyOnWrite = true)
+public final class SnapshotMap<K, V> extends AutoDelegate_SnapshotMap<K, V> implements Map<K, V> {
+
+  public SnapshotMap() {
+    this(Map.of());
+  }
+
+  public SnapshotMap(final Map<? extends K, ? extends V> initial) {
+    super(new HashMap<>(initial), HashMap::new);
+  }
+
+  /**
+   * Applies a batch of writes atomically, so that reads observe either none or all of them
+   *
+   * @param batch of writes to a mutable copy of the current snapshot
+   */
+  public void update(final Consumer<? super Map<K, V>> batch) {
+    updateInner0(batch);
+  }
+}
@@ -0,0 +1,56 @@
+package com.ryandens.delegation.examples;
+
+import com.ryandens.delegation.AutoDelegate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link Map} implementation that stripes its lock across synchronized {@link HashMap} shards. Each
+ * keyed call is routed to the shard of its key, so calls for keys of different shards don't contend
+ * for the same lock
+ *
+ * <p>Thread-safe. The collection views are unmodifiable snapshots
+ */
+@AutoDelegate(
+    value = Map.class,
+    sharded = true,
+    keyedApis = {
+      "get",
+      "getOrDefault",
+      "containsKey",
+      "put",
+      "putIfAbsent",
+      "remove",
+      "replace",
+      "computeIfAbsent",
+      "computeIfPresent",
+      "compute",
+      "merge"
+    })
+public final class StripedMap<K, V> extends AutoDelegate_StripedMap<K, V> implements Map<K, V> {
+
+  public StripedMap(final int shards) {
+    super(synchronizedHashMaps(shards));
+  }
+
+  @Override
+  public boolean containsValue(final Object value) {
+    return inner0Shards().stream().anyMatch(shard -> shard.containsValue(value));
+  }
+
+  @Override
+  public void putAll(final Map<? extends K, ? extends V> m) {
+    m.forEach(this::put);
+  }
+
+  private static <K, V> List<Map<K, V>> synchronizedHashMaps(final int shards) {
+    final var synchronizedHashMaps = new ArrayList<Map<K, V>>(shards);
+    for (int i = 0; i < shards; i++) {
+      synchronizedHashMaps.add(Collections.synchronizedMap(new HashMap<>()));
+    }
+    return synchronizedHashMaps;
+  }
+}
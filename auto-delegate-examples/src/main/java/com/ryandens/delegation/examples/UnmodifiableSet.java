@@ -0,0 +1,69 @@
+package com.ryandens.delegation.examples;
+
+import com.ryandens.delegation.AutoDelegate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Unmodifiable view of a {@link Set}. As every mutating API is overridden to throw an {@link
+ * UnsupportedOperationException}, forwarding methods for those APIs would be dead code, so {@link
+ * AutoDelegate#skipOverridden()} is used to leave them out of the generated class.
+ *
+ * <p>Thread-safe if the composed {@link Set} is thread-safe
+ *
+ * @param <E> type of the element in the {@link Set}
+ */
+@AutoDelegate(value = Set.class, skipOverridden = true)
+public final class UnmodifiableSet<E> extends AutoDelegate_UnmodifiableSet<E> implements Set<E> {
+
+  public UnmodifiableSet(final Set<E> inner) {
+    super(inner);
+  }
+
+  @Override
+  public boolean add(final E e) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean remove(final Object o) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean addAll(final Collection<? extends E> c) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean retainAll(final Collection<?> c) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean removeAll(final Collection<?> c) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void clear() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean removeIf(final Predicate<? super E> filter) {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Delegates via the generated {@code inner0()} accessor, as there is no forwarding method to call
+   * via {@code super}
+   */
+  @Override
+  public Iterator<E> iterator() {
+    return Collections.unmodifiableCollection(inner0()).iterator();
+  }
+}
@@ -0,0 +1,50 @@
+package com.ryandens.delegation.examples;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link BalancedExecutorService} */
+final class BalancedExecutorServiceTest {
+
+  @Test
+  void testSubmissionsAreSpreadAcrossPools() throws Exception {
+    // GIVEN a BalancedExecutorService of two single threaded pools
+    final var executorService = new BalancedExecutorService(2, 1);
+    try {
+      // WHEN two tasks that block until both are running are submitted
+      final var running = new CountDownLatch(2);
+      final var threads = ConcurrentHashMap.<Thread>newKeySet();
+      final var futures = new ArrayList<Future<?>>();
+      for (int task = 0; task < 2; task++) {
+        futures.add(
+            executorService.submit(
+                () -> {
+                  threads.add(Thread.currentThread());
+                  running.countDown();
+                  assertTrue(running.await(5, TimeUnit.SECONDS));
+                  return null;
+                }));
+      }
+      // VERIFY each runs on a different pool
+      for (Future<?> future : futures) {
+        future.get(5, TimeUnit.SECONDS);
+      }
+      assertEquals(2, threads.size());
+    } finally {
+      executorService.shutdown();
+    }
+    // VERIFY shutting down applies to every pool
+    assertTrue(executorService.awaitTermination(5, TimeUnit.SECONDS));
+    assertTrue(executorService.isShutdown());
+    assertTrue(executorService.isTerminated());
+    assertEquals(Set.of(), Set.copyOf(executorService.shutdownNow()));
+  }
+}
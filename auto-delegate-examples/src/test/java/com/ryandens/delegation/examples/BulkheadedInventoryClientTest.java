@@ -0,0 +1,57 @@
+package com.ryandens.delegation.examples;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link BulkheadedInventoryClient} */
+final class BulkheadedInventoryClientTest {
+
+  @Test
+  void testReservationsOverTheLimitAreRejected() throws Exception {
+    // GIVEN a BulkheadedInventoryClient of one reservation, whose delegate blocks reservations
+    final var reserving = new CountDownLatch(1);
+    final var released = new CountDownLatch(1);
+    final var client =
+        new BulkheadedInventoryClient(
+            new InventoryClient() {
+              @Override
+              public int available(final String sku) {
+                return 3;
+              }
+
+              @Override
+              public void reserve(final String sku, final int quantity) {
+                reserving.countDown();
+                try {
+                  assertTrue(released.await(5, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                  throw new IllegalStateException(e);
+                }
+              }
+            },
+            1);
+    final var executor = Executors.newSingleThreadExecutor();
+    try {
+      // WHEN a reservation is in flight
+      final var reservation = executor.submit(() -> client.reserve("sku", 1));
+      assertTrue(reserving.await(5, TimeUnit.SECONDS));
+      // VERIFY another reservation is rejected, while availability is still checked
+      assertThrows(RejectedExecutionException.class, () -> client.reserve("sku", 1));
+      assertEquals(3, client.available("sku"));
+      // VERIFY reservations are accepted once the one in flight completes
+      released.countDown();
+      reservation.get(5, TimeUnit.SECONDS);
+      client.reserve("sku", 1);
+      assertEquals(0, client.delegationLimiter().inFlight());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package com.ryandens.delegation.examples;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link CompositeOrderListener} */
+final class CompositeOrderListenerTest {
+
+  @Test
+  void testBroadcast() {
+    // GIVEN a CompositeOrderListener of two listeners, the second of which rejects an order
+    final var events = new ArrayList<String>();
+    final var listener =
+        new CompositeOrderListener(
+            List.of(
+                new RecordingListener("first", events, null),
+                new RecordingListener("second", events, "order-2")));
+    // WHEN an order is placed
+    listener.onOrder("order-1", 5);
+    // VERIFY it is broadcast to each listener, in order
+    assertEquals(List.of("first:order-1:5", "second:order-1:5"), events);
+    // VERIFY orders are only accepted if every listener accepts them
+    assertTrue(listener.accepts("order-1"));
+    assertFalse(listener.accepts("order-2"));
+  }
+
+  @Test
+  void testBroadcastStopsAtFailure() {
+    // GIVEN a CompositeOrderListener whose first listener fails
+    final var events = new ArrayList<String>();
+    final var listener =
+        new CompositeOrderListener(
+            List.of(new FailingListener(), new RecordingListener("second", events, null)));
+    // WHEN an order is placed
+    assertThrows(IllegalStateException.class, () -> listener.onOrder("order-1", 5));
+    // VERIFY the failure isn't broadcast past the listener that failed
+    assertTrue(events.isEmpty());
+  }
+
+  @Test
+  void testAtLeastOneListener() {
+    // VERIFY a CompositeOrderListener of no listeners can't be created
+    assertThrows(IllegalArgumentException.class, () -> new CompositeOrderListener(List.of()));
+  }
+
+  /** Records each order, and accepts every order but one */
+  private static final class RecordingListener implements OrderListener {
+
+    private final String name;
+    private final List<String> events;
+    private final String rejectedOrderId;
+
+    private RecordingListener(
+        final String name, final List<String> events, final String rejectedOrderId) {
+      this.name = name;
+      this.events = events;
+      this.rejectedOrderId = rejectedOrderId;
+    }
+
+    @Override
+    public void onOrder(final String orderId, final int quantity) {
+      events.add(name + ":" + orderId + ":" + quantity);
+    }
+
+    @Override
+    public boolean accepts(final String orderId) {
+      return !orderId.equals(rejectedOrderId);
+    }
+  }
+
+  private static final class FailingListener implements OrderListener {
+
+    @Override
+    public void onOrder(final String orderId, final int quantity) {
+      throw new IllegalStateException();
+    }
+
+    @Override
+    public boolean accepts(final String orderId) {
+      return false;
+    }
+  }
+}
@@ -1,11 +1,18 @@
 package com.ryandens.delegation.examples;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -13,14 +20,15 @@ import org.junit.jupiter.api.Test;
 final class FooTest {
 
   private Foo foo;
+  private Bar innerComposedBar;
   private Baz innerComposedBaz;
 
   @BeforeEach
   void beforeEach() {
     // GIVEN a valid foo instance
-    final var bar = mock(Bar.class);
+    innerComposedBar = mock(Bar.class);
     innerComposedBaz = mock(Baz.class);
-    foo = new Foo(bar, innerComposedBaz);
+    foo = new Foo(innerComposedBar, innerComposedBaz);
   }
 
   /** Verifies that if we invoke {@link Foo#a()} */
@@ -90,4 +98,28 @@ final class FooTest {
     // what the default implementation of Baz.g returns
     assertNull(g);
   }
+
+  @Test
+  void test_async_facade() throws Exception {
+    // GIVEN an asynchronous facade of foo
+    final var callingThread = new AtomicReference<Thread>();
+    when(innerComposedBar.b())
+        .thenAnswer(
+            invocation -> {
+              callingThread.set(Thread.currentThread());
+              return "b";
+            });
+    final var async = new AutoDelegate_FooAsync(foo, foo);
+    // WHEN we invoke foo.b() through the facade
+    // VERIFY the result completes the future, and the call ran on another thread
+    assertEquals("b", async.b().get(1, TimeUnit.SECONDS));
+    assertNotSame(Thread.currentThread(), callingThread.get());
+    // WHEN we invoke foo.a() and then foo.d() through the facade
+    async.a().get(1, TimeUnit.SECONDS);
+    final var failed = async.d();
+    // VERIFY the exception thrown by foo completes the future
+    assertInstanceOf(
+        IllegalStateException.class,
+        assertThrows(ExecutionException.class, () -> failed.get(1, TimeUnit.SECONDS)).getCause());
+  }
 }
@@ -0,0 +1,64 @@
+package com.ryandens.delegation.examples;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ryandens.delegation.runtime.Hedger;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link HedgedPriceCatalog} */
+final class HedgedPriceCatalogTest {
+
+  @Test
+  void testSlowReadsAreHedged() throws Exception {
+    // GIVEN a HedgedPriceCatalog whose primary replica blocks reads once it becomes slow
+    final var primary = new Replica();
+    final var secondary = new Replica();
+    final var catalog = new HedgedPriceCatalog(primary, secondary);
+    primary.prices.put("sku", 100L);
+    secondary.prices.put("sku", 100L);
+    for (int i = 0; i < Hedger.WARM_UP_CALLS; i++) {
+      assertEquals(100L, catalog.getPrice("sku"));
+    }
+    // WHEN the primary replica becomes slow
+    primary.slow.set(true);
+    // VERIFY reads are answered by the secondary replica
+    assertEquals(100L, catalog.getPrice("sku"));
+    assertTrue(primary.interrupted.await(5, TimeUnit.SECONDS));
+    // VERIFY writes only reach the primary replica
+    primary.slow.set(false);
+    catalog.setPrice("sku", 200L);
+    assertEquals(200L, primary.prices.get("sku"));
+    assertEquals(100L, secondary.prices.get("sku"));
+  }
+
+  private static final class Replica implements PriceCatalog {
+
+    private final Map<String, Long> prices = new ConcurrentHashMap<>();
+    private final AtomicBoolean slow = new AtomicBoolean();
+    private final CountDownLatch interrupted = new CountDownLatch(1);
+
+    @Override
+    public long getPrice(final String sku) {
+      if (slow.get()) {
+        try {
+          new CountDownLatch(1).await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          interrupted.countDown();
+          Thread.currentThread().interrupt();
+        }
+      }
+      return prices.get(sku);
+    }
+
+    @Override
+    public void setPrice(final String sku, final long price) {
+      prices.put(sku, price);
+    }
+  }
+}
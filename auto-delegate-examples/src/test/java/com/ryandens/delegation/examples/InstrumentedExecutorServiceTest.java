@@ -1,10 +1,15 @@
 package com.ryandens.delegation.examples;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 
+import java.lang.reflect.Modifier;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -34,4 +39,17 @@ final class InstrumentedExecutorServiceTest {
     // VERIFY the count is correct
     assertEquals(1, instrumentedExecutorService.getNumJobs());
   }
+
+  @Test
+  void testSealedSuperclass() throws NoSuchMethodException {
+    final var superclass = InstrumentedExecutorService.class.getSuperclass();
+    // VERIFY the generated superclass only permits InstrumentedExecutorService
+    assertTrue(superclass.isSealed());
+    assertArrayEquals(
+        new Class<?>[] {InstrumentedExecutorService.class}, superclass.getPermittedSubclasses());
+    // VERIFY forwarding methods that InstrumentedExecutorService doesn't override are final
+    assertTrue(Modifier.isFinal(superclass.getMethod("shutdown").getModifiers()));
+    // VERIFY forwarding methods that InstrumentedExecutorService overrides are not final
+    assertFalse(Modifier.isFinal(superclass.getMethod("submit", Callable.class).getModifiers()));
+  }
 }
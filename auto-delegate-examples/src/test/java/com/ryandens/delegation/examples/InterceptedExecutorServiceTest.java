@@ -0,0 +1,131 @@
+package com.ryandens.delegation.examples;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link InterceptedExecutorService} */
+final class InterceptedExecutorServiceTest {
+
+  private ExecutorService executorServiceMock;
+  private List<String> events;
+
+  @BeforeEach
+  void beforeEach() {
+    executorServiceMock = mock(ExecutorService.class);
+    events = new ArrayList<>();
+  }
+
+  @Test
+  void testHooksReceiveTypedArgumentsAndResult() throws InterruptedException {
+    when(executorServiceMock.awaitTermination(5, TimeUnit.SECONDS)).thenReturn(true);
+    // GIVEN an ExecutorService intercepted by an interceptor that records awaitTermination calls
+    final var interceptedExecutorService =
+        new InterceptedExecutorService(executorServiceMock, new RecordingInterceptor("a"));
+    // WHEN we await termination
+    assertTrue(interceptedExecutorService.awaitTermination(5, TimeUnit.SECONDS));
+    // VERIFY the hooks were invoked with the primitive timeout, the unit and the primitive result
+    assertEquals(List.of("a:before:5 SECONDS", "a:after:5 SECONDS=true"), events);
+  }
+
+  @Test
+  void testMethodIdsIndexMethods() {
+    final var methodIds = new ArrayList<Integer>();
+    // GIVEN an ExecutorService intercepted by an interceptor that records method IDs
+    final var interceptedExecutorService =
+        new InterceptedExecutorService(
+            executorServiceMock,
+            new AutoDelegate_InterceptedExecutorServiceInterceptor() {
+              @Override
+              public void beforeShutdown(final int methodId) {
+                methodIds.add(methodId);
+              }
+            });
+    // WHEN we shut down the ExecutorService
+    interceptedExecutorService.shutdown();
+    // VERIFY the method ID identifies the shutdown method
+    assertEquals(1, methodIds.size());
+    assertEquals(
+        "shutdown()",
+        AutoDelegate_InterceptedExecutorServiceInterceptor.METHODS.get(methodIds.get(0)));
+  }
+
+  @Test
+  void testChainOrdering() throws InterruptedException {
+    // GIVEN an ExecutorService intercepted by a chain of two interceptors
+    final var interceptedExecutorService =
+        new InterceptedExecutorService(
+            executorServiceMock,
+            AutoDelegate_InterceptedExecutorServiceInterceptor.chain(
+                new RecordingInterceptor("a"), new RecordingInterceptor("b")));
+    // WHEN we await termination
+    interceptedExecutorService.awaitTermination(1, TimeUnit.MILLISECONDS);
+    // VERIFY before hooks ran in order and after hooks ran in reverse order
+    assertEquals(
+        List.of(
+            "a:before:1 MILLISECONDS",
+            "b:before:1 MILLISECONDS",
+            "b:after:1 MILLISECONDS=false",
+            "a:after:1 MILLISECONDS=false"),
+        events);
+  }
+
+  @Test
+  void testAfterHookSkippedWhenInnerThrows() {
+    // GIVEN a composed ExecutorService that rejects tasks
+    doThrow(new RejectedExecutionException()).when(executorServiceMock).execute(any());
+    final var interceptedExecutorService =
+        new InterceptedExecutorService(
+            executorServiceMock,
+            new AutoDelegate_InterceptedExecutorServiceInterceptor() {
+              @Override
+              public void beforeExecute(final int methodId, final Runnable command) {
+                events.add("before");
+              }
+
+              @Override
+              public void afterExecute(final int methodId, final Runnable command) {
+                events.add("after");
+              }
+            });
+    // WHEN we execute a task
+    assertThrows(
+        RejectedExecutionException.class, () -> interceptedExecutorService.execute(() -> {}));
+    // VERIFY only the before hook was invoked
+    assertEquals(List.of("before"), events);
+  }
+
+  /** Records awaitTermination calls into {@link #events}, prefixed by a name */
+  private final class RecordingInterceptor
+      implements AutoDelegate_InterceptedExecutorServiceInterceptor {
+    private final String name;
+
+    private RecordingInterceptor(final String name) {
+      this.name = name;
+    }
+
+    @Override
+    public void beforeAwaitTermination(
+        final int methodId, final long timeout, final TimeUnit unit) {
+      events.add(name + ":before:" + timeout + " " + unit);
+    }
+
+    @Override
+    public void afterAwaitTermination(
+        final int methodId, final long timeout, final TimeUnit unit, final boolean result) {
+      events.add(name + ":after:" + timeout + " " + unit + "=" + result);
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package com.ryandens.delegation.examples;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link LazyExecutorService} */
+final class LazyExecutorServiceTest {
+
+  @Test
+  void testCreatedOnFirstUse() {
+    final var executorServiceMock = mock(ExecutorService.class);
+    when(executorServiceMock.isShutdown()).thenReturn(true);
+    final var created = new AtomicInteger();
+    // GIVEN a LazyExecutorService
+    final var lazyExecutorService =
+        new LazyExecutorService(
+            () -> {
+              created.incrementAndGet();
+              return executorServiceMock;
+            });
+    // VERIFY the composed ExecutorService is not created on construction
+    assertEquals(0, created.get());
+    // WHEN we call it twice
+    assertTrue(lazyExecutorService.isShutdown());
+    lazyExecutorService.shutdown();
+    // VERIFY it was created once, and both calls were forwarded to it
+    assertEquals(1, created.get());
+    verify(executorServiceMock).shutdown();
+  }
+
+  @Test
+  void testCreatedOnceUnderContention() throws Exception {
+    final var created = new AtomicInteger();
+    final var start = new CountDownLatch(1);
+    // GIVEN a LazyExecutorService
+    final var lazyExecutorService =
+        new LazyExecutorService(
+            () -> {
+              created.incrementAndGet();
+              return mock(ExecutorService.class);
+            });
+    final var threads = Executors.newFixedThreadPool(8);
+    try {
+      // WHEN many threads call it at once
+      final var futures = new ArrayList<Future<Boolean>>();
+      for (int i = 0; i < 8; i++) {
+        futures.add(
+            threads.submit(
+                () -> {
+                  start.await();
+                  return lazyExecutorService.isTerminated();
+                }));
+      }
+      start.countDown();
+      for (Future<Boolean> future : futures) {
+        future.get();
+      }
+    } finally {
+      threads.shutdownNow();
+    }
+    // VERIFY it was only created once
+    assertEquals(1, created.get());
+  }
+
+  @Test
+  void testSupplierReturningNull() {
+    // GIVEN a LazyExecutorService whose supplier returns null
+    final var lazyExecutorService = new LazyExecutorService(() -> null);
+    // VERIFY the first call fails, rather than forwarding to null
+    assertThrows(NullPointerException.class, lazyExecutorService::shutdown);
+  }
+}
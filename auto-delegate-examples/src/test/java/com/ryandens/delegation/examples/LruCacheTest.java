@@ -0,0 +1,78 @@
+package com.ryandens.delegation.examples;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link LruCache} */
+final class LruCacheTest {
+
+  @Test
+  void testLeastRecentlyUsedEntryIsEvicted() {
+    // GIVEN an LruCache holding two entries
+    final var lruCache = new LruCache<String, Integer>(2);
+    lruCache.put("a", 1);
+    lruCache.put("b", 2);
+    // WHEN we get the older entry, and then put a third
+    assertEquals(1, lruCache.get("a"));
+    lruCache.put("c", 3);
+    // VERIFY the least recently used entry was evicted
+    assertEquals(List.of("a", "c"), new ArrayList<>(lruCache.keySet()));
+    assertNull(lruCache.get("b"));
+    assertFalse(lruCache.containsKey("b"));
+  }
+
+  @Test
+  void testConcurrentReadsAndWrites() throws Exception {
+    // GIVEN an LruCache large enough to hold every key
+    final var lruCache = new LruCache<Integer, Integer>(1_000);
+    final var threads = Executors.newFixedThreadPool(8);
+    try {
+      // WHEN some threads write while others read
+      final var futures = new ArrayList<Future<?>>();
+      for (int thread = 0; thread < 8; thread++) {
+        final var writer = thread % 2 == 0;
+        final var offset = thread * 100;
+        futures.add(
+            threads.submit(
+                () -> {
+                  for (int i = 0; i < 10_000; i++) {
+                    if (writer) {
+                      lruCache.put(offset + i % 100, i);
+                    } else {
+                      lruCache.containsKey(i % 800);
+                      lruCache.getOrDefault(i % 800, -1);
+                      assertTrue(lruCache.size() <= 400);
+                    }
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      threads.shutdownNow();
+    }
+    // VERIFY every write is visible and the map is consistent
+    assertEquals(400, lruCache.size());
+    for (int thread = 0; thread < 8; thread += 2) {
+      for (int i = 0; i < 100; i++) {
+        assertEquals(9_900 + i, lruCache.get(thread * 100 + i));
+      }
+    }
+  }
+
+  @Test
+  void testInvalidMaximumSize() {
+    // VERIFY an LruCache requires a positive maximum size
+    assertThrows(IllegalArgumentException.class, () -> new LruCache<String, String>(0));
+  }
+}
@@ -0,0 +1,53 @@
+package com.ryandens.delegation.examples;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link MeteredExecutorService} */
+final class MeteredExecutorServiceTest {
+
+  private MeteredExecutorService meteredExecutorService;
+  private ExecutorService executorServiceMock;
+
+  @BeforeEach
+  void beforeEach() {
+    executorServiceMock = mock(ExecutorService.class);
+    // GIVEN a metered ExecutorService
+    meteredExecutorService = new MeteredExecutorService(executorServiceMock);
+  }
+
+  @Test
+  void testCallsAreCounted() {
+    final var metrics = meteredExecutorService.metrics();
+    final var executeId = metrics.methodId("execute(java.lang.Runnable)");
+    final var shutdownId = metrics.methodId("shutdown()");
+    // WHEN we execute two tasks
+    meteredExecutorService.execute(() -> {});
+    meteredExecutorService.execute(() -> {});
+    // VERIFY each call was counted and recorded in the latency histogram
+    assertEquals(2, metrics.count(executeId));
+    assertEquals(2, Arrays.stream(metrics.histogram(executeId)).sum());
+    // VERIFY methods that were not called were not counted
+    assertEquals(0, metrics.count(shutdownId));
+  }
+
+  @Test
+  void testCallsThatThrowAreCounted() {
+    // GIVEN a composed ExecutorService that rejects tasks
+    doThrow(new RejectedExecutionException()).when(executorServiceMock).execute(any());
+    // WHEN we execute a task
+    assertThrows(RejectedExecutionException.class, () -> meteredExecutorService.execute(() -> {}));
+    // VERIFY the call was counted
+    final var metrics = meteredExecutorService.metrics();
+    assertEquals(1, metrics.count(metrics.methodId("execute(java.lang.Runnable)")));
+  }
+}
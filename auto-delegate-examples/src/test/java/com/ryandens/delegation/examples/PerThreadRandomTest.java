@@ -0,0 +1,64 @@
+package com.ryandens.delegation.examples;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link PerThreadRandom} */
+final class PerThreadRandomTest {
+
+  @Test
+  void testEachThreadUsesItsOwnGenerator() throws Exception {
+    // GIVEN a PerThreadRandom that counts the generators it creates
+    final var created = new AtomicInteger();
+    final var seeds = new SplittableRandom(42);
+    final var random =
+        new PerThreadRandom(
+            () -> {
+              created.incrementAndGet();
+              synchronized (seeds) {
+                return seeds.split();
+              }
+            });
+    final var threads = Executors.newFixedThreadPool(4);
+    try {
+      // WHEN 4 threads each generate many numbers
+      final var futures = new ArrayList<Future<?>>();
+      for (int thread = 0; thread < 4; thread++) {
+        futures.add(
+            threads.submit(
+                () -> {
+                  for (int i = 0; i < 10_000; i++) {
+                    final var value = random.nextInt(10);
+                    // VERIFY the default methods are forwarded too
+                    assertTrue(value >= 0 && value < 10);
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      threads.shutdownNow();
+    }
+    // VERIFY each thread created exactly one generator
+    assertEquals(4, created.get());
+  }
+
+  @Test
+  void testSameSeedsGenerateSameNumbers() {
+    // GIVEN two PerThreadRandoms with the same seed
+    final var first = new PerThreadRandom(new SplittableRandom(7));
+    final var second = new PerThreadRandom(new SplittableRandom(7));
+    // VERIFY they generate the same numbers on the same thread
+    for (int i = 0; i < 100; i++) {
+      assertEquals(first.nextLong(), second.nextLong());
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package com.ryandens.delegation.examples;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link PooledCompressor} */
+final class PooledCompressorTest {
+
+  @Test
+  void testConcurrentCompression() throws Exception {
+    // GIVEN a PooledCompressor with fewer deflaters than threads
+    final var compressor = new PooledCompressor(2);
+    final var threads = Executors.newFixedThreadPool(8);
+    try {
+      // WHEN many threads compress different inputs concurrently
+      final var futures = new ArrayList<Future<?>>();
+      for (int thread = 0; thread < 8; thread++) {
+        final var input = ("thread " + thread + " ").repeat(1_000).getBytes(StandardCharsets.UTF_8);
+        futures.add(
+            threads.submit(
+                () -> {
+                  for (int i = 0; i < 100; i++) {
+                    // VERIFY every result decompresses to its input
+                    assertArrayEquals(input, decompress(compressor.compress(input)));
+                  }
+                  return null;
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      threads.shutdownNow();
+    }
+    // VERIFY no more deflaters were created than the size of the pool
+    assertTrue(compressor.deflaters() <= 2);
+  }
+
+  private static byte[] decompress(final byte[] compressed) throws DataFormatException {
+    final var inflater = new Inflater();
+    try {
+      inflater.setInput(compressed);
+      final var output = new ByteArrayOutputStream();
+      final var buffer = new byte[8192];
+      while (!inflater.finished()) {
+        output.write(buffer, 0, inflater.inflate(buffer));
+      }
+      return output.toByteArray();
+    } finally {
+      inflater.end();
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package com.ryandens.delegation.examples;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for {@link ProfiledMap} */
+final class ProfiledMapTest {
+
+  private static final String EVENT_NAME =
+      "com.ryandens.delegation.examples.ProfiledMap.Delegation";
+
+  @TempDir Path tempDir;
+
+  @Test
+  void testCallsAreRecorded() throws IOException {
+    // GIVEN a profiled Map
+    final var profiledMap = new ProfiledMap<String, String>(new HashMap<>());
+    final List<RecordedEvent> events;
+    // WHEN we call it while a recording is enabling its events
+    try (var recording = new Recording()) {
+      recording.enable(EVENT_NAME).withoutThreshold();
+      recording.start();
+      profiledMap.put("foo", "bar");
+      assertEquals("bar", profiledMap.get("foo"));
+      recording.stop();
+      events = recordedEvents(recording);
+    }
+    // VERIFY each call was recorded with its method and the class of the composed Map
+    assertEquals(
+        List.of("put(java.lang.Object,java.lang.Object)", "get(java.lang.Object)"),
+        events.stream().map(event -> event.getString("method")).collect(Collectors.toList()));
+    for (RecordedEvent event : events) {
+      assertEquals(HashMap.class.getName(), event.getClass("delegateClass").getName());
+      assertTrue(event.getDuration().toNanos() >= 0);
+    }
+  }
+
+  @Test
+  void testCallsThatThrowAreRecorded() throws IOException {
+    // GIVEN a profiled Map composing an immutable Map
+    final var profiledMap = new ProfiledMap<String, String>(Map.of());
+    final List<RecordedEvent> events;
+    // WHEN we call a mutator that throws while a recording is enabling its events
+    try (var recording = new Recording()) {
+      recording.enable(EVENT_NAME).withoutThreshold();
+      recording.start();
+      assertThrows(UnsupportedOperationException.class, () -> profiledMap.put("foo", "bar"));
+      recording.stop();
+      events = recordedEvents(recording);
+    }
+    // VERIFY the call was recorded
+    assertEquals(1, events.size());
+    assertEquals("put(java.lang.Object,java.lang.Object)", events.get(0).getString("method"));
+  }
+
+  @Test
+  void testCallsAreNotRecordedByDefault() throws IOException {
+    // GIVEN a profiled Map
+    final var profiledMap = new ProfiledMap<String, String>(new HashMap<>());
+    final List<RecordedEvent> events;
+    // WHEN we call it while a recording is running with the default settings
+    try (var recording = new Recording()) {
+      recording.start();
+      profiledMap.put("foo", "bar");
+      recording.stop();
+      events = recordedEvents(recording);
+    }
+    // VERIFY no call was recorded, as recordings must opt in to the event
+    assertTrue(events.isEmpty());
+  }
+
+  private List<RecordedEvent> recordedEvents(final Recording recording) throws IOException {
+    final var file = Files.createTempFile(tempDir, "profiled-map", ".jfr");
+    recording.dump(file);
+    return RecordingFile.readAllEvents(file).stream()
+        .filter(event -> event.getEventType().getName().equals(EVENT_NAME))
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,44 @@
+package com.ryandens.delegation.examples;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.ExecutorService;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link ReconfigurableExecutorService} */
+final class ReconfigurableExecutorServiceTest {
+
+  @Test
+  void testReconfigure() {
+    final var original = mock(ExecutorService.class);
+    final var replacement = mock(ExecutorService.class);
+    final Runnable task = () -> {};
+    // GIVEN a ReconfigurableExecutorService
+    final var reconfigurableExecutorService = new ReconfigurableExecutorService(original);
+    reconfigurableExecutorService.execute(task);
+    // WHEN we reconfigure it
+    assertSame(original, reconfigurableExecutorService.reconfigure(replacement));
+    reconfigurableExecutorService.execute(task);
+    // VERIFY calls before the swap went to the original, which was shut down, and calls after the
+    // swap went to the replacement
+    verify(original).execute(task);
+    verify(original).shutdown();
+    verify(replacement).execute(task);
+    verify(replacement, never()).shutdown();
+  }
+
+  @Test
+  void testReconfigureWithNull() {
+    final var original = mock(ExecutorService.class);
+    // GIVEN a ReconfigurableExecutorService
+    final var reconfigurableExecutorService = new ReconfigurableExecutorService(original);
+    // VERIFY it can't be reconfigured to forward to null, and keeps forwarding to the original
+    assertThrows(NullPointerException.class, () -> reconfigurableExecutorService.reconfigure(null));
+    reconfigurableExecutorService.shutdownNow();
+    verify(original).shutdownNow();
+  }
+}
@@ -0,0 +1,33 @@
+package com.ryandens.delegation.examples;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link SampledMeteredSet} */
+final class SampledMeteredSetTest {
+
+  @Test
+  void testCountsAreExtrapolatedFromSamples() {
+    final var calls = 64_000;
+    // GIVEN a set that samples 1 in 64 calls
+    final var sampledMeteredSet = new SampledMeteredSet<Integer>(new HashSet<>());
+    final var metrics = sampledMeteredSet.metrics();
+    final var addId = metrics.methodId("add(java.lang.Object)");
+    // WHEN we add many elements
+    for (int i = 0; i < calls; i++) {
+      sampledMeteredSet.add(i);
+    }
+    // VERIFY every call was forwarded
+    assertEquals(calls, sampledMeteredSet.size());
+    // VERIFY only a sample of calls was recorded, from which the total is estimated. The expected
+    // 1000 samples have a standard deviation of ~31, so these bounds are never exceeded in practice
+    final var samples = metrics.sampledCount(addId);
+    assertTrue(samples > 800 && samples < 1200, () -> "Unexpected number of samples " + samples);
+    assertEquals(samples * 64, metrics.count(addId));
+    assertEquals(samples, Arrays.stream(metrics.histogram(addId)).sum());
+  }
+}
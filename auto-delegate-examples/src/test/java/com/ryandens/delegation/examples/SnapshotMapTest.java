@@ -0,0 +1,111 @@
+package com.ryandens.delegation.examples;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link SnapshotMap} */
+final class SnapshotMapTest {
+
+  @Test
+  void testInitialMapIsCopied() {
+    // GIVEN a SnapshotMap created from a mutable map
+    final var initial = new HashMap<String, String>();
+    initial.put("a", "1");
+    final var snapshotMap = new SnapshotMap<>(initial);
+    // WHEN we modify the initial map
+    initial.put("b", "2");
+    // VERIFY the SnapshotMap isn't affected
+    assertEquals(Map.of("a", "1"), snapshotMap);
+  }
+
+  @Test
+  void testViewsAreSnapshots() {
+    // GIVEN a SnapshotMap and a view of its keys
+    final var snapshotMap = new SnapshotMap<String, Integer>(Map.of("a", 1, "b", 2));
+    final var keys = snapshotMap.keySet();
+    // WHEN we write while iterating over the view
+    for (String key : keys) {
+      snapshotMap.put(key + key, 0);
+    }
+    // VERIFY the view is unaffected, while the map reflects every write
+    assertEquals(Set.of("a", "b"), keys);
+    assertEquals(Set.of("a", "b", "aa", "bb"), snapshotMap.keySet());
+  }
+
+  @Test
+  void testBatchIsAtomic() {
+    // GIVEN a SnapshotMap
+    final var snapshotMap = new SnapshotMap<String, Integer>(Map.of("a", 1));
+    // WHEN a batch of writes succeeds
+    snapshotMap.update(
+        map -> {
+          map.remove("a");
+          map.put("b", 2);
+        });
+    // VERIFY every write is visible
+    assertEquals(Map.of("b", 2), snapshotMap);
+    // WHEN a batch of writes fails part way through
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            snapshotMap.update(
+                map -> {
+                  map.clear();
+                  throw new IllegalStateException();
+                }));
+    // VERIFY none of its writes are visible
+    assertEquals(Map.of("b", 2), snapshotMap);
+  }
+
+  @Test
+  void testConcurrentReadsAndWrites() throws Exception {
+    // GIVEN a SnapshotMap whose values always sum to zero
+    final var snapshotMap = new SnapshotMap<String, Integer>(Map.of("debit", 0, "credit", 0));
+    final var threads = Executors.newFixedThreadPool(4);
+    try {
+      // WHEN one thread moves amounts in batches, while others read
+      final Future<?> writer =
+          threads.submit(
+              () -> {
+                for (int i = 0; i < 1_000; i++) {
+                  snapshotMap.update(
+                      map -> {
+                        map.merge("debit", -1, Integer::sum);
+                        map.merge("credit", 1, Integer::sum);
+                      });
+                }
+              });
+      final var readers = new Future<?>[3];
+      for (int i = 0; i < readers.length; i++) {
+        readers[i] =
+            threads.submit(
+                () -> {
+                  while (!writer.isDone()) {
+                    // VERIFY every read observes a consistent snapshot
+                    assertEquals(
+                        0, snapshotMap.values().stream().mapToInt(Integer::intValue).sum());
+                    assertFalse(snapshotMap.isEmpty());
+                  }
+                });
+      }
+      writer.get();
+      for (Future<?> reader : readers) {
+        reader.get();
+      }
+    } finally {
+      threads.shutdownNow();
+    }
+    // VERIFY no write was lost
+    assertEquals(1_000, snapshotMap.get("credit"));
+    assertTrue(snapshotMap.containsKey("debit"));
+  }
+}
@@ -0,0 +1,90 @@
+package com.ryandens.delegation.examples;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link StripedMap} */
+final class StripedMapTest {
+
+  @Test
+  void testKeyedCallsAreRoutedToShards() {
+    // GIVEN a StripedMap with 4 shards
+    final var stripedMap = new StripedMap<Integer, String>(4);
+    // WHEN we put many keys
+    for (int i = 0; i < 1_000; i++) {
+      stripedMap.put(i, "value" + i);
+    }
+    // VERIFY each key can be read back, every shard holds some keys, and the size is summed
+    for (int i = 0; i < 1_000; i++) {
+      assertEquals("value" + i, stripedMap.get(i));
+    }
+    stripedMap.inner0Shards().forEach(shard -> assertFalse(shard.isEmpty()));
+    assertEquals(1_000, stripedMap.size());
+    assertEquals(
+        1_000, stripedMap.inner0Shards().stream().mapToInt(Map::size).sum(), "keys are disjoint");
+  }
+
+  @Test
+  void testCallsWithoutKeysAreCombined() {
+    // GIVEN a StripedMap with entries in several shards
+    final var stripedMap = new StripedMap<String, Integer>(4);
+    final var expected = new HashMap<String, Integer>();
+    for (int i = 0; i < 100; i++) {
+      expected.put("key" + i, i);
+    }
+    stripedMap.putAll(expected);
+    // VERIFY the views combine every shard, and are snapshots
+    assertEquals(expected.keySet(), stripedMap.keySet());
+    assertEquals(expected.entrySet(), stripedMap.entrySet());
+    assertEquals(expected.hashCode(), stripedMap.hashCode());
+    assertThrows(UnsupportedOperationException.class, () -> stripedMap.values().clear());
+    assertTrue(stripedMap.containsValue(42));
+    // WHEN we clear it
+    stripedMap.clear();
+    // VERIFY every shard was cleared
+    assertTrue(stripedMap.isEmpty());
+  }
+
+  @Test
+  void testConcurrentUpdates() throws Exception {
+    // GIVEN a StripedMap
+    final var stripedMap = new StripedMap<Integer, Integer>(8);
+    final var threads = Executors.newFixedThreadPool(8);
+    try {
+      // WHEN many threads increment counters for overlapping keys
+      final var futures = new ArrayList<Future<?>>();
+      for (int thread = 0; thread < 8; thread++) {
+        futures.add(
+            threads.submit(
+                () -> {
+                  for (int i = 0; i < 10_000; i++) {
+                    stripedMap.merge(i % 100, 1, Integer::sum);
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      threads.shutdownNow();
+    }
+    // VERIFY no increment was lost
+    assertEquals(100, stripedMap.size());
+    stripedMap.values().forEach(count -> assertEquals(800, count));
+  }
+
+  @Test
+  void testNoShards() {
+    // VERIFY a StripedMap requires at least one shard
+    assertThrows(IllegalArgumentException.class, () -> new StripedMap<String, String>(0));
+  }
+}
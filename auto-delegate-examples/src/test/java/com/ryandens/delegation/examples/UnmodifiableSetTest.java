@@ -0,0 +1,48 @@
+package com.ryandens.delegation.examples;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link UnmodifiableSet} */
+final class UnmodifiableSetTest {
+
+  private UnmodifiableSet<String> unmodifiableSet;
+
+  @BeforeEach
+  void beforeEach() {
+    // GIVEN an unmodifiable view of a Set<String>
+    unmodifiableSet = new UnmodifiableSet<>(new HashSet<>(Set.of("foo")));
+  }
+
+  @Test
+  void testReadsAreDelegated() {
+    // VERIFY reads are forwarded to the composed Set
+    assertTrue(unmodifiableSet.contains("foo"));
+    assertEquals(1, unmodifiableSet.size());
+  }
+
+  @Test
+  void testWritesAreUnsupported() {
+    // VERIFY writes throw rather than being forwarded to the composed Set
+    assertThrows(UnsupportedOperationException.class, () -> unmodifiableSet.add("bar"));
+    assertThrows(UnsupportedOperationException.class, () -> unmodifiableSet.clear());
+    final var iterator = unmodifiableSet.iterator();
+    iterator.next();
+    assertThrows(UnsupportedOperationException.class, iterator::remove);
+  }
+
+  @Test
+  void testOverriddenForwardingMethodsAreSkipped() {
+    final var superclass = UnmodifiableSet.class.getSuperclass();
+    // VERIFY the generated class doesn't forward APIs that UnmodifiableSet overrides
+    assertThrows(NoSuchMethodException.class, () -> superclass.getDeclaredMethod("clear"));
+    assertThrows(
+        NoSuchMethodException.class, () -> superclass.getDeclaredMethod("add", Object.class));
+  }
+}
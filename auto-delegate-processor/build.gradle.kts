@@ -21,14 +21,33 @@ tasks.compileTestJava {
 tasks {
     named<com.github.jengelman.gradle.plugins.shadow.tasks.ShadowJar>("shadowJar") {
         relocate("com.google.auto.common", "com.ryandens.delegation.shaded.auto.common")
+        relocate("org.objectweb.asm", "com.ryandens.delegation.shaded.asm")
     }
 }
 
 dependencies {
     implementation("com.squareup", "javapoet", "1.13.0")
     implementation("com.google.auto", "auto-common", "1.2.2")
+    implementation("org.ow2.asm", "asm", "9.7.1")
     implementation(project(":auto-delegate-annotations"))
     val autoServiceVersion = "1.1.1"
     compileOnly("com.google.auto.service", "auto-service-annotations", autoServiceVersion)
     annotationProcessor("com.google.auto.service", "auto-service", autoServiceVersion)
+    testImplementation("org.junit.jupiter:junit-jupiter:6.1.2")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+    testImplementation("com.google.testing.compile", "compile-testing", "0.21.0")
+    testImplementation(project(":auto-delegate-runtime"))
+    testImplementation(gradleTestKit())
+}
+
+tasks.test {
+    useJUnitPlatform()
+    // IncrementalProcessingTest applies the processor to a TestKit build from its runtime classpath
+    val processorClasspath = sourceSets.main.get().runtimeClasspath
+    inputs.files(processorClasspath).withNormalizer(ClasspathNormalizer::class)
+    jvmArgumentProviders.add(
+        CommandLineArgumentProvider {
+            listOf("-Dautodelegate.processor.classpath=${processorClasspath.asPath}")
+        },
+    )
 }
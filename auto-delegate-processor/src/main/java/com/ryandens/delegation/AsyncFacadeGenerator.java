@@ -0,0 +1,171 @@
+package com.ryandens.delegation;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.TypeVariableName;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import javax.lang.model.element.Modifier;
+
+/**
+ * Uses {@link com.squareup.javapoet} to create an asynchronous facade for the delegation targets of
+ * a class annotated with {@link AutoDelegate#async()}. The facade has a method for each API of the
+ * delegation targets with the same parameters, which forwards the call to the corresponding
+ * instance on an {@link Executor} and returns a {@link CompletableFuture} of its result.
+ */
+final class AsyncFacadeGenerator {
+  private static final ClassName ASYNC_CALLS =
+      ClassName.get("com.ryandens.delegation.runtime", "AsyncCalls");
+  private static final String EXECUTOR_FIELD_NAME = "executor";
+
+  private final ClassName facadeClassName;
+  private final List<TypeVariableName> typeVariables;
+  private final Map<DelegationTargetDescriptor, List<MethodSpec>> overridingSignatures;
+
+  /**
+   * @param facadeClassName of the generated facade
+   * @param typeVariables of the generated class, which the facade must also declare
+   * @param overridingSignatures {@link MethodSpec}s without a body that override each API of each
+   *     delegation target, ordered by delegation target and by declaration within the interface
+   *     hierarchy of each delegation target
+   */
+  AsyncFacadeGenerator(
+      final ClassName facadeClassName,
+      final List<TypeVariableName> typeVariables,
+      final Map<DelegationTargetDescriptor, List<MethodSpec>> overridingSignatures) {
+    this.facadeClassName = Objects.requireNonNull(facadeClassName);
+    this.typeVariables = Objects.requireNonNull(typeVariables);
+    this.overridingSignatures = Objects.requireNonNull(overridingSignatures);
+  }
+
+  /**
+   * @return the {@link TypeSpec} of the facade
+   */
+  TypeSpec facadeClass() {
+    final var classBuilder =
+        TypeSpec.classBuilder(facadeClassName)
+            .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+            .addTypeVariables(typeVariables)
+            .addJavadoc(
+                "Asynchronous facade that forwards each call to an inner composed instance on an"
+                    + " {@link $T}, which runs\n"
+                    + "calls on virtual threads by default, and returns a {@link $T} that is"
+                    + " completed with the result\n"
+                    + "of the call, or with whatever it throws\n",
+                Executor.class,
+                CompletableFuture.class);
+    final var delegatingConstructor = MethodSpec.constructorBuilder().addModifiers(Modifier.PUBLIC);
+    final var constructor = MethodSpec.constructorBuilder().addModifiers(Modifier.PUBLIC);
+    for (DelegationTargetDescriptor descriptor : overridingSignatures.keySet()) {
+      final var innerType = TypeName.get(descriptor.declaredType());
+      classBuilder.addField(innerType, descriptor.fieldName(), Modifier.PRIVATE, Modifier.FINAL);
+      delegatingConstructor.addParameter(innerType, descriptor.fieldName(), Modifier.FINAL);
+      constructor
+          .addParameter(innerType, descriptor.fieldName(), Modifier.FINAL)
+          .addStatement(
+              "this.$N = $T.requireNonNull($N)",
+              descriptor.fieldName(),
+              Objects.class,
+              descriptor.fieldName());
+    }
+    classBuilder.addField(Executor.class, EXECUTOR_FIELD_NAME, Modifier.PRIVATE, Modifier.FINAL);
+    final var innerArguments =
+        overridingSignatures.keySet().stream()
+            .map(DelegationTargetDescriptor::fieldName)
+            .collect(Collectors.joining(", "));
+    classBuilder
+        .addMethod(
+            delegatingConstructor
+                .addStatement("this($L, $T.defaultExecutor())", innerArguments, ASYNC_CALLS)
+                .build())
+        .addMethod(
+            constructor
+                .addParameter(Executor.class, EXECUTOR_FIELD_NAME, Modifier.FINAL)
+                .addStatement(
+                    "this.$N = $T.requireNonNull($N)",
+                    EXECUTOR_FIELD_NAME,
+                    Objects.class,
+                    EXECUTOR_FIELD_NAME)
+                .build());
+    overridingSignatures.forEach(
+        (descriptor, signatures) ->
+            signatures.stream()
+                .filter(signature -> !isObjectMethod(signature))
+                .forEach(signature -> classBuilder.addMethod(asyncMethod(descriptor, signature))));
+    return classBuilder.build();
+  }
+
+  /**
+   * @return a {@link MethodSpec} with the same name and parameters as the provided overriding
+   *     signature that forwards the call to the inner composed instance of the provided {@link
+   *     DelegationTargetDescriptor} on the executor
+   */
+  private static MethodSpec asyncMethod(
+      final DelegationTargetDescriptor descriptor, final MethodSpec signature) {
+    final var isVoid = TypeName.VOID.equals(signature.returnType);
+    final var resultType = isVoid ? ClassName.get(Void.class) : signature.returnType.box();
+    final var call =
+        CodeBlock.of(
+            "this.$N.$N($L)",
+            descriptor.fieldName(),
+            signature.name,
+            signature.parameters.stream()
+                .map(parameter -> parameter.name)
+                .collect(Collectors.joining(", ")));
+    final var builder =
+        MethodSpec.methodBuilder(signature.name)
+            .addModifiers(Modifier.PUBLIC)
+            .addTypeVariables(signature.typeVariables)
+            .addParameters(signature.parameters)
+            .varargs(signature.varargs)
+            .returns(ParameterizedTypeName.get(ClassName.get(CompletableFuture.class), resultType));
+    if (isVoid) {
+      return builder
+          .addCode(
+              CodeBlock.builder()
+                  .add("return $T.submit(\n", ASYNC_CALLS)
+                  .indent()
+                  .indent()
+                  .add("this.$N,\n", EXECUTOR_FIELD_NAME)
+                  .add("() -> {\n")
+                  .indent()
+                  .addStatement(call)
+                  .addStatement("return null")
+                  .unindent()
+                  .add("});\n")
+                  .unindent()
+                  .unindent()
+                  .build())
+          .build();
+    }
+    return builder
+        .addStatement("return $T.submit(this.$N, () -> $L)", ASYNC_CALLS, EXECUTOR_FIELD_NAME, call)
+        .build();
+  }
+
+  /**
+   * @return true if the provided overriding signature overrides a public method of {@link Object},
+   *     which interfaces may redeclare but the facade can't overload by return type
+   */
+  private static boolean isObjectMethod(final MethodSpec signature) {
+    final var parameterTypes =
+        signature.parameters.stream().map(parameter -> parameter.type).collect(Collectors.toList());
+    switch (signature.name) {
+      case "equals":
+        return parameterTypes.equals(List.of(TypeName.OBJECT));
+      case "hashCode":
+      case "toString":
+        return parameterTypes.isEmpty();
+      default:
+        return false;
+    }
+  }
+}
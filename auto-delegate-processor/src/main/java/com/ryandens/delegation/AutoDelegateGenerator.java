@@ -1,23 +1,54 @@
 package com.ryandens.delegation;
 
+import com.google.auto.common.MoreElements;
 import com.google.auto.common.MoreTypes;
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
 import com.squareup.javapoet.TypeVariableName;
-import java.util.AbstractMap;
+import com.squareup.javapoet.WildcardTypeName;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import javax.annotation.processing.Filer;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.type.TypeKind;
+import javax.lang.model.util.ElementFilter;
 import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
 
@@ -26,85 +57,263 @@ import javax.lang.model.util.Types;
  * AutoDelegate} APIs
  */
 final class AutoDelegateGenerator {
+  private static final ClassName DELEGATION_METRICS =
+      ClassName.get("com.ryandens.delegation.runtime", "DelegationMetrics");
+  private static final ClassName PER_THREAD_INSTANCES =
+      ClassName.get("com.ryandens.delegation.runtime", "PerThreadInstances");
+  private static final ClassName DELEGATE_POOL =
+      ClassName.get("com.ryandens.delegation.runtime", "DelegatePool");
+  private static final ClassName FORKED_CALL =
+      ClassName.get("com.ryandens.delegation.runtime", "ForkedCall");
+  private static final ClassName ASYNC_CALLS =
+      ClassName.get("com.ryandens.delegation.runtime", "AsyncCalls");
+  private static final ClassName LOAD_BALANCER =
+      ClassName.get("com.ryandens.delegation.runtime", "LoadBalancer");
+  private static final ClassName CONCURRENCY_LIMITER =
+      ClassName.get("com.ryandens.delegation.runtime", "ConcurrencyLimiter");
+  // a type in the unnamed package, which JavaPoet renders by its simple name without importing it
+  private static final ClassName PERMITS_PLACEHOLDER =
+      ClassName.get("", "AutoDelegate$$PermitsClause");
+  private static final ClassName HEDGER =
+      ClassName.get("com.ryandens.delegation.runtime", "Hedger");
+  private static final String METRICS_FIELD_NAME = "delegationMetrics";
+  private static final String DISABLED_METRICS_FIELD_NAME = "DISABLED_DELEGATION_METRICS";
+  private static final String INTERCEPTOR_FIELD_NAME = "delegationInterceptor";
+  private static final ClassName JFR_EVENT = ClassName.get("jdk.jfr", "Event");
+  private static final String EVENT_CLASS_NAME = "DelegationEvent";
+  private static final String EVENT_METHOD_FIELD_NAME = "method";
+  private static final String EVENT_DELEGATE_CLASS_FIELD_NAME = "delegateClass";
+  private static final String SHARD_INDEX_METHOD_NAME = "shardIndex";
+  private static final String LOCK_FIELD_NAME = "delegationLock";
+  private static final String LIMITER_FIELD_NAME = "delegationLimiter";
+  private static final String OPTIMISTIC_READ_LABEL = "optimisticRead";
+  private static final String LOCKED_LABEL = "locked";
+
+  /**
+   * Prefixes of the names of APIs that are classified as reads by default, each of which must be
+   * the whole name or be followed by an upper case character
+   */
+  private static final List<String> READ_PREFIXES =
+      List.of(
+          "get",
+          "is",
+          "has",
+          "contains",
+          "size",
+          "peek",
+          "to",
+          "equals",
+          "hashCode",
+          "compare",
+          "find",
+          "count",
+          "stream",
+          "forEach",
+          "iterator",
+          "spliterator",
+          "keySet",
+          "values",
+          "entrySet");
+
   private final String destinationPackage;
   private final String className;
-  private final Map<DelegationTargetDescriptor, Set<ExecutableElement>> typeToExecutablesMap;
+  private final Map<DelegationTargetDescriptor, List<ExecutableElement>> typeToExecutablesMap;
   private final List<DelegationTargetDescriptor> delegationTargetDescriptorList;
+  private final TypeElement annotatedElement;
+  private final DelegationOptions options;
+  private final Elements elementUtils;
   private final Types typeUtils;
+  private final MemberResolutionCache memberResolutionCache;
+  private final List<TypeVariableName> typeVariables;
+  private final List<ForwardedMethod> forwardedMethods;
+  private final InterceptorGenerator interceptorGenerator;
+  private final Map<ForwardedMethod, String> reducerNames;
+  // whether any API is annotated with AutoDelegate.Limited, resolved on first use
+  private Boolean limitedApisMarked;
 
   /**
    * @param destinationPackage where the Java class should be written to
    * @param className of the generated Java class
    * @param delegationTargetDescriptorList a {@link List} of {@link DelegationTargetDescriptor}s
    *     that this class should delegate to
+   * @param annotatedElement the {@link TypeElement} annotated with {@link AutoDelegate} that
+   *     extends the generated class
+   * @param options the {@link DelegationOptions} that change how the class is generated
+   * @param memberResolutionCache the {@link MemberResolutionCache} of the current processing round
    */
   AutoDelegateGenerator(
       final Elements elementUtils,
       final Types typeUtils,
       final String destinationPackage,
       final String className,
-      final List<DelegationTargetDescriptor> delegationTargetDescriptorList) {
+      final List<DelegationTargetDescriptor> delegationTargetDescriptorList,
+      final TypeElement annotatedElement,
+      final DelegationOptions options,
+      final MemberResolutionCache memberResolutionCache) {
     this.destinationPackage = Objects.requireNonNull(destinationPackage);
     this.className = Objects.requireNonNull(className);
     this.delegationTargetDescriptorList = Objects.requireNonNull(delegationTargetDescriptorList);
+    this.annotatedElement = Objects.requireNonNull(annotatedElement);
+    this.options = Objects.requireNonNull(options);
+    this.elementUtils = elementUtils;
     this.typeUtils = typeUtils;
+    this.memberResolutionCache = Objects.requireNonNull(memberResolutionCache);
     // For each type we are auto-delegating to find all abstract ExecutableElements defined on
     // the interface and collect them into a Map, where the key is the DelegationTargetDescriptor
-    // and the value is the Set<ExecutableElement> that must be delegated to by that
-    // DelegationTargetDescriptor
-    this.typeToExecutablesMap =
+    // and the value is the List<ExecutableElement> that must be delegated to by that
+    // DelegationTargetDescriptor. Both the map and the lists are ordered, by the declaration order
+    // of the delegation targets and by declaration order within the interface hierarchy of each
+    // delegation target respectively, so that the generated source is identical on every build
+    final var mutableTypeToExecutablesMap =
+        new LinkedHashMap<DelegationTargetDescriptor, List<ExecutableElement>>();
+    for (DelegationTargetDescriptor delegationTargetDescriptor : delegationTargetDescriptorList) {
+      mutableTypeToExecutablesMap.put(
+          delegationTargetDescriptor,
+          memberResolutionCache.delegatableMembers(
+              MoreTypes.asTypeElement(delegationTargetDescriptor.declaredType())));
+    }
+    this.typeToExecutablesMap = Collections.unmodifiableMap(mutableTypeToExecutablesMap);
+    // validate that each keyed API names an API that has a key to route by
+    for (String keyedApi : options.keyedApis()) {
+      if (typeToExecutablesMap.values().stream()
+          .flatMap(List::stream)
+          .noneMatch(
+              executableElement ->
+                  executableElement.getSimpleName().contentEquals(keyedApi)
+                      && !executableElement.getParameters().isEmpty())) {
+        throw new IllegalArgumentException(
+            "The keyed API "
+                + keyedApi
+                + " of "
+                + annotatedElement
+                + " doesn't name an API with parameters of its delegation targets");
+      }
+    }
+    this.typeVariables =
         delegationTargetDescriptorList.stream()
-            .map(
-                delegationTargetDescriptor ->
-                    // create an entry mapping a DelegationTargetDescriptor to a
-                    // Set<ExecutableElement>
-                    new AbstractMap.SimpleEntry<>(
-                        delegationTargetDescriptor,
-                        elementUtils
-                            // first get all the members for the delegation target
-                            .getAllMembers(
-                                (TypeElement) delegationTargetDescriptor.declaredType().asElement())
-                            .stream()
-                            // then, reduce it to only ExecutableElements
-                            .filter(
-                                typeElementMember -> typeElementMember instanceof ExecutableElement)
-                            // then, map the members to the required type we reduced the stream to
-                            .map(typeElementMember -> (ExecutableElement) typeElementMember)
-                            // then, reduce it to the abstract APIs that we're interested in
-                            // auto-delegating to
-                            .filter(
-                                typeElementMember ->
-                                    typeElementMember.getModifiers().contains(Modifier.ABSTRACT)
-                                        || typeElementMember
-                                            .getModifiers()
-                                            .contains(Modifier.DEFAULT))
-                            // then, collect it into a Set<ExecutableElement> that the key
-                            // DelegationTargetDescriptor should delegate to
-                            .collect(Collectors.toSet())))
-            // finally, collect the Map entries into a map (how does Collectors.toMap() not alias
-            // Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)?!)
-            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+            .flatMap(
+                descriptor ->
+                    MoreTypes.asTypeElement(descriptor.declaredType()).getTypeParameters().stream())
+            .map(TypeVariableName::get)
+            .collect(Collectors.toUnmodifiableList());
+    // assign each forwarding method a stable ID, ordered first by delegation target and then by
+    // signature, so that IDs don't change between builds
+    final var forwardedMethods = new ArrayList<ForwardedMethod>();
+    for (DelegationTargetDescriptor descriptor : delegationTargetDescriptorList) {
+      final var executableElements =
+          typeToExecutablesMap.get(descriptor).stream()
+              .filter(this::isForwarded)
+              .sorted(Comparator.comparing(memberResolutionCache::signature))
+              .collect(Collectors.toList());
+      for (ExecutableElement executableElement : executableElements) {
+        forwardedMethods.add(
+            new ForwardedMethod(
+                executableElement,
+                descriptor,
+                forwardedMethods.size(),
+                memberResolutionCache.signature(executableElement),
+                memberResolutionCache.overridingSignature(
+                    executableElement, descriptor.declaredType())));
+      }
+    }
+    this.forwardedMethods = Collections.unmodifiableList(forwardedMethods);
+    this.interceptorGenerator =
+        options.intercept()
+            ? new InterceptorGenerator(
+                typeUtils,
+                ClassName.get(destinationPackage, className + "Interceptor"),
+                typeVariables,
+                this.forwardedMethods)
+            : null;
+    // reducers are named after the API whose results they combine, so overloaded APIs with the
+    // same return type would have reducers with the same signature, in which case the method ID
+    // disambiguates the name
+    final var reducerNames = new HashMap<ForwardedMethod, String>();
+    if (options.broadcast()) {
+      final var erasedReducerSignatures = new HashSet<String>();
+      for (ForwardedMethod forwardedMethod : this.forwardedMethods) {
+        if (forwardedMethod.isVoid()) {
+          continue;
+        }
+        final var reducerName = "reduce" + capitalize(forwardedMethod.name());
+        final var erasedReturnType =
+            typeUtils.erasure(forwardedMethod.executableElement().getReturnType()).toString();
+        reducerNames.put(
+            forwardedMethod,
+            erasedReducerSignatures.add(reducerName + erasedReturnType)
+                ? reducerName
+                : reducerName + forwardedMethod.id());
+      }
+    }
+    this.reducerNames = Collections.unmodifiableMap(reducerNames);
   }
 
   JavaFile autoDelegate() {
     final var typeSpecBuilder =
         TypeSpec.classBuilder(className)
             .addModifiers(Modifier.ABSTRACT)
+            // the annotated element is the only originating element, which allows build tools
+            // to process each annotated class in isolation
+            .addOriginatingElement(annotatedElement)
             .addJavadoc(
                 "Shallowly immutable, shallowly thread-safe abstract class that forwards to an inner composed types");
+    if (options.sealed()) {
+      // Modifier.SEALED is only present when running on JDK 17 or above, which the processor
+      // validates before requesting a sealed class
+      typeSpecBuilder.addModifiers(Modifier.valueOf("SEALED"));
+    }
+    // add type variables required to implement the delegation targets
+    typeSpecBuilder.addTypeVariables(typeVariables);
     // create a MethodSpec for the constructor
     final var constructorBuilder = MethodSpec.constructorBuilder();
+    final var varHandleInitializers = CodeBlock.builder();
     for (DelegationTargetDescriptor descriptor : delegationTargetDescriptorList) {
-      // add type variables required to implement this type
-      final var typeVariables =
-          MoreTypes.asTypeElement(descriptor.declaredType()).getTypeParameters().stream()
-              .map(TypeVariableName::get)
-              .collect(Collectors.toUnmodifiableList());
-      typeSpecBuilder.addTypeVariables(typeVariables);
-
       //  implement the specified interface for this delegation target
       typeSpecBuilder.addSuperinterface(descriptor.declaredType());
 
+      if (options.broadcast()) {
+        // calls are broadcast to multiple inner composed instances, which are reached via
+        // accessors
+        addBroadcasting(typeSpecBuilder, constructorBuilder, descriptor);
+        continue;
+      }
+      if (options.sharded()) {
+        // the inner composed instance is split into shards, which are reached via accessors
+        addSharding(typeSpecBuilder, constructorBuilder, descriptor);
+        continue;
+      }
+      if (isBorrowed()) {
+        // each call is forwarded to an instance confined to the calling thread, borrowed from a
+        // pool, or chosen by a load balancer
+        addBorrowing(typeSpecBuilder, constructorBuilder, descriptor);
+        continue;
+      }
+      if (options.hedged()) {
+        // calls are forwarded to the primary replica held by a hedger, which also forwards slow
+        // reads to the secondary replica
+        addHedging(typeSpecBuilder, constructorBuilder, descriptor);
+        continue;
+      }
+      if (isVarHandleManaged()) {
+        // the inner composed instance is either created by a supplier on first use, can be
+        // swapped, or is replaced by a copy on every write, and is reached via an accessor instead
+        // of the field
+        if (options.lazy()) {
+          addLazyInitialization(typeSpecBuilder, constructorBuilder, descriptor);
+        } else if (options.copyOnWrite()) {
+          addCopyOnWrite(typeSpecBuilder, constructorBuilder, descriptor);
+        } else {
+          addSwapping(typeSpecBuilder, constructorBuilder, descriptor);
+        }
+        varHandleInitializers.addStatement(
+            "$N = lookup.findVarHandle($T.class, $S, $T.class)",
+            varHandleFieldName(descriptor),
+            ClassName.get(destinationPackage, className),
+            descriptor.fieldName(),
+            TypeName.get(typeUtils.erasure(descriptor.declaredType())));
+        continue;
+      }
+
       // add a field for the specified descriptor
       final var innerField =
           FieldSpec.builder(
@@ -115,6 +324,17 @@ final class AutoDelegateGenerator {
               .build();
       typeSpecBuilder.addField(innerField);
 
+      // when forwarding methods the annotated class overrides are skipped, the annotated class
+      // can't call super to reach the inner composed instance, so expose it via an accessor instead
+      if (options.skipOverridden()) {
+        typeSpecBuilder.addMethod(
+            MethodSpec.methodBuilder(descriptor.fieldName())
+                .addModifiers(Modifier.PROTECTED, Modifier.FINAL)
+                .returns(TypeName.get(descriptor.declaredType()))
+                .addStatement("return " + descriptor.fieldName())
+                .build());
+      }
+
       // modify the constructor MethodSpec to take an instance of the specified declaredType and
       // assigns it to a field with name matching the field we just created
       constructorBuilder
@@ -125,17 +345,138 @@ final class AutoDelegateGenerator {
                   .add("this." + descriptor.fieldName() + "= " + descriptor.fieldName() + ";")
                   .build());
     }
+    if (options.intercept()) {
+      // the interceptor is accepted last, after the inner composed instances
+      final var interceptorType = interceptorGenerator.interceptorTypeName();
+      typeSpecBuilder.addField(
+          interceptorType, INTERCEPTOR_FIELD_NAME, Modifier.PRIVATE, Modifier.FINAL);
+      constructorBuilder
+          .addParameter(interceptorType, INTERCEPTOR_FIELD_NAME, Modifier.FINAL)
+          .addStatement(
+              "this.$N = $T.requireNonNull($N)",
+              INTERCEPTOR_FIELD_NAME,
+              Objects.class,
+              INTERCEPTOR_FIELD_NAME);
+    }
+    if (options.limited()) {
+      // a single limiter bounds the calls in flight across every inner composed instance, and is
+      // accepted after the interceptor
+      typeSpecBuilder
+          .addField(CONCURRENCY_LIMITER, LIMITER_FIELD_NAME, Modifier.PRIVATE, Modifier.FINAL)
+          .addMethod(
+              MethodSpec.methodBuilder(LIMITER_FIELD_NAME)
+                  .addModifiers(Modifier.PROTECTED, Modifier.FINAL)
+                  .returns(CONCURRENCY_LIMITER)
+                  .addStatement("return $N", LIMITER_FIELD_NAME)
+                  .build());
+      constructorBuilder
+          .addParameter(CONCURRENCY_LIMITER, LIMITER_FIELD_NAME, Modifier.FINAL)
+          .addStatement(
+              "this.$N = $T.requireNonNull($N)",
+              LIMITER_FIELD_NAME,
+              Objects.class,
+              LIMITER_FIELD_NAME);
+    }
+    if (options.locked()) {
+      // a single lock guards every inner composed instance, and is exposed so that the annotated
+      // class can make compound operations atomic
+      typeSpecBuilder
+          .addField(
+              FieldSpec.builder(
+                      StampedLock.class, LOCK_FIELD_NAME, Modifier.PRIVATE, Modifier.FINAL)
+                  .initializer("new $T()", StampedLock.class)
+                  .build())
+          .addMethod(
+              MethodSpec.methodBuilder(LOCK_FIELD_NAME)
+                  .addModifiers(Modifier.PROTECTED, Modifier.FINAL)
+                  .returns(StampedLock.class)
+                  .addStatement("return $N", LOCK_FIELD_NAME)
+                  .build());
+    }
+    if (options.swappable() || options.copyOnWrite()) {
+      // swappable and copy-on-write inner composed instances aren't final, so prevent their initial
+      // values from being reordered with the publication of this instance, as is done for final
+      // fields
+      constructorBuilder.addStatement("$T.releaseFence()", VarHandle.class);
+    }
     // build the constructor and add it to the MethodSpec
     typeSpecBuilder.addMethod(constructorBuilder.build());
+    if (options.sharded()) {
+      // multiply by the golden ratio to spread the hash code, and map its high bits onto the
+      // shards, so that the shard of a key doesn't correlate with the low bits that hash tables
+      // within each shard index by
+      typeSpecBuilder.addMethod(
+          MethodSpec.methodBuilder(SHARD_INDEX_METHOD_NAME)
+              .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+              .returns(int.class)
+              .addParameter(Object.class, "key", Modifier.FINAL)
+              .addParameter(int.class, "shardCount", Modifier.FINAL)
+              .addStatement(
+                  "return (int) ((($T.hashCode(key) * 0x9E3779B9) & 0xFFFFFFFFL) * shardCount >>> 32)",
+                  Objects.class)
+              .build());
+    }
+    if (isVarHandleManaged()) {
+      typeSpecBuilder.addStaticBlock(
+          CodeBlock.builder()
+              .beginControlFlow("try")
+              .addStatement(
+                  "final $T lookup = $T.lookup()", MethodHandles.Lookup.class, MethodHandles.class)
+              .add(varHandleInitializers.build())
+              .nextControlFlow("catch ($T e)", ReflectiveOperationException.class)
+              .addStatement("throw new $T(e)", ExceptionInInitializerError.class)
+              .endControlFlow()
+              .build());
+    }
 
-    for (Map.Entry<DelegationTargetDescriptor, Set<ExecutableElement>> entry :
-        typeToExecutablesMap.entrySet()) {
-      // generate the delegation methods to the abstract APIs we want auto-delegations for,
-      // utilizing
-      // the fields created above and assigned in the constructor
-      final var methodSpecs = delegatingMethodSpecs(entry.getValue(), entry.getKey());
-      // add those methods to the TypeSpec builder
-      typeSpecBuilder.addMethods(methodSpecs);
+    if (options.instrument()) {
+      // add per-instance DelegationMetrics, naming each forwarding method by its signature, and a
+      // protected accessor for it so that the annotated class can decide how to expose it. When
+      // instrumentation is disabled for this compilation, the accessor returns a single shared
+      // instance that is never recorded into, so the annotated class still compiles but the
+      // forwarding methods are left untouched
+      // the sample rate is passed first, so that counts are extrapolated from the samples
+      final var metricsArguments = new ArrayList<CodeBlock>();
+      if (options.sampleRate() != 1) {
+        metricsArguments.add(CodeBlock.of("$L", options.sampleRate()));
+      }
+      forwardedMethods.forEach(
+          forwardedMethod -> metricsArguments.add(CodeBlock.of("$S", forwardedMethod.signature())));
+      final var metricsField =
+          options.instrumentationEnabled()
+              ? FieldSpec.builder(
+                  DELEGATION_METRICS, METRICS_FIELD_NAME, Modifier.PRIVATE, Modifier.FINAL)
+              : FieldSpec.builder(
+                  DELEGATION_METRICS,
+                  DISABLED_METRICS_FIELD_NAME,
+                  Modifier.PRIVATE,
+                  Modifier.STATIC,
+                  Modifier.FINAL);
+      typeSpecBuilder.addField(
+          metricsField
+              .initializer(
+                  "new $T($L)",
+                  DELEGATION_METRICS,
+                  metricsArguments.stream().collect(CodeBlock.joining(", ")))
+              .build());
+      typeSpecBuilder.addMethod(
+          MethodSpec.methodBuilder(METRICS_FIELD_NAME)
+              .addModifiers(Modifier.PROTECTED, Modifier.FINAL)
+              .returns(DELEGATION_METRICS)
+              .addStatement("return " + metricsField.build().name)
+              .build());
+    }
+
+    if (options.jfr() && options.instrumentationEnabled()) {
+      typeSpecBuilder.addType(delegationEvent());
+    }
+
+    // generate the delegation methods to the abstract APIs we want auto-delegations for,
+    // utilizing the fields created above and assigned in the constructor, and add those methods
+    // to the TypeSpec builder
+    typeSpecBuilder.addMethods(delegatingMethodSpecs(forwardedMethodsInDeclarationOrder()));
+    if (options.broadcast()) {
+      typeSpecBuilder.addMethods(reducers(forwardedMethodsInDeclarationOrder()));
     }
 
     // build the TypeSpec
@@ -146,42 +487,1590 @@ final class AutoDelegateGenerator {
   }
 
   /**
-   * @return a {@link Set} of {@link MethodSpec}s that delegate to an inner composed implementation
+   * @return a {@link JavaFile} for the public interceptor interface accepted by the generated class
+   * @throws IllegalStateException if the generated class does not {@link AutoDelegate#intercept()}
+   */
+  JavaFile interceptor() {
+    if (interceptorGenerator == null) {
+      throw new IllegalStateException(className + " does not intercept its forwarding methods");
+    }
+    final var interceptor =
+        interceptorGenerator
+            .interceptorInterface(ClassName.get(destinationPackage, className))
+            .toBuilder()
+            .addOriginatingElement(annotatedElement)
+            .build();
+    return JavaFile.builder(destinationPackage, interceptor).build();
+  }
+
+  /**
+   * @return a {@link JavaFile} for the public asynchronous facade of the delegation targets
+   * @throws IllegalStateException if the generated class does not {@link AutoDelegate#async()}
+   */
+  JavaFile asyncFacade() {
+    if (!options.async()) {
+      throw new IllegalStateException(className + " does not have an asynchronous facade");
+    }
+    final var overridingSignatures =
+        new LinkedHashMap<DelegationTargetDescriptor, List<MethodSpec>>();
+    typeToExecutablesMap.forEach(
+        (descriptor, executableElements) ->
+            overridingSignatures.put(
+                descriptor,
+                executableElements.stream()
+                    .map(
+                        executableElement ->
+                            memberResolutionCache.overridingSignature(
+                                executableElement, descriptor.declaredType()))
+                    .collect(Collectors.toList())));
+    final var facade =
+        new AsyncFacadeGenerator(
+                ClassName.get(destinationPackage, className + "Async"),
+                typeVariables,
+                overridingSignatures)
+            .facadeClass().toBuilder().addOriginatingElement(annotatedElement).build();
+    return JavaFile.builder(destinationPackage, facade).build();
+  }
+
+  /**
+   * Writes the {@link JavaFile} created by {@link #autoDelegate()} to the provided {@link Filer}.
+   * JavaPoet has no support for {@code permits} clauses, so when generating a sealed class a
+   * placeholder is declared as its last superinterface, which is then replaced by the clause in the
+   * rendered source before it is written. The placeholder is not a valid type name in any source
+   * JavaPoet renders otherwise, so the replacement can't land anywhere else in the class
+   *
+   * @throws IllegalStateException if the placeholder isn't rendered exactly once
+   */
+  void writeTo(final Filer filer) throws IOException {
+    if (options.intercept()) {
+      interceptor().writeTo(filer);
+    }
+    if (options.async()) {
+      asyncFacade().writeTo(filer);
+    }
+    final var javaFile = autoDelegate();
+    if (!options.sealed()) {
+      javaFile.writeTo(filer);
+      return;
+    }
+    final var source =
+        JavaFile.builder(
+                destinationPackage,
+                javaFile.typeSpec.toBuilder().addSuperinterface(PERMITS_PLACEHOLDER).build())
+            .build()
+            .toString();
+    // the delegation targets are always implemented, so the placeholder follows at least one of
+    // them in the implements clause
+    final var placeholder =
+        Pattern.compile(",\\s*" + Pattern.quote(PERMITS_PLACEHOLDER.simpleName()) + "\\b");
+    final var matcher = placeholder.matcher(source);
+    if (!matcher.find() || matcher.find(matcher.end())) {
+      throw new IllegalStateException(
+          "Could not place the permits clause of " + destinationPackage + "." + className);
+    }
+    final var sourceWithPermits =
+        matcher.replaceFirst(
+            Matcher.quoteReplacement(
+                " permits " + ClassName.get(annotatedElement).canonicalName()));
+    final var sourceFile =
+        filer.createSourceFile(
+            destinationPackage + "." + className,
+            javaFile.typeSpec.originatingElements.toArray(new Element[0]));
+    try (Writer writer = sourceFile.openWriter()) {
+      writer.write(sourceWithPermits);
+    }
+  }
+
+  /**
+   * @return true if the generated class can be written as a class file by {@link
+   *     #writeClassFileTo(Filer, SourceVersion)}, as declared by each {@link
+   *     DelegationOptions.Feature}
+   */
+  boolean supportsClassFile() {
+    return options.supportsClassFile();
+  }
+
+  /**
+   * Writes the generated class to the provided {@link Filer} as a class file created by a {@link
+   * ClassFileGenerator}, rather than as source that javac compiles in a later round. The
+   * asynchronous facade is still written as source
+   *
+   * @param sourceVersion of the compilation, which determines the version of the class file
+   * @throws IllegalStateException if the generated class does not {@link #supportsClassFile()}
+   */
+  void writeClassFileTo(final Filer filer, final SourceVersion sourceVersion) throws IOException {
+    if (!supportsClassFile()) {
+      throw new IllegalStateException(className + " can only be generated as source");
+    }
+    if (options.async()) {
+      asyncFacade().writeTo(filer);
+    }
+    final var qualifiedName =
+        destinationPackage.isEmpty() ? className : destinationPackage + "." + className;
+    final var classFile =
+        new ClassFileGenerator(
+                elementUtils,
+                typeUtils,
+                qualifiedName.replace('.', '/'),
+                delegationTargetDescriptorList,
+                annotatedElement,
+                options,
+                forwardedMethodsInDeclarationOrder(),
+                this::isFinal)
+            .classFile(sourceVersion);
+    final var classFileObject = filer.createClassFile(qualifiedName, annotatedElement);
+    try (OutputStream outputStream = classFileObject.openOutputStream()) {
+      outputStream.write(classFile);
+    }
+  }
+
+  /**
+   * @return the {@link ForwardedMethod}s ordered by delegation target and then by declaration
+   *     within the interface hierarchy of each delegation target, which is the order forwarding
+   *     methods are generated in
+   */
+  private List<ForwardedMethod> forwardedMethodsInDeclarationOrder() {
+    final var forwardedMethodsByElement = new HashMap<ExecutableElement, ForwardedMethod>();
+    forwardedMethods.forEach(
+        forwardedMethod ->
+            forwardedMethodsByElement.put(forwardedMethod.executableElement(), forwardedMethod));
+    return typeToExecutablesMap.values().stream()
+        .flatMap(List::stream)
+        .filter(this::isForwarded)
+        .map(forwardedMethodsByElement::get)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * @return true if the forwarding method for the provided {@link ForwardedMethod} should be {@code
+   *     final}. When sealed and the annotated class is final, the annotated class is the only
+   *     subclass, so forwarding methods it does not override can never be overridden. Subclasses of
+   *     an annotated class that is sealed or non-sealed may override any of them
+   */
+  private boolean isFinal(final ForwardedMethod forwardedMethod) {
+    return options.sealed()
+        && annotatedElement.getModifiers().contains(Modifier.FINAL)
+        && !isOverriddenByAnnotatedElement(forwardedMethod.executableElement());
+  }
+
+  /**
+   * @return true if a forwarding method should be generated for the provided {@link
+   *     ExecutableElement}. A forwarding method for an API the annotated class overrides is dead
+   *     code, unless the annotated class calls it via super
+   */
+  private boolean isForwarded(final ExecutableElement executableElement) {
+    return (!options.skipOverridden() || !isOverriddenByAnnotatedElement(executableElement))
+        && (!options.sharded() || isShardable(executableElement));
+  }
+
+  /**
+   * @return true if calls to the provided {@link ExecutableElement} are routed to a single shard by
+   *     their first argument
+   */
+  private boolean isKeyed(final ExecutableElement executableElement) {
+    return options.keyedApis().contains(executableElement.getSimpleName().toString())
+        && !executableElement.getParameters().isEmpty();
+  }
+
+  /**
+   * @return true if a forwarding method for the provided {@link ExecutableElement} can be generated
+   *     for a sharded class, as it is either keyed or has no parameters and a return type whose
+   *     results can be combined across shards
+   */
+  private boolean isShardable(final ExecutableElement executableElement) {
+    if (isKeyed(executableElement)) {
+      return true;
+    } else if (!executableElement.getParameters().isEmpty()) {
+      return false;
+    }
+    final var returnType = executableElement.getReturnType();
+    switch (returnType.getKind()) {
+      case VOID:
+      case INT:
+      case LONG:
+      case BOOLEAN:
+        return true;
+      case DECLARED:
+        // wildcard type arguments can't be added to
+        return (MoreTypes.isTypeOf(Set.class, returnType)
+                || MoreTypes.isTypeOf(List.class, returnType)
+                || MoreTypes.isTypeOf(Collection.class, returnType))
+            && MoreTypes.asDeclared(returnType).getTypeArguments().stream()
+                .noneMatch(typeArgument -> typeArgument.getKind() == TypeKind.WILDCARD);
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * @return true if calls to the provided {@link ForwardedMethod} take the read lock of a {@link
+   *     AutoDelegate#locked()} class, rather than the write lock, don't copy the inner composed
+   *     instance of a {@link AutoDelegate#copyOnWrite()} class, or are hedged by a {@link
+   *     AutoDelegate#hedged()} class, as classified by {@link AutoDelegate.Read} and {@link
+   *     AutoDelegate.Write} on the overriding method of the annotated class or on the API itself,
+   *     or otherwise by the name of the API
+   * @throws IllegalArgumentException if the API is classified as both a read and a write
+   */
+  private boolean isRead(final ForwardedMethod forwardedMethod) {
+    final var executableElement = forwardedMethod.executableElement();
+    for (ExecutableElement classifiedElement : classifiedElements(executableElement)) {
+      final var read = MoreElements.isAnnotationPresent(classifiedElement, AutoDelegate.Read.class);
+      final var write =
+          MoreElements.isAnnotationPresent(classifiedElement, AutoDelegate.Write.class);
+      if (read && write) {
+        throw new IllegalArgumentException(
+            classifiedElement + " can't be classified as both a read and a write");
+      } else if (read || write) {
+        return read;
+      }
+    }
+    final var name = executableElement.getSimpleName().toString();
+    return READ_PREFIXES.stream()
+        .anyMatch(
+            prefix ->
+                name.equals(prefix)
+                    || (name.startsWith(prefix)
+                        && Character.isUpperCase(name.charAt(prefix.length()))
+                        && !isCompoundUpdate(name, prefix)));
+  }
+
+  /**
+   * @return true if the word following the provided read prefix of the provided name is {@code
+   *     And}, as in {@code getAndSet} or {@code getAndIncrement}, which are atomic updates rather
+   *     than reads. Other words that start with it, as in {@code getAndroidVersion}, don't count
+   */
+  private static boolean isCompoundUpdate(final String name, final String prefix) {
+    final var conjunction = "And";
+    final var wordEnd = prefix.length() + conjunction.length();
+    return name.startsWith(conjunction, prefix.length())
+        && (name.length() == wordEnd || Character.isUpperCase(name.charAt(wordEnd)));
+  }
+
+  /**
+   * @return true if calls to the provided {@link ForwardedMethod} are guarded by the concurrency
+   *     limiter of a {@link AutoDelegate#limited()} class, which is the case for every API unless
+   *     any of them is annotated with {@link AutoDelegate.Limited}, in which case only those are
+   */
+  private boolean isLimited(final ForwardedMethod forwardedMethod) {
+    if (limitedApisMarked == null) {
+      limitedApisMarked =
+          forwardedMethods.stream()
+              .anyMatch(
+                  marked ->
+                      classifiedElements(marked.executableElement()).stream()
+                          .anyMatch(
+                              element ->
+                                  MoreElements.isAnnotationPresent(
+                                      element, AutoDelegate.Limited.class)));
+    }
+    return !limitedApisMarked
+        || classifiedElements(forwardedMethod.executableElement()).stream()
+            .anyMatch(
+                element -> MoreElements.isAnnotationPresent(element, AutoDelegate.Limited.class));
+  }
+
+  /**
+   * @return the methods of the {@link #annotatedElement} that override the provided {@link
+   *     ExecutableElement}, followed by the provided {@link ExecutableElement} itself, which are
+   *     the elements that may classify it with annotations such as {@link AutoDelegate.Read}
+   */
+  private List<ExecutableElement> classifiedElements(final ExecutableElement executableElement) {
+    final var classifiedElements = new ArrayList<ExecutableElement>();
+    ElementFilter.methodsIn(annotatedElement.getEnclosedElements()).stream()
+        .filter(method -> elementUtils.overrides(method, executableElement, annotatedElement))
+        .forEach(classifiedElements::add);
+    classifiedElements.add(executableElement);
+    return classifiedElements;
+  }
+
+  /**
+   * @return true if the {@link #annotatedElement} declares a method that overrides the provided
+   *     {@link ExecutableElement}
+   */
+  private boolean isOverriddenByAnnotatedElement(final ExecutableElement executableElement) {
+    return ElementFilter.methodsIn(annotatedElement.getEnclosedElements()).stream()
+        .anyMatch(method -> elementUtils.overrides(method, executableElement, annotatedElement));
+  }
+
+  /**
+   * @return a {@link List} of {@link MethodSpec}s that delegate to an inner composed implementation
    *     of the {@link javax.lang.model.type.DeclaredType} for the corresponding {@link
-   *     ExecutableElement} identified by the provided {@link String} field name
+   *     ForwardedMethod}
    */
-  private Set<MethodSpec> delegatingMethodSpecs(
-      final Set<ExecutableElement> apisToDelegate, final DelegationTargetDescriptor descriptor) {
-    return apisToDelegate.stream()
+  private List<MethodSpec> delegatingMethodSpecs(final List<ForwardedMethod> forwardedMethods) {
+    return forwardedMethods.stream()
         .map(
-            executableElement -> {
-              final var parameters =
-                  executableElement.getParameters().stream()
-                      .map(parameter -> parameter.getSimpleName().toString())
-                      .reduce((s, s2) -> s + "," + s2)
-                      .orElse("");
-
-              final String returnPrefix;
-              if (TypeKind.VOID.equals(executableElement.getReturnType().getKind())) {
-                returnPrefix = "";
-              } else {
-                returnPrefix = "return ";
+            forwardedMethod -> {
+              final var methodSpecBuilder = forwardedMethod.overridingSignature().toBuilder();
+              if (isFinal(forwardedMethod)) {
+                methodSpecBuilder.addModifiers(Modifier.FINAL);
               }
-
-              return MethodSpec.overriding(executableElement, descriptor.declaredType(), typeUtils)
-                  .addCode(
-                      CodeBlock.builder()
-                          .addStatement(
-                              returnPrefix
-                                  + descriptor.fieldName()
-                                  + "."
-                                  + executableElement.getSimpleName().toString()
-                                  + "("
-                                  + parameters
-                                  + ")")
-                          .build())
-                  .build();
+              // each feature wraps the statements emitted by the previous one, starting from the
+              // call to the inner composed instance
+              var statements = forwardingCall(forwardedMethod);
+              if (options.locked()) {
+                statements = locked(forwardedMethod, statements);
+              }
+              if (isRecorded()) {
+                statements = recorded(forwardedMethod, statements);
+              }
+              if (options.instrument() && options.instrumentationEnabled()) {
+                statements = timed(forwardedMethod, statements);
+              }
+              if (isBorrowed()) {
+                statements = borrowed(forwardedMethod, statements);
+              }
+              if (options.limited() && isLimited(forwardedMethod)) {
+                statements = limited(forwardedMethod, statements);
+              }
+              if (options.intercept()) {
+                statements = intercepted(forwardedMethod, statements);
+              }
+              return methodSpecBuilder.addCode(statements.emit(null)).build();
             })
-        .collect(Collectors.toSet());
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Adds the members that lazily create the inner composed instance of the provided {@link
+   * DelegationTargetDescriptor} to the provided builders. The instance is created by a supplier
+   * passed to the constructor, under a lock that is only acquired until the instance is created.
+   * Afterwards, the accessor reaches it with a single acquiring read of a {@link VarHandle}, which
+   * pairs with the releasing write of the instance so that it is safely published, and is a plain
+   * load on x86.
+   */
+  private void addLazyInitialization(
+      final TypeSpec.Builder typeSpecBuilder,
+      final MethodSpec.Builder constructorBuilder,
+      final DelegationTargetDescriptor descriptor) {
+    final var innerType = TypeName.get(descriptor.declaredType());
+    final var supplierType =
+        ParameterizedTypeName.get(
+            ClassName.get(Supplier.class), WildcardTypeName.subtypeOf(innerType));
+    final var supplierFieldName = descriptor.fieldName() + "Supplier";
+    final var varHandleFieldName = varHandleFieldName(descriptor);
+    final var initializerName = "initialize" + capitalize(descriptor.fieldName());
+    typeSpecBuilder
+        .addField(
+            VarHandle.class, varHandleFieldName, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+        .addField(supplierType, supplierFieldName, Modifier.PRIVATE, Modifier.FINAL)
+        // only written while holding the lock, and read via the VarHandle otherwise
+        .addField(innerType, descriptor.fieldName(), Modifier.PRIVATE);
+    constructorBuilder
+        .addParameter(supplierType, descriptor.fieldName(), Modifier.FINAL)
+        .addStatement(
+            "this.$N = $T.requireNonNull($N)",
+            supplierFieldName,
+            Objects.class,
+            descriptor.fieldName());
+
+    // the accessor is only exposed to the annotated class when it can't call super, as with eager
+    // inner composed instances
+    final var accessor =
+        MethodSpec.methodBuilder(descriptor.fieldName())
+            .addModifiers(
+                options.skipOverridden()
+                    ? List.of(Modifier.PROTECTED, Modifier.FINAL)
+                    : List.of(Modifier.PRIVATE))
+            .returns(innerType)
+            .addStatement(
+                "final $T $N = ($T) $N.getAcquire(this)",
+                innerType,
+                descriptor.fieldName(),
+                innerType,
+                varHandleFieldName)
+            .addStatement(
+                "return $N != null ? $N : $N()",
+                descriptor.fieldName(),
+                descriptor.fieldName(),
+                initializerName);
+    if (!descriptor.declaredType().getTypeArguments().isEmpty()) {
+      accessor.addAnnotation(
+          AnnotationSpec.builder(SuppressWarnings.class)
+              .addMember("value", "$S", "unchecked")
+              .build());
+    }
+    typeSpecBuilder.addMethod(accessor.build());
+    typeSpecBuilder.addMethod(
+        MethodSpec.methodBuilder(initializerName)
+            .addModifiers(Modifier.PRIVATE)
+            .returns(innerType)
+            .beginControlFlow("synchronized (this)")
+            .addStatement(
+                "$T $N = this.$N", innerType, descriptor.fieldName(), descriptor.fieldName())
+            .beginControlFlow("if ($N == null)", descriptor.fieldName())
+            .addStatement(
+                "$N = $T.requireNonNull($N.get(), $S)",
+                descriptor.fieldName(),
+                Objects.class,
+                supplierFieldName,
+                supplierFieldName + " returned null")
+            .addStatement("$N.setRelease(this, $N)", varHandleFieldName, descriptor.fieldName())
+            .endControlFlow()
+            .addStatement("return $N", descriptor.fieldName())
+            .endControlFlow()
+            .build());
+  }
+
+  /**
+   * Adds the members that allow the inner composed instance of the provided {@link
+   * DelegationTargetDescriptor} to be swapped to the provided builders. The instance is swapped
+   * atomically via a {@link VarHandle}, and is reached by an accessor with either an acquiring read
+   * that pairs with the swap so that the replacement is safely published, or a plain read when
+   * {@link DelegationOptions#plainReads()}
+   */
+  private void addSwapping(
+      final TypeSpec.Builder typeSpecBuilder,
+      final MethodSpec.Builder constructorBuilder,
+      final DelegationTargetDescriptor descriptor) {
+    final var innerType = TypeName.get(descriptor.declaredType());
+    final var varHandleFieldName = varHandleFieldName(descriptor);
+    final var uncheckedCast =
+        descriptor.declaredType().getTypeArguments().isEmpty()
+            ? null
+            : AnnotationSpec.builder(SuppressWarnings.class)
+                .addMember("value", "$S", "unchecked")
+                .build();
+    typeSpecBuilder
+        .addField(
+            VarHandle.class, varHandleFieldName, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+        // only written via the VarHandle after construction
+        .addField(innerType, descriptor.fieldName(), Modifier.PRIVATE);
+    constructorBuilder
+        .addParameter(innerType, descriptor.fieldName(), Modifier.FINAL)
+        .addStatement("this.$N = $N", descriptor.fieldName(), descriptor.fieldName());
+
+    // the accessor is only exposed to the annotated class when it can't call super, as with
+    // final inner composed instances
+    final var accessor =
+        MethodSpec.methodBuilder(descriptor.fieldName())
+            .addModifiers(
+                options.skipOverridden()
+                    ? List.of(Modifier.PROTECTED, Modifier.FINAL)
+                    : List.of(Modifier.PRIVATE))
+            .returns(innerType);
+    if (options.plainReads()) {
+      accessor.addStatement("return $N", descriptor.fieldName());
+    } else {
+      accessor.addStatement("return ($T) $N.getAcquire(this)", innerType, varHandleFieldName);
+      if (uncheckedCast != null) {
+        accessor.addAnnotation(uncheckedCast);
+      }
+    }
+    typeSpecBuilder.addMethod(accessor.build());
+    final var swap =
+        MethodSpec.methodBuilder("swap" + capitalize(descriptor.fieldName()))
+            .addJavadoc(
+                "Atomically replaces the inner composed instance. Calls that start after this"
+                    + " method returns are\nforwarded to the replacement, or to a newer instance,"
+                    + " while calls that already started may still\nbe forwarded to the replaced"
+                    + " instance\n\n@return the replaced instance\n")
+            .addModifiers(Modifier.PROTECTED, Modifier.FINAL)
+            .returns(innerType)
+            .addParameter(innerType, "replacement", Modifier.FINAL)
+            .addStatement(
+                "return ($T) $N.getAndSet(this, $T.requireNonNull(replacement))",
+                innerType,
+                varHandleFieldName,
+                Objects.class);
+    if (uncheckedCast != null) {
+      swap.addAnnotation(uncheckedCast);
+    }
+    typeSpecBuilder.addMethod(swap.build());
+  }
+
+  /**
+   * Adds the members that replace the inner composed instance of the provided {@link
+   * DelegationTargetDescriptor} with a copy on every write to the provided builders. The copy is
+   * created by a function passed to the constructor, under the monitor of the generated class so
+   * that writes aren't lost, and published with a releasing write of a {@link VarHandle} that pairs
+   * with the acquiring read of the accessor, so reads never take the monitor.
+   */
+  private void addCopyOnWrite(
+      final TypeSpec.Builder typeSpecBuilder,
+      final MethodSpec.Builder constructorBuilder,
+      final DelegationTargetDescriptor descriptor) {
+    final var innerType = TypeName.get(descriptor.declaredType());
+    final var copierType = ParameterizedTypeName.get(ClassName.get(UnaryOperator.class), innerType);
+    final var fieldName = descriptor.fieldName();
+    final var copierFieldName = copierFieldName(descriptor);
+    final var varHandleFieldName = varHandleFieldName(descriptor);
+    typeSpecBuilder
+        .addField(
+            VarHandle.class, varHandleFieldName, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+        .addField(copierType, copierFieldName, Modifier.PRIVATE, Modifier.FINAL)
+        // only written via the VarHandle after construction
+        .addField(innerType, fieldName, Modifier.PRIVATE);
+    constructorBuilder
+        .addParameter(innerType, fieldName, Modifier.FINAL)
+        .addParameter(copierType, copierFieldName, Modifier.FINAL)
+        .addStatement(
+            "this.$N = $T.requireNonNull($N)", copierFieldName, Objects.class, copierFieldName)
+        // copy the initial instance, so that the caller can't modify the snapshot
+        .addStatement(
+            "this.$N = $T.requireNonNull($N.apply($N))",
+            fieldName,
+            Objects.class,
+            copierFieldName,
+            fieldName);
+
+    final var accessor =
+        MethodSpec.methodBuilder(fieldName)
+            .addModifiers(
+                options.skipOverridden()
+                    ? List.of(Modifier.PROTECTED, Modifier.FINAL)
+                    : List.of(Modifier.PRIVATE))
+            .returns(innerType)
+            .addStatement("return ($T) $N.getAcquire(this)", innerType, varHandleFieldName);
+    final var update =
+        MethodSpec.methodBuilder("update" + capitalize(fieldName))
+            .addJavadoc(
+                "Applies a batch of writes to a single copy of the inner composed instance, which"
+                    + " then atomically\nreplaces it. Reads observe either none or all of the"
+                    + " writes. If the batch throws, the inner\ncomposed instance is left"
+                    + " unchanged\n")
+            .addModifiers(Modifier.PROTECTED, Modifier.FINAL)
+            .addParameter(
+                ParameterizedTypeName.get(
+                    ClassName.get(Consumer.class), WildcardTypeName.supertypeOf(innerType)),
+                "batch",
+                Modifier.FINAL)
+            .beginControlFlow("synchronized (this)")
+            .addStatement("final $T copy = $N()", innerType, copyMethodName(descriptor))
+            .addStatement("batch.accept(copy)")
+            .addStatement("$N.setRelease(this, copy)", varHandleFieldName)
+            .endControlFlow();
+    // the current instance is read without the VarHandle, as every write to it is made while
+    // holding the monitor
+    final var copy =
+        MethodSpec.methodBuilder(copyMethodName(descriptor))
+            .addModifiers(Modifier.PRIVATE)
+            .returns(innerType)
+            .addStatement(
+                "return $T.requireNonNull($N.apply($N))",
+                Objects.class,
+                copierFieldName,
+                fieldName);
+    if (!descriptor.declaredType().getTypeArguments().isEmpty()) {
+      accessor.addAnnotation(
+          AnnotationSpec.builder(SuppressWarnings.class)
+              .addMember("value", "$S", "unchecked")
+              .build());
+    }
+    typeSpecBuilder.addMethod(accessor.build()).addMethod(update.build()).addMethod(copy.build());
+  }
+
+  /**
+   * @return true if each call borrows the instance it is forwarded to, from the instances confined
+   *     to each thread, from a pool or from a load balancer
+   */
+  private boolean isBorrowed() {
+    return options.perThread() || options.pooled() || options.balanced();
+  }
+
+  /**
+   * Adds the members that manage the instances of the provided {@link DelegationTargetDescriptor}
+   * that calls borrow to the provided builders. The constructor accepts either a supplier of the
+   * instances confined to each thread, a pool or a load balancer
+   */
+  private void addBorrowing(
+      final TypeSpec.Builder typeSpecBuilder,
+      final MethodSpec.Builder constructorBuilder,
+      final DelegationTargetDescriptor descriptor) {
+    final var innerType = TypeName.get(descriptor.declaredType());
+    final var instancesType =
+        ParameterizedTypeName.get(
+            options.perThread()
+                ? PER_THREAD_INSTANCES
+                : options.pooled() ? DELEGATE_POOL : LOAD_BALANCER,
+            innerType);
+    final var fieldName = descriptor.fieldName();
+    typeSpecBuilder.addField(instancesType, fieldName, Modifier.PRIVATE, Modifier.FINAL);
+    if (options.perThread()) {
+      constructorBuilder
+          .addParameter(
+              ParameterizedTypeName.get(
+                  ClassName.get(Supplier.class), WildcardTypeName.subtypeOf(innerType)),
+              fieldName,
+              Modifier.FINAL)
+          .addStatement("this.$N = new $T<>($N)", fieldName, PER_THREAD_INSTANCES, fieldName);
+    } else {
+      constructorBuilder
+          .addParameter(instancesType, fieldName, Modifier.FINAL)
+          .addStatement("this.$N = $T.requireNonNull($N)", fieldName, Objects.class, fieldName);
+    }
+    if (options.skipOverridden()) {
+      typeSpecBuilder.addMethod(
+          MethodSpec.methodBuilder(fieldName)
+              .addModifiers(Modifier.PROTECTED, Modifier.FINAL)
+              .returns(instancesType)
+              .addStatement("return $N", fieldName)
+              .build());
+    }
+  }
+
+  /**
+   * Adds the members that hold the {@code Hedger} of the provided {@link
+   * DelegationTargetDescriptor} to the provided builders. The constructor accepts the hedger, which
+   * holds both replicas of the inner composed instance
+   */
+  private void addHedging(
+      final TypeSpec.Builder typeSpecBuilder,
+      final MethodSpec.Builder constructorBuilder,
+      final DelegationTargetDescriptor descriptor) {
+    final var hedgerType =
+        ParameterizedTypeName.get(HEDGER, TypeName.get(descriptor.declaredType()));
+    final var fieldName = descriptor.fieldName();
+    typeSpecBuilder.addField(hedgerType, fieldName, Modifier.PRIVATE, Modifier.FINAL);
+    constructorBuilder
+        .addParameter(hedgerType, fieldName, Modifier.FINAL)
+        .addStatement("this.$N = $T.requireNonNull($N)", fieldName, Objects.class, fieldName);
+    if (options.skipOverridden()) {
+      typeSpecBuilder.addMethod(
+          MethodSpec.methodBuilder(fieldName)
+              .addModifiers(Modifier.PROTECTED, Modifier.FINAL)
+              .returns(hedgerType)
+              .addStatement("return $N", fieldName)
+              .build());
+    }
+  }
+
+  /**
+   * @return the name of the field holding the function that copies the inner composed instance of a
+   *     copy-on-write class, e.g. {@code inner0Copier}
+   */
+  private static String copierFieldName(final DelegationTargetDescriptor descriptor) {
+    return descriptor.fieldName() + "Copier";
+  }
+
+  /**
+   * @return the name of the private method that copies the inner composed instance of a
+   *     copy-on-write class, e.g. {@code copyInner0}
+   */
+  private static String copyMethodName(final DelegationTargetDescriptor descriptor) {
+    return "copy" + capitalize(descriptor.fieldName());
+  }
+
+  /**
+   * @return true if the inner composed instances are created lazily, can be swapped or are copied
+   *     on write, in which case they are managed via a {@link VarHandle} and reached via an
+   *     accessor
+   */
+  private boolean isVarHandleManaged() {
+    return options.lazy() || options.swappable() || options.copyOnWrite();
+  }
+
+  /**
+   * @return the provided name with its first character in upper case, e.g. {@code Inner0}
+   */
+  private static String capitalize(final String name) {
+    return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+  }
+
+  /**
+   * @return the name of the static {@link VarHandle} field of an inner composed instance that is
+   *     created lazily or can be swapped, e.g. {@code INNER0}
+   */
+  private static String varHandleFieldName(final DelegationTargetDescriptor descriptor) {
+    return descriptor.fieldName().toUpperCase(Locale.ROOT);
+  }
+
+  /**
+   * Adds the members that split the inner composed instance of the provided {@link
+   * DelegationTargetDescriptor} into shards to the provided builders. The shards are stored in an
+   * array, and reached via a private accessor by index, and via protected accessors by key and as a
+   * {@link List}
+   */
+  private void addSharding(
+      final TypeSpec.Builder typeSpecBuilder,
+      final MethodSpec.Builder constructorBuilder,
+      final DelegationTargetDescriptor descriptor) {
+    final var innerType = TypeName.get(descriptor.declaredType());
+    final var fieldName = descriptor.fieldName();
+    final var uncheckedCast =
+        AnnotationSpec.builder(SuppressWarnings.class)
+            .addMember("value", "$S", "unchecked")
+            .build();
+    typeSpecBuilder.addField(Object[].class, fieldName, Modifier.PRIVATE, Modifier.FINAL);
+    constructorBuilder
+        .addParameter(
+            ParameterizedTypeName.get(
+                ClassName.get(List.class), WildcardTypeName.subtypeOf(innerType)),
+            fieldName,
+            Modifier.FINAL)
+        .addStatement("this.$N = $T.copyOf($N).toArray()", fieldName, List.class, fieldName)
+        .beginControlFlow("if (this.$N.length == 0)", fieldName)
+        .addStatement(
+            "throw new $T($S)",
+            IllegalArgumentException.class,
+            fieldName + " must contain at least one shard")
+        .endControlFlow();
+
+    final var shard =
+        MethodSpec.methodBuilder(shardAccessorName(descriptor))
+            .addModifiers(Modifier.PRIVATE)
+            .returns(innerType)
+            .addParameter(int.class, "index", Modifier.FINAL)
+            .addStatement("return ($T) $N[index]", innerType, fieldName);
+    if (!descriptor.declaredType().getTypeArguments().isEmpty()) {
+      shard.addAnnotation(uncheckedCast);
+    }
+    typeSpecBuilder
+        .addMethod(shard.build())
+        .addMethod(
+            MethodSpec.methodBuilder(fieldName)
+                .addModifiers(Modifier.PROTECTED, Modifier.FINAL)
+                .returns(innerType)
+                .addParameter(Object.class, "key", Modifier.FINAL)
+                .addStatement(
+                    "return $N($N(key, $N.length))",
+                    shardAccessorName(descriptor),
+                    SHARD_INDEX_METHOD_NAME,
+                    fieldName)
+                .build())
+        .addMethod(
+            MethodSpec.methodBuilder(fieldName + "Shards")
+                .addAnnotation(uncheckedCast)
+                .addModifiers(Modifier.PROTECTED, Modifier.FINAL)
+                .returns(ParameterizedTypeName.get(ClassName.get(List.class), innerType))
+                .addStatement(
+                    "return ($T) ($T) $T.of($N)",
+                    ParameterizedTypeName.get(ClassName.get(List.class), innerType),
+                    ParameterizedTypeName.get(
+                        ClassName.get(List.class), WildcardTypeName.subtypeOf(Object.class)),
+                    List.class,
+                    fieldName)
+                .build());
+  }
+
+  /**
+   * Adds the members that hold the inner composed instances of the provided {@link
+   * DelegationTargetDescriptor} that calls are broadcast to to the provided builders. The delegates
+   * are stored in an array, so that broadcasting neither locks nor allocates an iterator, and
+   * reached via a private accessor by index and via a protected accessor as a {@link List}
+   */
+  private void addBroadcasting(
+      final TypeSpec.Builder typeSpecBuilder,
+      final MethodSpec.Builder constructorBuilder,
+      final DelegationTargetDescriptor descriptor) {
+    final var innerType = TypeName.get(descriptor.declaredType());
+    final var fieldName = descriptor.fieldName();
+    final var uncheckedCast =
+        AnnotationSpec.builder(SuppressWarnings.class)
+            .addMember("value", "$S", "unchecked")
+            .build();
+    typeSpecBuilder.addField(Object[].class, fieldName, Modifier.PRIVATE, Modifier.FINAL);
+    constructorBuilder
+        .addParameter(
+            ParameterizedTypeName.get(
+                ClassName.get(List.class), WildcardTypeName.subtypeOf(innerType)),
+            fieldName,
+            Modifier.FINAL)
+        .addStatement("this.$N = $T.copyOf($N).toArray()", fieldName, List.class, fieldName)
+        .beginControlFlow("if (this.$N.length == 0)", fieldName)
+        .addStatement(
+            "throw new $T($S)",
+            IllegalArgumentException.class,
+            fieldName + " must contain at least one delegate")
+        .endControlFlow();
+
+    final var delegate =
+        MethodSpec.methodBuilder(delegateAccessorName(descriptor))
+            .addModifiers(Modifier.PRIVATE)
+            .returns(innerType)
+            .addParameter(int.class, "index", Modifier.FINAL)
+            .addStatement("return ($T) $N[index]", innerType, fieldName);
+    if (!descriptor.declaredType().getTypeArguments().isEmpty()) {
+      delegate.addAnnotation(uncheckedCast);
+    }
+    typeSpecBuilder
+        .addMethod(delegate.build())
+        .addMethod(
+            MethodSpec.methodBuilder(fieldName + "Delegates")
+                .addAnnotation(uncheckedCast)
+                .addModifiers(Modifier.PROTECTED, Modifier.FINAL)
+                .returns(ParameterizedTypeName.get(ClassName.get(List.class), innerType))
+                .addStatement(
+                    "return ($T) ($T) $T.of($N)",
+                    ParameterizedTypeName.get(ClassName.get(List.class), innerType),
+                    ParameterizedTypeName.get(
+                        ClassName.get(List.class), WildcardTypeName.subtypeOf(Object.class)),
+                    List.class,
+                    fieldName)
+                .build());
+    if (options.parallelBroadcast()) {
+      typeSpecBuilder.addMethod(
+          MethodSpec.methodBuilder(executorAccessorName(descriptor))
+              .addJavadoc(
+                  "Returns the executor that calls to every delegate but the first are forked to,"
+                      + " which\nmay be overridden, e.g. with a bounded pool\n")
+              .addModifiers(Modifier.PROTECTED)
+              .returns(Executor.class)
+              .addStatement("return $T.defaultExecutor()", ASYNC_CALLS)
+              .build());
+    }
+  }
+
+  /**
+   * @return the name of the protected accessor of the {@link Executor} that calls broadcast in
+   *     parallel are forked to, e.g. {@code inner0Executor}
+   */
+  private static String executorAccessorName(final DelegationTargetDescriptor descriptor) {
+    return descriptor.fieldName() + "Executor";
+  }
+
+  /**
+   * @return the name of the private accessor of a delegate that calls are broadcast to by index,
+   *     e.g. {@code inner0Delegate}
+   */
+  private static String delegateAccessorName(final DelegationTargetDescriptor descriptor) {
+    return descriptor.fieldName() + "Delegate";
+  }
+
+  /**
+   * @return a {@link List} of {@code protected abstract} {@link MethodSpec}s that the annotated
+   *     class implements to combine the results of broadcasting each of the provided {@link
+   *     ForwardedMethod}s that don't return {@code void}
+   */
+  private List<MethodSpec> reducers(final List<ForwardedMethod> forwardedMethods) {
+    return forwardedMethods.stream()
+        .filter(forwardedMethod -> !forwardedMethod.isVoid())
+        .map(
+            forwardedMethod ->
+                MethodSpec.methodBuilder(reducerNames.get(forwardedMethod))
+                    .addJavadoc(
+                        "Combines the result of {@code $L} accumulated from the previous\ndelegates"
+                            + " with the result of the next delegate\n",
+                        forwardedMethod.signature())
+                    .addModifiers(Modifier.PROTECTED, Modifier.ABSTRACT)
+                    .addTypeVariables(forwardedMethod.overridingSignature().typeVariables)
+                    .returns(forwardedMethod.returnType())
+                    .addParameter(forwardedMethod.returnType(), "accumulated", Modifier.FINAL)
+                    .addParameter(forwardedMethod.returnType(), "next", Modifier.FINAL)
+                    .build())
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * @return the name of the private accessor of a shard by index, e.g. {@code inner0Shard}
+   */
+  private static String shardAccessorName(final DelegationTargetDescriptor descriptor) {
+    return descriptor.fieldName() + "Shard";
+  }
+
+  /**
+   * @return an expression that names the inner composed instance that a call to the provided {@link
+   *     ForwardedMethod} is forwarded to. Recorded calls reach it once, before the event begins, so
+   *     that the call and the event see the same instance, which is then named by a local variable,
+   *     and borrowed instances are already named by one
+   */
+  private CodeBlock receiver(final ForwardedMethod forwardedMethod) {
+    return isRecorded() && !isBorrowed()
+        ? CodeBlock.of("$N", InterceptorGenerator.localName("receiver", forwardedMethod))
+        : reachReceiver(forwardedMethod);
+  }
+
+  /**
+   * @return an expression that evaluates to the inner composed instance that a call to the provided
+   *     {@link ForwardedMethod} is forwarded to, creating it first when it is created lazily,
+   *     reading the current instance when it can be swapped, choosing the shard of the key when it
+   *     is sharded, or naming the instance acquired or borrowed by the calling thread when it is
+   *     per-thread, pooled or balanced, or naming the primary replica when it is hedged, which is
+   *     what recorded events of hedged calls report, as the replica that returns first is only
+   *     known to the hedger. Calls to APIs without a key are forwarded to every shard, and
+   *     broadcast calls to every delegate, so the first shard or delegate represents them
+   */
+  private CodeBlock reachReceiver(final ForwardedMethod forwardedMethod) {
+    final var descriptor = forwardedMethod.descriptor();
+    if (options.broadcast()) {
+      return CodeBlock.of("$N(0)", delegateAccessorName(descriptor));
+    } else if (isBorrowed()) {
+      return CodeBlock.of("$N", InterceptorGenerator.localName("instance", forwardedMethod));
+    } else if (options.hedged()) {
+      return CodeBlock.of("$N.primary()", descriptor.fieldName());
+    } else if (options.sharded()) {
+      return isKeyed(forwardedMethod.executableElement())
+          ? CodeBlock.of("$N($N)", descriptor.fieldName(), forwardedMethod.parameters().get(0))
+          : CodeBlock.of("$N(0)", shardAccessorName(descriptor));
+    }
+    return isVarHandleManaged()
+        ? CodeBlock.of("$N()", descriptor.fieldName())
+        : CodeBlock.of("$N", descriptor.fieldName());
+  }
+
+  /**
+   * @return {@link ForwardingStatements} that call the API of the inner composed instance
+   */
+  private ForwardingStatements forwardingCall(final ForwardedMethod forwardedMethod) {
+    if (options.broadcast()) {
+      return options.parallelBroadcast()
+              && forwardedMethod.overridingSignature().exceptions.stream()
+                  .noneMatch(exception -> exception instanceof TypeVariableName)
+          ? parallelBroadcastCall(forwardedMethod)
+          : broadcastCall(forwardedMethod);
+    } else if (options.sharded() && !isKeyed(forwardedMethod.executableElement())) {
+      return shardedCall(forwardedMethod);
+    } else if (options.copyOnWrite() && !isRead(forwardedMethod)) {
+      return copyOnWriteCall(forwardedMethod);
+    } else if (options.hedged()
+        && isRead(forwardedMethod)
+        && forwardedMethod.overridingSignature().exceptions.stream()
+            .noneMatch(exception -> exception instanceof TypeVariableName)) {
+      return hedgedCall(forwardedMethod);
+    }
+    final var call =
+        CodeBlock.of(
+            "$L.$N($L)",
+            receiver(forwardedMethod),
+            forwardedMethod.name(),
+            forwardedMethod.arguments());
+    return resultVariable -> {
+      if (forwardedMethod.isVoid()) {
+        return CodeBlock.builder().addStatement(call).build();
+      } else if (resultVariable == null) {
+        return CodeBlock.builder().addStatement("return $L", call).build();
+      }
+      return CodeBlock.builder().addStatement("$N = $L", resultVariable, call).build();
+    };
+  }
+
+  /**
+   * @return {@link ForwardingStatements} that call the API of a copy of the inner composed instance
+   *     while holding the monitor of the generated class, and then publish the copy, unless the API
+   *     throws
+   */
+  private ForwardingStatements copyOnWriteCall(final ForwardedMethod forwardedMethod) {
+    final var descriptor = forwardedMethod.descriptor();
+    final var copy = InterceptorGenerator.localName("copy", forwardedMethod);
+    final var written = InterceptorGenerator.localName("written", forwardedMethod);
+    final var call =
+        CodeBlock.of("$N.$N($L)", copy, forwardedMethod.name(), forwardedMethod.arguments());
+    return resultVariable -> {
+      final var code =
+          CodeBlock.builder()
+              .beginControlFlow("synchronized (this)")
+              .addStatement(
+                  "final $T $N = $N()",
+                  TypeName.get(descriptor.declaredType()),
+                  copy,
+                  copyMethodName(descriptor));
+      if (forwardedMethod.isVoid()) {
+        code.addStatement(call);
+      } else {
+        code.addStatement("final $T $N = $L", forwardedMethod.returnType(), written, call);
+      }
+      code.addStatement("$N.setRelease(this, $N)", varHandleFieldName(descriptor), copy);
+      if (!forwardedMethod.isVoid()) {
+        if (resultVariable == null) {
+          code.addStatement("return $N", written);
+        } else {
+          code.addStatement("$N = $N", resultVariable, written);
+        }
+      }
+      return code.endControlFlow().build();
+    };
+  }
+
+  /**
+   * @return {@link ForwardingStatements} that call the API of every delegate in order, combining
+   *     their results with the reducer of the API unless it returns {@code void}
+   */
+  private ForwardingStatements broadcastCall(final ForwardedMethod forwardedMethod) {
+    final var descriptor = forwardedMethod.descriptor();
+    final var delegate = InterceptorGenerator.localName("delegate", forwardedMethod);
+    final var reduced = InterceptorGenerator.localName("reduced", forwardedMethod);
+    if (forwardedMethod.isVoid()) {
+      return resultVariable ->
+          CodeBlock.builder()
+              .beginControlFlow(
+                  "for (int $N = 0; $N < $N.length; $N++)",
+                  delegate,
+                  delegate,
+                  descriptor.fieldName(),
+                  delegate)
+              .addStatement(
+                  "$N($N).$N($L)",
+                  delegateAccessorName(descriptor),
+                  delegate,
+                  forwardedMethod.name(),
+                  forwardedMethod.arguments())
+              .endControlFlow()
+              .build();
+    }
+    final var statements =
+        CodeBlock.builder()
+            .addStatement(
+                "$T $N = $L.$N($L)",
+                forwardedMethod.returnType(),
+                reduced,
+                receiver(forwardedMethod),
+                forwardedMethod.name(),
+                forwardedMethod.arguments())
+            .beginControlFlow(
+                "for (int $N = 1; $N < $N.length; $N++)",
+                delegate,
+                delegate,
+                descriptor.fieldName(),
+                delegate)
+            .addStatement(
+                "$N = $N($N, $N($N).$N($L))",
+                reduced,
+                reducerNames.get(forwardedMethod),
+                reduced,
+                delegateAccessorName(descriptor),
+                delegate,
+                forwardedMethod.name(),
+                forwardedMethod.arguments())
+            .endControlFlow()
+            .build();
+    return resultVariable ->
+        resultVariable == null
+            ? statements.toBuilder().addStatement("return $N", reduced).build()
+            : statements.toBuilder().addStatement("$N = $N", resultVariable, reduced).build();
+  }
+
+  /**
+   * @return {@link ForwardingStatements} that fork a call to the API of every delegate but the
+   *     first, call the API of the first delegate on the calling thread, and then wait for every
+   *     forked call, even if the first delegate throws. Afterwards, the results are combined in the
+   *     order of the delegates with the reducer of the API, unless it returns {@code void}, and the
+   *     exception of the first forked call that threw is rethrown. The forked calls may only throw
+   *     the exceptions declared by the API, so any other checked exception is unreachable
+   */
+  private ForwardingStatements parallelBroadcastCall(final ForwardedMethod forwardedMethod) {
+    final var descriptor = forwardedMethod.descriptor();
+    final var innerType = TypeName.get(descriptor.declaredType());
+    final var forkedCallType =
+        ParameterizedTypeName.get(FORKED_CALL, forwardedMethod.returnType().box());
+    final var delegate = InterceptorGenerator.localName("delegate", forwardedMethod);
+    final var instance = InterceptorGenerator.localName("instance", forwardedMethod);
+    final var forked = InterceptorGenerator.localName("forked", forwardedMethod);
+    final var forkedCall = InterceptorGenerator.localName("forkedCall", forwardedMethod);
+    final var reduced = InterceptorGenerator.localName("reduced", forwardedMethod);
+    final var exception = InterceptorGenerator.localName("exception", forwardedMethod);
+    final var executor = InterceptorGenerator.localName("executor", forwardedMethod);
+    final var call =
+        CodeBlock.of("$N.$N($L)", instance, forwardedMethod.name(), forwardedMethod.arguments());
+    final var code =
+        CodeBlock.builder()
+            .addStatement(
+                "final $T $N = $N()", Executor.class, executor, executorAccessorName(descriptor))
+            .addStatement(
+                "final $T $N = new $T<>($N.length - 1)",
+                ParameterizedTypeName.get(ClassName.get(List.class), forkedCallType),
+                forked,
+                ArrayList.class,
+                descriptor.fieldName())
+            .beginControlFlow(
+                "for (int $N = 1; $N < $N.length; $N++)",
+                delegate,
+                delegate,
+                descriptor.fieldName(),
+                delegate)
+            .addStatement(
+                "final $T $N = $N($N)",
+                innerType,
+                instance,
+                delegateAccessorName(descriptor),
+                delegate);
+    if (forwardedMethod.isVoid()) {
+      code.addStatement(
+          "$N.add($T.fork($N, () -> {\n$>$L;\nreturn null;$<\n}))",
+          forked,
+          FORKED_CALL,
+          executor,
+          call);
+    } else {
+      code.addStatement("$N.add($T.fork($N, () -> $L))", forked, FORKED_CALL, executor, call);
+    }
+    code.endControlFlow();
+    if (!forwardedMethod.isVoid()) {
+      code.addStatement("$T $N", forwardedMethod.returnType(), reduced);
+    }
+    code.beginControlFlow("try");
+    final var firstCall =
+        CodeBlock.of(
+            "$L.$N($L)",
+            receiver(forwardedMethod),
+            forwardedMethod.name(),
+            forwardedMethod.arguments());
+    if (forwardedMethod.isVoid()) {
+      code.addStatement(firstCall);
+    } else {
+      code.addStatement("$N = $L", reduced, firstCall);
+    }
+    code.nextControlFlow("finally")
+        .addStatement("$T.awaitAll($N)", FORKED_CALL, forked)
+        .endControlFlow()
+        .beginControlFlow("try")
+        .beginControlFlow("for (final $T $N : $N)", forkedCallType, forkedCall, forked);
+    if (forwardedMethod.isVoid()) {
+      code.addStatement("$N.join()", forkedCall);
+    } else {
+      code.addStatement(
+          "$N = $N($N, $N.join())",
+          reduced,
+          reducerNames.get(forwardedMethod),
+          reduced,
+          forkedCall);
+    }
+    code.endControlFlow()
+        .nextControlFlow("catch (final $T $N)", Exception.class, exception)
+        .add(rethrown(forwardedMethod, exception))
+        .endControlFlow();
+    final var statements = code.build();
+    return resultVariable -> {
+      if (forwardedMethod.isVoid()) {
+        return statements;
+      } else if (resultVariable == null) {
+        return statements.toBuilder().addStatement("return $N", reduced).build();
+      }
+      return statements.toBuilder().addStatement("$N = $N", resultVariable, reduced).build();
+    };
+  }
+
+  /**
+   * @return {@link ForwardingStatements} that call the API through the hedger of the inner composed
+   *     instance, which may call it on both replicas. The calls may only throw the exceptions
+   *     declared by the API, so any other checked exception is unreachable
+   */
+  private ForwardingStatements hedgedCall(final ForwardedMethod forwardedMethod) {
+    final var instance = InterceptorGenerator.localName("instance", forwardedMethod);
+    final var exception = InterceptorGenerator.localName("exception", forwardedMethod);
+    final var call =
+        CodeBlock.of("$N.$N($L)", instance, forwardedMethod.name(), forwardedMethod.arguments());
+    final var hedged =
+        forwardedMethod.isVoid()
+            ? CodeBlock.of(
+                "$N.call($N -> {\n$>$L;\nreturn null;$<\n})",
+                forwardedMethod.descriptor().fieldName(),
+                instance,
+                call)
+            : CodeBlock.of(
+                "$N.call($N -> $L)", forwardedMethod.descriptor().fieldName(), instance, call);
+    return resultVariable -> {
+      final var code = CodeBlock.builder().beginControlFlow("try");
+      if (forwardedMethod.isVoid()) {
+        code.addStatement(hedged);
+      } else if (resultVariable == null) {
+        code.addStatement("return $L", hedged);
+      } else {
+        code.addStatement("$N = $L", resultVariable, hedged);
+      }
+      return code.nextControlFlow("catch (final $T $N)", Exception.class, exception)
+          .add(rethrown(forwardedMethod, exception))
+          .endControlFlow()
+          .build();
+    };
+  }
+
+  /**
+   * @return a {@link CodeBlock} that rethrows the named exception, which was thrown by a call to
+   *     the API on another thread, as is if it is unchecked or declared by the API, and otherwise
+   *     wrapped in an {@link UndeclaredThrowableException}
+   */
+  private static CodeBlock rethrown(final ForwardedMethod forwardedMethod, final String exception) {
+    final var code =
+        CodeBlock.builder()
+            .beginControlFlow("if ($N instanceof $T)", exception, RuntimeException.class)
+            .addStatement("throw ($T) $N", RuntimeException.class, exception)
+            .endControlFlow();
+    for (TypeName thrownType : forwardedMethod.overridingSignature().exceptions) {
+      code.beginControlFlow("if ($N instanceof $T)", exception, thrownType)
+          .addStatement("throw ($T) $N", thrownType, exception)
+          .endControlFlow();
+    }
+    return code.addStatement("throw new $T($N)", UndeclaredThrowableException.class, exception)
+        .build();
+  }
+
+  /**
+   * @return {@link ForwardingStatements} that call the API of every shard, which has no parameters,
+   *     and combine their results as described by {@link AutoDelegate#sharded()}
+   */
+  private ForwardingStatements shardedCall(final ForwardedMethod forwardedMethod) {
+    final var descriptor = forwardedMethod.descriptor();
+    final var call =
+        CodeBlock.of("$N(shard).$N()", shardAccessorName(descriptor), forwardedMethod.name());
+    final var returnType = forwardedMethod.returnType();
+    if (forwardedMethod.isVoid()) {
+      return resultVariable ->
+          CodeBlock.builder()
+              .beginControlFlow(
+                  "for (int shard = 0; shard < $N.length; shard++)", descriptor.fieldName())
+              .addStatement(call)
+              .endControlFlow()
+              .build();
+    }
+    final var code = CodeBlock.builder();
+    final CodeBlock combinedResult;
+    if (returnType.equals(TypeName.BOOLEAN)) {
+      // stop at the first shard that returns false
+      code.addStatement("boolean combined = true")
+          .beginControlFlow(
+              "for (int shard = 0; combined && shard < $N.length; shard++)", descriptor.fieldName())
+          .addStatement("combined = $L", call);
+      combinedResult = CodeBlock.of("combined");
+    } else if (returnType.isPrimitive()) {
+      code.addStatement("$T combined = 0", returnType)
+          .beginControlFlow(
+              "for (int shard = 0; shard < $N.length; shard++)", descriptor.fieldName())
+          .addStatement("combined += $L", call);
+      combinedResult = CodeBlock.of("combined");
+    } else {
+      final var erasure =
+          MoreTypes.asTypeElement(forwardedMethod.executableElement().getReturnType());
+      final var isSet = erasure.getQualifiedName().contentEquals(Set.class.getCanonicalName());
+      code.addStatement(
+              "final $T combined = new $T<>()",
+              returnType,
+              isSet ? LinkedHashSet.class : ArrayList.class)
+          .beginControlFlow(
+              "for (int shard = 0; shard < $N.length; shard++)", descriptor.fieldName())
+          .addStatement("combined.addAll($L)", call);
+      final var unmodifiable =
+          isSet
+              ? "unmodifiableSet"
+              : erasure.getQualifiedName().contentEquals(List.class.getCanonicalName())
+                  ? "unmodifiableList"
+                  : "unmodifiableCollection";
+      combinedResult = CodeBlock.of("$T.$N(combined)", Collections.class, unmodifiable);
+    }
+    code.endControlFlow();
+    final var statements = code.build();
+    return resultVariable ->
+        resultVariable == null
+            ? statements.toBuilder().addStatement("return $L", combinedResult).build()
+            : statements.toBuilder()
+                .addStatement("$N = $L", resultVariable, combinedResult)
+                .build();
+  }
+
+  /**
+   * @return {@link ForwardingStatements} that run the provided statements while holding the write
+   *     lock for writes and the read lock for reads. When reads are optimistic, they are first run
+   *     without the read lock and only repeated under it if a write began in the meantime, in which
+   *     case their result, or any {@link RuntimeException} they threw, is discarded. The optimistic
+   *     attempt breaks out of a labeled block instead of returning when the result is assigned or
+   *     the API returns {@code void}, so that wrapping statements still run after it
+   */
+  private ForwardingStatements locked(
+      final ForwardedMethod forwardedMethod, final ForwardingStatements statements) {
+    final var stamp = InterceptorGenerator.localName("stamp", forwardedMethod);
+    final var read = isRead(forwardedMethod);
+    final ForwardingStatements pessimistic =
+        resultVariable ->
+            CodeBlock.builder()
+                .addStatement(
+                    "final long $N = $N.$N()",
+                    stamp,
+                    LOCK_FIELD_NAME,
+                    read ? "readLock" : "writeLock")
+                .beginControlFlow("try")
+                .add(statements.emit(resultVariable))
+                .nextControlFlow("finally")
+                .addStatement(
+                    "$N.$N($N)", LOCK_FIELD_NAME, read ? "unlockRead" : "unlockWrite", stamp)
+                .endControlFlow()
+                .build();
+    if (!read || !options.optimisticReads()) {
+      return pessimistic;
+    }
+    final var optimisticStamp = InterceptorGenerator.localName("optimisticStamp", forwardedMethod);
+    final var optimisticResult =
+        InterceptorGenerator.localName("optimisticResult", forwardedMethod);
+    final var exception = InterceptorGenerator.localName("exception", forwardedMethod);
+    return resultVariable -> {
+      final var labeled = forwardedMethod.isVoid() || resultVariable != null;
+      final var code = CodeBlock.builder();
+      if (labeled) {
+        code.beginControlFlow("$L:", LOCKED_LABEL);
+      }
+      code.beginControlFlow("$L:", OPTIMISTIC_READ_LABEL)
+          .addStatement("final long $N = $N.tryOptimisticRead()", optimisticStamp, LOCK_FIELD_NAME)
+          // a write lock is held
+          .beginControlFlow("if ($N == 0L)", optimisticStamp)
+          .addStatement("break $L", OPTIMISTIC_READ_LABEL)
+          .endControlFlow();
+      if (!forwardedMethod.isVoid()) {
+        code.addStatement("final $T $N", forwardedMethod.returnType(), optimisticResult);
+      }
+      code.beginControlFlow("try")
+          .add(statements.emit(forwardedMethod.isVoid() ? null : optimisticResult))
+          // a read that observes a write in progress may throw anything, including errors such as
+          // a StackOverflowError from a cycle or checked exceptions of the API, which are
+          // rethrown precisely as the catch parameter is effectively final
+          .nextControlFlow("catch ($T $N)", Throwable.class, exception)
+          // the exception wasn't caused by observing a write in progress
+          .beginControlFlow("if ($N.validate($N))", LOCK_FIELD_NAME, optimisticStamp)
+          .addStatement("throw $N", exception)
+          .endControlFlow()
+          .addStatement("break $L", OPTIMISTIC_READ_LABEL)
+          .endControlFlow()
+          .beginControlFlow("if (!$N.validate($N))", LOCK_FIELD_NAME, optimisticStamp)
+          .addStatement("break $L", OPTIMISTIC_READ_LABEL)
+          .endControlFlow();
+      if (forwardedMethod.isVoid()) {
+        code.addStatement("break $L", LOCKED_LABEL);
+      } else if (resultVariable == null) {
+        code.addStatement("return $N", optimisticResult);
+      } else {
+        code.addStatement("$N = $N", resultVariable, optimisticResult)
+            .addStatement("break $L", LOCKED_LABEL);
+      }
+      code.endControlFlow().add(pessimistic.emit(resultVariable));
+      if (labeled) {
+        code.endControlFlow();
+      }
+      return code.build();
+    };
+  }
+
+  /**
+   * @return a {@link TypeSpec} for a JFR event recording a single forwarded call, named after the
+   *     {@link #annotatedElement} so that delegation layers can be told apart in a recording
+   */
+  private TypeSpec delegationEvent() {
+    final var annotatedClassName = ClassName.get(annotatedElement);
+    return TypeSpec.classBuilder(EVENT_CLASS_NAME)
+        .addModifiers(Modifier.STATIC, Modifier.FINAL)
+        .superclass(JFR_EVENT)
+        .addAnnotation(jfrAnnotation("Name", annotatedClassName.canonicalName() + ".Delegation"))
+        .addAnnotation(jfrAnnotation("Label", annotatedClassName.simpleName() + " Delegation"))
+        .addAnnotation(jfrAnnotation("Category", "AutoDelegate"))
+        // forwarded calls can be very frequent, so recordings must opt in to the event
+        .addAnnotation(
+            AnnotationSpec.builder(ClassName.get("jdk.jfr", "Enabled"))
+                .addMember("value", "false")
+                .build())
+        .addAnnotation(
+            jfrAnnotation(
+                "Description",
+                "A call forwarded by "
+                    + annotatedClassName.simpleName()
+                    + " to an inner composed instance"))
+        .addField(
+            FieldSpec.builder(String.class, EVENT_METHOD_FIELD_NAME)
+                .addAnnotation(jfrAnnotation("Label", "Method"))
+                .build())
+        .addField(
+            FieldSpec.builder(
+                    ParameterizedTypeName.get(
+                        ClassName.get(Class.class), WildcardTypeName.subtypeOf(Object.class)),
+                    EVENT_DELEGATE_CLASS_FIELD_NAME)
+                .addAnnotation(jfrAnnotation("Label", "Delegate Class"))
+                .build())
+        .build();
+  }
+
+  private static AnnotationSpec jfrAnnotation(final String simpleName, final String value) {
+    return AnnotationSpec.builder(ClassName.get("jdk.jfr", simpleName))
+        .addMember("value", "$S", value)
+        .build();
+  }
+
+  /**
+   * @return true if each call is recorded as a JFR event
+   */
+  private boolean isRecorded() {
+    return options.jfr() && options.instrumentationEnabled();
+  }
+
+  /**
+   * @return {@link ForwardingStatements} that record the provided statements as a JFR event, even
+   *     if the inner composed instance throws. The event is only populated and committed if it
+   *     passes the thresholds of the running recordings, so when no recording is enabling the event
+   *     (the default) the statements are only wrapped by calls to its empty {@code begin}, {@code
+   *     end} and {@code shouldCommit} methods, which the JIT compiler eliminates along with the
+   *     allocation. The inner composed instance is reached once, before the event begins, and the
+   *     call is forwarded to that same instance, so that the recorded class is always the class of
+   *     the instance that was called, however the instance is reached
+   */
+  private ForwardingStatements recorded(
+      final ForwardedMethod forwardedMethod, final ForwardingStatements statements) {
+    final var event = InterceptorGenerator.localName("delegationEvent", forwardedMethod);
+    final var receiver = receiver(forwardedMethod);
+    final var eventType = ClassName.get(destinationPackage, className, EVENT_CLASS_NAME);
+    return resultVariable -> {
+      final var code = CodeBlock.builder();
+      if (!isBorrowed()) {
+        code.addStatement(
+            "final $T $L = $L",
+            TypeName.get(forwardedMethod.descriptor().declaredType()),
+            receiver,
+            reachReceiver(forwardedMethod));
+      }
+      return code.addStatement("final $T $N = new $T()", eventType, event, eventType)
+          .addStatement("$N.begin()", event)
+          .beginControlFlow("try")
+          .add(statements.emit(resultVariable))
+          .nextControlFlow("finally")
+          .addStatement("$N.end()", event)
+          .beginControlFlow("if ($N.shouldCommit())", event)
+          .addStatement("$N.$N = $S", event, EVENT_METHOD_FIELD_NAME, forwardedMethod.signature())
+          .addStatement("$N.$N = $L.getClass()", event, EVENT_DELEGATE_CLASS_FIELD_NAME, receiver)
+          .addStatement("$N.commit()", event)
+          .endControlFlow()
+          .endControlFlow()
+          .build();
+    };
+  }
+
+  /**
+   * @return {@link ForwardingStatements} that acquire the instance of the calling thread, borrow
+   *     one from the pool, or acquire a ticket for one from the load balancer, run the provided
+   *     statements and then release it, even if they throw. Instrumentation and recording happen
+   *     within, so that only the forwarded call is measured and the class of the acquired instance
+   *     can be recorded
+   */
+  private ForwardingStatements borrowed(
+      final ForwardedMethod forwardedMethod, final ForwardingStatements statements) {
+    final var descriptor = forwardedMethod.descriptor();
+    final var instance = InterceptorGenerator.localName("instance", forwardedMethod);
+    if (options.balanced()) {
+      final var ticket = InterceptorGenerator.localName("ticket", forwardedMethod);
+      return resultVariable ->
+          CodeBlock.builder()
+              .addStatement("final long $N = $N.acquire()", ticket, descriptor.fieldName())
+              .beginControlFlow("try")
+              .addStatement(
+                  "final $T $N = $N.delegate($N)",
+                  TypeName.get(descriptor.declaredType()),
+                  instance,
+                  descriptor.fieldName(),
+                  ticket)
+              .add(statements.emit(resultVariable))
+              .nextControlFlow("finally")
+              .addStatement("$N.release($N)", descriptor.fieldName(), ticket)
+              .endControlFlow()
+              .build();
+    }
+    return resultVariable ->
+        CodeBlock.builder()
+            .addStatement(
+                "final $T $N = $N.acquire()",
+                TypeName.get(descriptor.declaredType()),
+                instance,
+                descriptor.fieldName())
+            .beginControlFlow("try")
+            .add(statements.emit(resultVariable))
+            .nextControlFlow("finally")
+            .addStatement("$N.release($N)", descriptor.fieldName(), instance)
+            .endControlFlow()
+            .build();
+  }
+
+  /**
+   * @return {@link ForwardingStatements} that acquire a permit from the concurrency limiter, which
+   *     may reject the call, run the provided statements and then release the permit, even if they
+   *     throw. The permit is acquired before an instance is borrowed, so that rejected calls don't
+   *     borrow one
+   */
+  private ForwardingStatements limited(
+      final ForwardedMethod forwardedMethod, final ForwardingStatements statements) {
+    final var permit = InterceptorGenerator.localName("permit", forwardedMethod);
+    return resultVariable ->
+        CodeBlock.builder()
+            .addStatement("final long $N = $N.acquire()", permit, LIMITER_FIELD_NAME)
+            .beginControlFlow("try")
+            .add(statements.emit(resultVariable))
+            .nextControlFlow("finally")
+            .addStatement("$N.release($N)", LIMITER_FIELD_NAME, permit)
+            .endControlFlow()
+            .build();
+  }
+
+  /**
+   * @return {@link ForwardingStatements} that time the provided statements, recording them even if
+   *     the inner composed instance throws. When sampling, only 1 in {@link
+   *     DelegationOptions#sampleRate()} calls are timed, chosen with the random number generator of
+   *     the current thread, which costs a few instructions without contention or allocation
+   */
+  private ForwardingStatements timed(
+      final ForwardedMethod forwardedMethod, final ForwardingStatements statements) {
+    final var startNanos = InterceptorGenerator.localName("startNanos", forwardedMethod);
+    final var record =
+        CodeBlock.of(
+            "$N.record($L, $T.nanoTime() - $N)",
+            METRICS_FIELD_NAME,
+            forwardedMethod.id(),
+            System.class,
+            startNanos);
+    if (options.sampleRate() == 1) {
+      return resultVariable ->
+          CodeBlock.builder()
+              .addStatement("final long $N = $T.nanoTime()", startNanos, System.class)
+              .beginControlFlow("try")
+              .add(statements.emit(resultVariable))
+              .nextControlFlow("finally")
+              .addStatement(record)
+              .endControlFlow()
+              .build();
+    }
+    final var sampled = InterceptorGenerator.localName("sampled", forwardedMethod);
+    return resultVariable ->
+        CodeBlock.builder()
+            .addStatement(
+                "final boolean $N = $T.current().nextInt($L) == 0",
+                sampled,
+                ThreadLocalRandom.class,
+                options.sampleRate())
+            .addStatement(
+                "final long $N = $N ? $T.nanoTime() : 0L", startNanos, sampled, System.class)
+            .beginControlFlow("try")
+            .add(statements.emit(resultVariable))
+            .nextControlFlow("finally")
+            .beginControlFlow("if ($N)", sampled)
+            .addStatement(record)
+            .endControlFlow()
+            .endControlFlow()
+            .build();
+  }
+
+  /**
+   * @return {@link ForwardingStatements} that invoke the before hook of the interceptor, then the
+   *     provided statements, and then the after hook of the interceptor if they complete normally
+   */
+  private ForwardingStatements intercepted(
+      final ForwardedMethod forwardedMethod, final ForwardingStatements statements) {
+    final var result = InterceptorGenerator.localName("result", forwardedMethod);
+    return resultVariable -> {
+      final var code =
+          CodeBlock.builder()
+              .addStatement(
+                  interceptorGenerator.invokeBefore(INTERCEPTOR_FIELD_NAME, forwardedMethod));
+      if (forwardedMethod.isVoid()) {
+        code.add(statements.emit(null))
+            .addStatement(
+                interceptorGenerator.invokeAfter(INTERCEPTOR_FIELD_NAME, forwardedMethod, null));
+        return code.build();
+      }
+      code.addStatement("final $T $N", forwardedMethod.returnType(), result)
+          .add(statements.emit(result))
+          .addStatement(
+              interceptorGenerator.invokeAfter(INTERCEPTOR_FIELD_NAME, forwardedMethod, result));
+      if (resultVariable == null) {
+        code.addStatement("return $N", result);
+      } else {
+        code.addStatement("$N = $N", resultVariable, result);
+      }
+      return code.build();
+    };
+  }
+
+  /**
+   * Emits the statements of a forwarding method, so that features such as instrumentation and
+   * interception can wrap each other without knowing about each other
+   */
+  @FunctionalInterface
+  private interface ForwardingStatements {
+
+    /**
+     * @param resultVariable the name of an already declared local variable that the result of the
+     *     API should be assigned to, or null if the result should be returned. Ignored if the API
+     *     returns {@code void}
+     * @return the statements
+     */
+    CodeBlock emit(String resultVariable);
   }
 }
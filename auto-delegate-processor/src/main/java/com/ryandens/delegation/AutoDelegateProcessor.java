@@ -10,6 +10,7 @@ import java.io.UncheckedIOException;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -33,16 +34,46 @@ import javax.lang.model.util.Types;
 /**
  * Annotation processor that generates abstract classes that delegate to an inner composed
  * implementation of an interface.
+ *
+ * <p>This processor is registered with Gradle as an isolating incremental annotation processor.
+ * Each generated file is derived only from its annotated class and the types reachable from it, and
+ * has that annotated class as its only originating element, so that Gradle only reprocesses
+ * annotated classes that changed or depend on a changed type.
  */
 @AutoService(Processor.class)
 public final class AutoDelegateProcessor extends AbstractProcessor {
 
+  /**
+   * Processor option that enables ({@code on}, the default) or disables ({@code off}) generated
+   * instrumentation, e.g. {@code -Aautodelegate.instrumentation=off}. When disabled, forwarding
+   * methods of classes that request instrumentation via {@link AutoDelegate#instrument()} or {@link
+   * AutoDelegate#jfr()} are generated exactly as if it were not requested, so production builds can
+   * strip the instrumentation while other builds keep it.
+   */
+  static final String INSTRUMENTATION_OPTION = "autodelegate.instrumentation";
+
+  /**
+   * Processor option that enables ({@code on}) or disables ({@code off}, the default) writing
+   * generated classes directly as class files, e.g. {@code -Aautodelegate.bytecode=on}. When
+   * enabled, javac doesn't need to parse, attribute and compile the generated classes in a later
+   * round, which saves a compilation pass in modules with many annotated classes. Classes that use
+   * a feature that doesn't support class files, as declared by {@link DelegationOptions.Feature},
+   * are still generated as source.
+   */
+  static final String BYTECODE_OPTION = "autodelegate.bytecode";
+
   private Filer filer;
   private Elements elementUtils;
   private Types typeUtils;
+  private SourceVersion sourceVersion;
+  private boolean instrumentationEnabled;
+  private boolean bytecodeEnabled;
 
   @Override
   public synchronized void init(final ProcessingEnvironment processingEnv) {
+    sourceVersion = processingEnv.getSourceVersion();
+    instrumentationEnabled = onOffOption(processingEnv.getOptions(), INSTRUMENTATION_OPTION, true);
+    bytecodeEnabled = onOffOption(processingEnv.getOptions(), BYTECODE_OPTION, false);
     filer = processingEnv.getFiler();
     typeUtils = processingEnv.getTypeUtils();
     elementUtils = processingEnv.getElementUtils();
@@ -53,6 +84,9 @@ public final class AutoDelegateProcessor extends AbstractProcessor {
       final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
     final Set<? extends Element> autoDelegateElements =
         roundEnv.getElementsAnnotatedWith(AutoDelegate.class);
+    // many annotated classes may delegate to the same interfaces, so resolve their members at most
+    // once per round
+    final var memberResolutionCache = new MemberResolutionCache(elementUtils, typeUtils);
     //
     for (final Element element : autoDelegateElements) {
       // First, get an AnnotationMirror off the element annotated with AutoDelegate. This can be
@@ -133,21 +167,40 @@ public final class AutoDelegateProcessor extends AbstractProcessor {
       mutableDelegationTargetDescriptors =
           null; // dereference to prevent accidental mutation or usage
 
+      // From the AnnotationMirror, get the options that change how the class is generated and
+      // validate that both the source version and the annotated class support sealing if requested
+      final var options = DelegationOptions.of(annotationMirror, instrumentationEnabled);
+      if (options.sealed()) {
+        validateSealable(element);
+      }
+      if (options.sampleRate() < 1) {
+        throw new IllegalArgumentException(
+            "The sample rate of " + element + " must be positive, but was " + options.sampleRate());
+      }
+      options.validateCombination(element);
+
       // Get the package of the element annotated with AutoDelegate, as the
       final var destinationPackageName =
           MoreElements.getPackage(element).getQualifiedName().toString();
       final var className = "AutoDelegate_" + element.getSimpleName();
-      final var javaFile =
+      final var generator =
           new AutoDelegateGenerator(
-                  elementUtils,
-                  typeUtils,
-                  destinationPackageName,
-                  className,
-                  delegationTargetDescriptors)
-              .autoDelegate();
+              elementUtils,
+              typeUtils,
+              destinationPackageName,
+              className,
+              delegationTargetDescriptors,
+              (TypeElement) element,
+              options,
+              memberResolutionCache);
       try {
-        // Write the JavaFile to the local environment
-        javaFile.writeTo(filer);
+        // Write the generated class to the local environment, as a class file if requested and
+        // supported by the class
+        if (bytecodeEnabled && generator.supportsClassFile()) {
+          generator.writeClassFileTo(filer, sourceVersion);
+        } else {
+          generator.writeTo(filer);
+        }
       } catch (IOException e) {
         throw new UncheckedIOException(
             "Problem writing " + destinationPackageName + "." + className + " class to file", e);
@@ -168,6 +221,60 @@ public final class AutoDelegateProcessor extends AbstractProcessor {
     return Set.of(AutoDelegate.class.getCanonicalName());
   }
 
+  @Override
+  public Set<String> getSupportedOptions() {
+    return Set.of(INSTRUMENTATION_OPTION, BYTECODE_OPTION);
+  }
+
+  /**
+   * @return true if the processor option with the provided name is {@code on}, false if it is
+   *     {@code off}, or the provided default value if it is not specified
+   * @throws IllegalArgumentException if the processor option has any other value
+   */
+  private static boolean onOffOption(
+      final Map<String, String> options, final String name, final boolean defaultValue) {
+    final var value = options.get(name);
+    if (value == null) {
+      return defaultValue;
+    } else if (value.equals("on")) {
+      return true;
+    } else if (value.equals("off")) {
+      return false;
+    } else {
+      throw new IllegalArgumentException(
+          "Processor option " + name + " must be either on or off, but was " + value);
+    }
+  }
+
+  /**
+   * Validates that a sealed class can be generated for the provided {@link Element} annotated with
+   * {@link AutoDelegate}. Sealed classes require source version 17 and require the permitted
+   * subclass to be declared final, sealed, or non-sealed.
+   */
+  private void validateSealable(final Element element) {
+    // SourceVersion constants are declared in release order, so RELEASE_17 has the ordinal 17.
+    // RELEASE_17 itself can't be referenced as this processor targets Java 11
+    if (sourceVersion.ordinal() < 17) {
+      throw new IllegalArgumentException(
+          "AutoDelegate#sealed requires source version 17 or above, but was " + sourceVersion);
+    }
+    // Modifier.SEALED and Modifier.NON_SEALED can't be referenced for the same reason
+    final var sealable =
+        element.getModifiers().stream()
+            .map(Enum::name)
+            .anyMatch(
+                modifier ->
+                    modifier.equals("FINAL")
+                        || modifier.equals("SEALED")
+                        || modifier.equals("NON_SEALED"));
+    if (!sealable) {
+      throw new IllegalArgumentException(
+          "AutoDelegate#sealed requires "
+              + element
+              + " to be declared final, sealed, or non-sealed");
+    }
+  }
+
   /** Returns the contents of {@link AutoDelegate#value()} as an {@link Element} */
   private Element getInterfaceToDelegateAsElement(AnnotationMirror annotationMirror) {
     return getAnnotationValue(annotationMirror, "value")
@@ -0,0 +1,582 @@
+package com.ryandens.delegation;
+
+import com.google.auto.common.MoreTypes;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.IntersectionType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+/**
+ * Uses ASM to create the class file of a class that forwards to inner composed instances, with the
+ * same members as the source created by {@link AutoDelegateGenerator}, so that the class doesn't
+ * need to be parsed, attributed and compiled by javac in a later round. Generic signatures are
+ * written for every member so that the annotated class compiles against the class file exactly as
+ * it would against the source, and bridge methods are written where javac would have generated
+ * them.
+ *
+ * <p>Not thread-safe
+ */
+final class ClassFileGenerator {
+
+  private static final String OBJECT = "java/lang/Object";
+
+  private final Elements elementUtils;
+  private final Types typeUtils;
+  private final String internalName;
+  private final List<DelegationTargetDescriptor> delegationTargetDescriptorList;
+  private final TypeElement annotatedElement;
+  private final DelegationOptions options;
+  private final List<ForwardedMethod> forwardedMethods;
+  private final Predicate<ForwardedMethod> isFinal;
+  private final Map<String, TypeElement> nestedTypes;
+
+  /**
+   * @param internalName of the generated class, e.g. {@code com/example/AutoDelegate_Foo}
+   * @param delegationTargetDescriptorList a {@link List} of {@link DelegationTargetDescriptor}s
+   *     that this class should delegate to
+   * @param annotatedElement the {@link TypeElement} annotated with {@link AutoDelegate} that
+   *     extends the generated class
+   * @param options the {@link DelegationOptions} that change how the class is generated
+   * @param forwardedMethods the {@link ForwardedMethod}s of the generated class, in the order they
+   *     should be written
+   * @param isFinal whether the forwarding method for a {@link ForwardedMethod} should be {@code
+   *     final}
+   */
+  ClassFileGenerator(
+      final Elements elementUtils,
+      final Types typeUtils,
+      final String internalName,
+      final List<DelegationTargetDescriptor> delegationTargetDescriptorList,
+      final TypeElement annotatedElement,
+      final DelegationOptions options,
+      final List<ForwardedMethod> forwardedMethods,
+      final Predicate<ForwardedMethod> isFinal) {
+    this.elementUtils = Objects.requireNonNull(elementUtils);
+    this.typeUtils = Objects.requireNonNull(typeUtils);
+    this.internalName = Objects.requireNonNull(internalName);
+    this.delegationTargetDescriptorList = Objects.requireNonNull(delegationTargetDescriptorList);
+    this.annotatedElement = Objects.requireNonNull(annotatedElement);
+    this.options = Objects.requireNonNull(options);
+    this.forwardedMethods = Objects.requireNonNull(forwardedMethods);
+    this.isFinal = Objects.requireNonNull(isFinal);
+    this.nestedTypes = new LinkedHashMap<>();
+  }
+
+  /**
+   * @param sourceVersion of the compilation, which determines the version of the class file
+   * @return the contents of the class file
+   */
+  byte[] classFile(final SourceVersion sourceVersion) {
+    nestedTypes.clear();
+    // the class file version of each release is 44 higher than the release. No stack map frames
+    // are computed as the generated methods have no branches, which is also why this can't load
+    // classes to find common super classes
+    final var version = 44 + Math.max(sourceVersion.ordinal(), 8);
+    final var classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+    final var typeParameters =
+        delegationTargetDescriptorList.stream()
+            .flatMap(
+                descriptor ->
+                    MoreTypes.asTypeElement(descriptor.declaredType()).getTypeParameters().stream())
+            .map(typeParameter -> (TypeVariable) typeParameter.asType())
+            .collect(Collectors.toList());
+    final var classSignature = new StringBuilder(typeParametersSignature(typeParameters));
+    final var erasedClassSignature = new StringBuilder("L" + OBJECT + ";");
+    classSignature.append(erasedClassSignature);
+    final var interfaces = new ArrayList<String>();
+    for (DelegationTargetDescriptor descriptor : delegationTargetDescriptorList) {
+      interfaces.add(internalName(MoreTypes.asTypeElement(descriptor.declaredType())));
+      classSignature.append(signature(descriptor.declaredType()));
+      erasedClassSignature.append(descriptor(descriptor.declaredType()));
+    }
+    classWriter.visit(
+        version,
+        Opcodes.ACC_SUPER | Opcodes.ACC_ABSTRACT,
+        internalName,
+        signatureIfGeneric(classSignature, erasedClassSignature),
+        OBJECT,
+        interfaces.toArray(new String[0]));
+    if (options.sealed()) {
+      classWriter.visitPermittedSubclass(internalName(annotatedElement));
+    }
+
+    for (DelegationTargetDescriptor descriptor : delegationTargetDescriptorList) {
+      classWriter
+          .visitField(
+              Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL,
+              descriptor.fieldName(),
+              descriptor(descriptor.declaredType()),
+              signatureIfGeneric(
+                  signature(descriptor.declaredType()), descriptor(descriptor.declaredType())),
+              null)
+          .visitEnd();
+    }
+    writeConstructor(classWriter);
+    if (options.skipOverridden()) {
+      for (DelegationTargetDescriptor descriptor : delegationTargetDescriptorList) {
+        writeAccessor(classWriter, descriptor);
+      }
+    }
+
+    // a method with the same name and descriptor may only be written once, so bridges are only
+    // written for descriptors that aren't taken by a forwarding method
+    final var writtenMethods = new HashSet<String>();
+    final var forwardingMethodDescriptors = new LinkedHashMap<ForwardedMethod, String>();
+    for (ForwardedMethod forwardedMethod : forwardedMethods) {
+      final var descriptor = writeForwardingMethod(classWriter, forwardedMethod);
+      forwardingMethodDescriptors.put(forwardedMethod, descriptor);
+      writtenMethods.add(forwardedMethod.name() + descriptor);
+    }
+    for (Map.Entry<ForwardedMethod, String> entry : forwardingMethodDescriptors.entrySet()) {
+      for (String bridgeDescriptor : bridgeDescriptors(entry.getKey())) {
+        if (writtenMethods.add(entry.getKey().name() + bridgeDescriptor)) {
+          writeBridge(classWriter, entry.getKey().name(), bridgeDescriptor, entry.getValue());
+        }
+      }
+    }
+
+    // every nested class referenced by the class file must be described by an inner class entry
+    for (Map.Entry<String, TypeElement> entry : nestedTypes.entrySet()) {
+      final var nestedType = entry.getValue();
+      classWriter.visitInnerClass(
+          entry.getKey(),
+          internalName((TypeElement) nestedType.getEnclosingElement()),
+          nestedType.getSimpleName().toString(),
+          innerClassAccess(nestedType));
+    }
+    classWriter.visitEnd();
+    return classWriter.toByteArray();
+  }
+
+  /**
+   * Writes a constructor that takes an instance of each delegation target and assigns it to the
+   * field of the same name
+   */
+  private void writeConstructor(final ClassWriter classWriter) {
+    final var descriptor = new StringBuilder("(");
+    final var signature = new StringBuilder("(");
+    for (DelegationTargetDescriptor delegationTargetDescriptor : delegationTargetDescriptorList) {
+      descriptor.append(descriptor(delegationTargetDescriptor.declaredType()));
+      signature.append(signature(delegationTargetDescriptor.declaredType()));
+    }
+    descriptor.append(")V");
+    signature.append(")V");
+    final var constructor =
+        classWriter.visitMethod(
+            0, "<init>", descriptor.toString(), signatureIfGeneric(signature, descriptor), null);
+    delegationTargetDescriptorList.forEach(
+        delegationTargetDescriptor ->
+            constructor.visitParameter(delegationTargetDescriptor.fieldName(), Opcodes.ACC_FINAL));
+    constructor.visitCode();
+    constructor.visitVarInsn(Opcodes.ALOAD, 0);
+    constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, OBJECT, "<init>", "()V", false);
+    var slot = 1;
+    for (DelegationTargetDescriptor delegationTargetDescriptor : delegationTargetDescriptorList) {
+      constructor.visitVarInsn(Opcodes.ALOAD, 0);
+      constructor.visitVarInsn(Opcodes.ALOAD, slot++);
+      constructor.visitFieldInsn(
+          Opcodes.PUTFIELD,
+          internalName,
+          delegationTargetDescriptor.fieldName(),
+          descriptor(delegationTargetDescriptor.declaredType()));
+    }
+    constructor.visitInsn(Opcodes.RETURN);
+    constructor.visitMaxs(0, 0);
+    constructor.visitEnd();
+  }
+
+  /** Writes a {@code protected} accessor for the inner composed instance of the descriptor */
+  private void writeAccessor(
+      final ClassWriter classWriter, final DelegationTargetDescriptor descriptor) {
+    final var fieldDescriptor = descriptor(descriptor.declaredType());
+    final var accessor =
+        classWriter.visitMethod(
+            Opcodes.ACC_PROTECTED | Opcodes.ACC_FINAL,
+            descriptor.fieldName(),
+            "()" + fieldDescriptor,
+            signatureIfGeneric("()" + signature(descriptor.declaredType()), "()" + fieldDescriptor),
+            null);
+    accessor.visitCode();
+    accessor.visitVarInsn(Opcodes.ALOAD, 0);
+    accessor.visitFieldInsn(
+        Opcodes.GETFIELD, internalName, descriptor.fieldName(), fieldDescriptor);
+    accessor.visitInsn(Opcodes.ARETURN);
+    accessor.visitMaxs(0, 0);
+    accessor.visitEnd();
+  }
+
+  /**
+   * Writes a method that forwards to the API of the inner composed instance, with the parameter and
+   * return types of the API resolved against the delegation target
+   *
+   * @return the descriptor of the written method
+   */
+  private String writeForwardingMethod(
+      final ClassWriter classWriter, final ForwardedMethod forwardedMethod) {
+    final var executableElement = forwardedMethod.executableElement();
+    final var declaredType = forwardedMethod.descriptor().declaredType();
+    final var memberType = (ExecutableType) typeUtils.asMemberOf(declaredType, executableElement);
+    final var descriptor = methodDescriptor(memberType);
+    // the inner composed instance is invoked with the descriptor of the API as it is declared
+    final var invokedDescriptor = methodDescriptor((ExecutableType) executableElement.asType());
+
+    final var signature = new StringBuilder(typeParametersSignature(memberType.getTypeVariables()));
+    signature.append('(');
+    memberType
+        .getParameterTypes()
+        .forEach(parameterType -> signature.append(signature(parameterType)));
+    signature.append(')').append(signature(memberType.getReturnType()));
+    if (memberType.getThrownTypes().stream()
+        .anyMatch(thrownType -> thrownType.getKind() == TypeKind.TYPEVAR)) {
+      memberType
+          .getThrownTypes()
+          .forEach(thrownType -> signature.append('^').append(signature(thrownType)));
+    }
+    final var exceptions =
+        memberType.getThrownTypes().stream()
+            .map(thrownType -> internalName(MoreTypes.asTypeElement(typeUtils.erasure(thrownType))))
+            .toArray(String[]::new);
+
+    var access = Opcodes.ACC_PUBLIC;
+    if (executableElement.isVarArgs()) {
+      access |= Opcodes.ACC_VARARGS;
+    }
+    if (isFinal.test(forwardedMethod)) {
+      access |= Opcodes.ACC_FINAL;
+    }
+    final var method =
+        classWriter.visitMethod(
+            access,
+            forwardedMethod.name(),
+            descriptor,
+            signatureIfGeneric(signature, descriptor),
+            exceptions.length == 0 ? null : exceptions);
+    forwardedMethod
+        .parameters()
+        .forEach(parameter -> method.visitParameter(parameter.name, Opcodes.ACC_FINAL));
+    method.visitCode();
+    method.visitVarInsn(Opcodes.ALOAD, 0);
+    method.visitFieldInsn(
+        Opcodes.GETFIELD,
+        internalName,
+        forwardedMethod.descriptor().fieldName(),
+        descriptor(declaredType));
+    loadArguments(method, Type.getArgumentTypes(descriptor), Type.getArgumentTypes(descriptor));
+    method.visitMethodInsn(
+        Opcodes.INVOKEINTERFACE,
+        internalName(MoreTypes.asTypeElement(declaredType)),
+        forwardedMethod.name(),
+        invokedDescriptor,
+        true);
+    final var returnType = Type.getReturnType(descriptor);
+    if (!returnType.equals(Type.getReturnType(invokedDescriptor))) {
+      method.visitTypeInsn(Opcodes.CHECKCAST, returnType.getInternalName());
+    }
+    method.visitInsn(returnType.getOpcode(Opcodes.IRETURN));
+    method.visitMaxs(0, 0);
+    method.visitEnd();
+    return descriptor;
+  }
+
+  /**
+   * Writes a bridge method with the provided descriptor that casts its arguments and invokes the
+   * forwarding method with the provided descriptor, so that callers of an API whose erasure differs
+   * from the erasure of the forwarding method reach the forwarding method, or the method of the
+   * annotated class that overrides it
+   */
+  private void writeBridge(
+      final ClassWriter classWriter,
+      final String name,
+      final String bridgeDescriptor,
+      final String forwardingMethodDescriptor) {
+    final var bridge =
+        classWriter.visitMethod(
+            Opcodes.ACC_PUBLIC | Opcodes.ACC_SYNTHETIC | Opcodes.ACC_BRIDGE,
+            name,
+            bridgeDescriptor,
+            null,
+            null);
+    bridge.visitCode();
+    bridge.visitVarInsn(Opcodes.ALOAD, 0);
+    loadArguments(
+        bridge,
+        Type.getArgumentTypes(bridgeDescriptor),
+        Type.getArgumentTypes(forwardingMethodDescriptor));
+    bridge.visitMethodInsn(
+        Opcodes.INVOKEVIRTUAL, internalName, name, forwardingMethodDescriptor, false);
+    bridge.visitInsn(Type.getReturnType(bridgeDescriptor).getOpcode(Opcodes.IRETURN));
+    bridge.visitMaxs(0, 0);
+    bridge.visitEnd();
+  }
+
+  /**
+   * Loads the arguments of the method being written onto the stack, casting each argument whose
+   * type differs from the type expected by the method that is invoked with them
+   */
+  private static void loadArguments(
+      final MethodVisitor method, final Type[] argumentTypes, final Type[] expectedTypes) {
+    var slot = 1;
+    for (int i = 0; i < argumentTypes.length; i++) {
+      method.visitVarInsn(argumentTypes[i].getOpcode(Opcodes.ILOAD), slot);
+      if (!argumentTypes[i].equals(expectedTypes[i])) {
+        method.visitTypeInsn(Opcodes.CHECKCAST, expectedTypes[i].getInternalName());
+      }
+      slot += argumentTypes[i].getSize();
+    }
+  }
+
+  /**
+   * @return the descriptors, ordered for reproducibility, of the API of the provided {@link
+   *     ForwardedMethod} as it is declared and of every API it overrides in the superinterfaces of
+   *     the delegation target. javac generates a bridge method for each of them that differs from
+   *     the descriptor of the forwarding method
+   */
+  private Set<String> bridgeDescriptors(final ForwardedMethod forwardedMethod) {
+    final var executableElement = forwardedMethod.executableElement();
+    final var delegationTarget =
+        MoreTypes.asTypeElement(forwardedMethod.descriptor().declaredType());
+    final var bridgeDescriptors = new TreeSet<String>();
+    bridgeDescriptors.add(methodDescriptor((ExecutableType) executableElement.asType()));
+    final var visited = new HashSet<TypeElement>();
+    final var toVisit = new ArrayList<TypeElement>();
+    toVisit.add(delegationTarget);
+    while (!toVisit.isEmpty()) {
+      final var type = toVisit.remove(toVisit.size() - 1);
+      if (!visited.add(type)) {
+        continue;
+      }
+      for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+        if (method.getSimpleName().equals(executableElement.getSimpleName())
+            && elementUtils.overrides(executableElement, method, delegationTarget)) {
+          bridgeDescriptors.add(methodDescriptor((ExecutableType) method.asType()));
+        }
+      }
+      type.getInterfaces()
+          .forEach(superinterface -> toVisit.add(MoreTypes.asTypeElement(superinterface)));
+    }
+    return bridgeDescriptors;
+  }
+
+  /**
+   * @return the provided signature, or null if it is identical to the provided descriptor and
+   *     therefore adds no generic type information
+   */
+  private static String signatureIfGeneric(
+      final CharSequence signature, final CharSequence descriptor) {
+    return signature.toString().contentEquals(descriptor) ? null : signature.toString();
+  }
+
+  /**
+   * @return the erased descriptor of the provided {@link ExecutableType}
+   */
+  private String methodDescriptor(final ExecutableType executableType) {
+    return executableType.getParameterTypes().stream()
+            .map(this::descriptor)
+            .collect(Collectors.joining("", "(", ")"))
+        + descriptor(executableType.getReturnType());
+  }
+
+  /**
+   * @return the descriptor of the erasure of the provided {@link TypeMirror}, e.g. {@code
+   *     Ljava/util/List;} for {@code java.util.List<E>}
+   */
+  private String descriptor(final TypeMirror type) {
+    final var erasure = typeUtils.erasure(type);
+    switch (erasure.getKind()) {
+      case ARRAY:
+        return "[" + descriptor(((ArrayType) erasure).getComponentType());
+      case DECLARED:
+        return "L" + internalName(MoreTypes.asTypeElement(erasure)) + ";";
+      default:
+        return primitiveDescriptor(erasure);
+    }
+  }
+
+  /**
+   * @return the generic signature of the provided {@link TypeMirror}, e.g. {@code
+   *     Ljava/util/List<TE;>;} for {@code java.util.List<E>}
+   */
+  private String signature(final TypeMirror type) {
+    switch (type.getKind()) {
+      case ARRAY:
+        return "[" + signature(((ArrayType) type).getComponentType());
+      case DECLARED:
+        return classTypeSignature(MoreTypes.asDeclared(type)) + ";";
+      case TYPEVAR:
+        return "T" + ((TypeVariable) type).asElement().getSimpleName() + ";";
+      default:
+        return primitiveDescriptor(type);
+    }
+  }
+
+  /**
+   * @return the signature of the provided {@link DeclaredType} without the terminating {@code ;},
+   *     qualified by its enclosing type if that is a parameterized type
+   */
+  private String classTypeSignature(final DeclaredType declaredType) {
+    final var enclosingType = declaredType.getEnclosingType();
+    final var signature = new StringBuilder();
+    if (enclosingType.getKind() == TypeKind.DECLARED
+        && !MoreTypes.asDeclared(enclosingType).getTypeArguments().isEmpty()) {
+      signature
+          .append(classTypeSignature(MoreTypes.asDeclared(enclosingType)))
+          .append('.')
+          .append(declaredType.asElement().getSimpleName());
+      // the enclosing type is recorded by the call above, but this type must also be recorded
+      internalName(MoreTypes.asTypeElement(declaredType));
+    } else {
+      signature.append('L').append(internalName(MoreTypes.asTypeElement(declaredType)));
+    }
+    if (!declaredType.getTypeArguments().isEmpty()) {
+      signature.append('<');
+      for (TypeMirror typeArgument : declaredType.getTypeArguments()) {
+        if (typeArgument.getKind() != TypeKind.WILDCARD) {
+          signature.append(signature(typeArgument));
+          continue;
+        }
+        final var wildcardType = (WildcardType) typeArgument;
+        if (wildcardType.getExtendsBound() != null) {
+          signature.append('+').append(signature(wildcardType.getExtendsBound()));
+        } else if (wildcardType.getSuperBound() != null) {
+          signature.append('-').append(signature(wildcardType.getSuperBound()));
+        } else {
+          signature.append('*');
+        }
+      }
+      signature.append('>');
+    }
+    return signature.toString();
+  }
+
+  /**
+   * @return the signature declaring the provided type parameters and their bounds, or an empty
+   *     string if there are none
+   */
+  private String typeParametersSignature(final List<? extends TypeVariable> typeVariables) {
+    if (typeVariables.isEmpty()) {
+      return "";
+    }
+    final var signature = new StringBuilder("<");
+    for (TypeVariable typeVariable : typeVariables) {
+      signature.append(typeVariable.asElement().getSimpleName());
+      final var upperBound = typeVariable.getUpperBound();
+      final List<? extends TypeMirror> bounds =
+          upperBound.getKind() == TypeKind.INTERSECTION
+              ? ((IntersectionType) upperBound).getBounds()
+              : List.of(upperBound);
+      for (int i = 0; i < bounds.size(); i++) {
+        final var bound = bounds.get(i);
+        // the class bound is left empty when the first bound is an interface
+        if (i == 0
+            && bound.getKind() == TypeKind.DECLARED
+            && MoreTypes.asDeclared(bound).asElement().getKind().isInterface()) {
+          signature.append(':');
+        }
+        signature.append(':').append(signature(bound));
+      }
+    }
+    return signature.append('>').toString();
+  }
+
+  /**
+   * @return the internal name of the provided {@link TypeElement}, e.g. {@code java/util/Map$Entry}
+   *     for {@code java.util.Map.Entry}, recording it and its enclosing types if it is nested
+   */
+  private String internalName(final TypeElement typeElement) {
+    final var internalName = elementUtils.getBinaryName(typeElement).toString().replace('.', '/');
+    if (typeElement.getNestingKind() == NestingKind.MEMBER
+        && !nestedTypes.containsKey(internalName)) {
+      // record the enclosing types first, so that outer classes precede their inner classes
+      internalName((TypeElement) typeElement.getEnclosingElement());
+      nestedTypes.put(internalName, typeElement);
+    }
+    return internalName;
+  }
+
+  /**
+   * @return the access flags of the provided nested {@link TypeElement} as recorded in an inner
+   *     class entry
+   */
+  private static int innerClassAccess(final TypeElement nestedType) {
+    var access = 0;
+    final var modifiers = nestedType.getModifiers();
+    if (modifiers.contains(Modifier.PUBLIC)) {
+      access |= Opcodes.ACC_PUBLIC;
+    } else if (modifiers.contains(Modifier.PROTECTED)) {
+      access |= Opcodes.ACC_PROTECTED;
+    } else if (modifiers.contains(Modifier.PRIVATE)) {
+      access |= Opcodes.ACC_PRIVATE;
+    }
+    if (modifiers.contains(Modifier.STATIC)) {
+      access |= Opcodes.ACC_STATIC;
+    }
+    if (modifiers.contains(Modifier.FINAL)) {
+      access |= Opcodes.ACC_FINAL;
+    }
+    if (modifiers.contains(Modifier.ABSTRACT)) {
+      access |= Opcodes.ACC_ABSTRACT;
+    }
+    switch (nestedType.getKind()) {
+      case ANNOTATION_TYPE:
+        return access | Opcodes.ACC_ANNOTATION | Opcodes.ACC_INTERFACE | Opcodes.ACC_STATIC;
+      case INTERFACE:
+        return access | Opcodes.ACC_INTERFACE | Opcodes.ACC_ABSTRACT | Opcodes.ACC_STATIC;
+      case ENUM:
+        return access | Opcodes.ACC_ENUM | Opcodes.ACC_STATIC;
+      default:
+        return access;
+    }
+  }
+
+  private static String primitiveDescriptor(final TypeMirror type) {
+    switch (type.getKind()) {
+      case BOOLEAN:
+        return "Z";
+      case BYTE:
+        return "B";
+      case CHAR:
+        return "C";
+      case SHORT:
+        return "S";
+      case INT:
+        return "I";
+      case LONG:
+        return "J";
+      case FLOAT:
+        return "F";
+      case DOUBLE:
+        return "D";
+      case VOID:
+        return "V";
+      default:
+        throw new IllegalArgumentException(
+            "Unsupported type " + type + " of kind " + type.getKind());
+    }
+  }
+}
@@ -0,0 +1,562 @@
+package com.ryandens.delegation;
+
+import static com.google.auto.common.AnnotationMirrors.getAnnotationValue;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+
+/**
+ * Immutable value class encapsulating the options specified on an {@link AutoDelegate} annotation,
+ * combined with the options passed to the {@link AutoDelegateProcessor}, that change how the
+ * delegating class is generated
+ */
+final class DelegationOptions {
+
+  /**
+   * The options that constrain which other options they may be combined with, or whether the
+   * generated class can be written as a class file. Each option may require one option, and exclude
+   * any options declared before it, so that every excluded pair is declared exactly once. Options
+   * that are absent may be combined with any other option, and support class files
+   */
+  enum Feature {
+    INSTRUMENT("instrument", DelegationOptions::instrument, false, null),
+    SAMPLED("sampleRate", options -> options.sampleRate() != 1, true, INSTRUMENT),
+    INTERCEPT("intercept", DelegationOptions::intercept, false, null),
+    JFR("jfr", DelegationOptions::jfr, false, null),
+    LAZY("lazy", DelegationOptions::lazy, false, null),
+    SWAPPABLE("swappable", DelegationOptions::swappable, false, null, LAZY),
+    PLAIN_READS("plainReads", DelegationOptions::plainReads, true, SWAPPABLE),
+    SHARDED("sharded", DelegationOptions::sharded, false, null, LAZY, SWAPPABLE),
+    KEYED_APIS("keyedApis", options -> !options.keyedApis().isEmpty(), true, SHARDED),
+    LOCKED("locked", DelegationOptions::locked, false, null, SHARDED),
+    OPTIMISTIC_READS("optimisticReads", DelegationOptions::optimisticReads, true, LOCKED),
+    COPY_ON_WRITE(
+        "copyOnWrite",
+        DelegationOptions::copyOnWrite,
+        false,
+        null,
+        LAZY,
+        SWAPPABLE,
+        SHARDED,
+        LOCKED),
+    PER_THREAD(
+        "perThread",
+        DelegationOptions::perThread,
+        false,
+        null,
+        LAZY,
+        SWAPPABLE,
+        SHARDED,
+        LOCKED,
+        COPY_ON_WRITE),
+    POOLED(
+        "pooled",
+        DelegationOptions::pooled,
+        false,
+        null,
+        LAZY,
+        SWAPPABLE,
+        SHARDED,
+        LOCKED,
+        COPY_ON_WRITE,
+        PER_THREAD),
+    BROADCAST(
+        "broadcast",
+        DelegationOptions::broadcast,
+        false,
+        null,
+        LAZY,
+        SWAPPABLE,
+        SHARDED,
+        COPY_ON_WRITE,
+        PER_THREAD,
+        POOLED),
+    PARALLEL_BROADCAST("parallelBroadcast", DelegationOptions::parallelBroadcast, true, BROADCAST),
+    BALANCED(
+        "balanced",
+        DelegationOptions::balanced,
+        false,
+        null,
+        LAZY,
+        SWAPPABLE,
+        SHARDED,
+        LOCKED,
+        COPY_ON_WRITE,
+        PER_THREAD,
+        POOLED,
+        BROADCAST),
+    LIMITED("limited", DelegationOptions::limited, false, null),
+    HEDGED(
+        "hedged",
+        DelegationOptions::hedged,
+        false,
+        null,
+        LAZY,
+        SWAPPABLE,
+        SHARDED,
+        LOCKED,
+        COPY_ON_WRITE,
+        PER_THREAD,
+        POOLED,
+        BROADCAST,
+        BALANCED);
+
+    private final String attribute;
+    private final Predicate<DelegationOptions> enabled;
+    private final boolean supportsClassFile;
+    private final Feature required;
+    private final List<Feature> excluded;
+
+    Feature(
+        final String attribute,
+        final Predicate<DelegationOptions> enabled,
+        final boolean supportsClassFile,
+        final Feature required,
+        final Feature... excluded) {
+      this.attribute = attribute;
+      this.enabled = enabled;
+      this.supportsClassFile = supportsClassFile;
+      this.required = required;
+      this.excluded = List.of(excluded);
+    }
+  }
+
+  private final boolean sealed;
+  private final boolean skipOverridden;
+  private final boolean instrument;
+  private final int sampleRate;
+  private final boolean intercept;
+  private final boolean jfr;
+  private final boolean lazy;
+  private final boolean swappable;
+  private final boolean plainReads;
+  private final boolean sharded;
+  private final Set<String> keyedApis;
+  private final boolean locked;
+  private final boolean optimisticReads;
+  private final boolean copyOnWrite;
+  private final boolean perThread;
+  private final boolean pooled;
+  private final boolean async;
+  private final boolean broadcast;
+  private final boolean parallelBroadcast;
+  private final boolean balanced;
+  private final boolean limited;
+  private final boolean hedged;
+  private final boolean instrumentationEnabled;
+
+  DelegationOptions(
+      final boolean sealed,
+      final boolean skipOverridden,
+      final boolean instrument,
+      final int sampleRate,
+      final boolean intercept,
+      final boolean jfr,
+      final boolean lazy,
+      final boolean swappable,
+      final boolean plainReads,
+      final boolean sharded,
+      final Set<String> keyedApis,
+      final boolean locked,
+      final boolean optimisticReads,
+      final boolean copyOnWrite,
+      final boolean perThread,
+      final boolean pooled,
+      final boolean async,
+      final boolean broadcast,
+      final boolean parallelBroadcast,
+      final boolean balanced,
+      final boolean limited,
+      final boolean hedged,
+      final boolean instrumentationEnabled) {
+    this.sealed = sealed;
+    this.skipOverridden = skipOverridden;
+    this.instrument = instrument;
+    this.sampleRate = sampleRate;
+    this.intercept = intercept;
+    this.jfr = jfr;
+    this.lazy = lazy;
+    this.swappable = swappable;
+    this.plainReads = plainReads;
+    this.sharded = sharded;
+    this.keyedApis = Set.copyOf(keyedApis);
+    this.locked = locked;
+    this.optimisticReads = optimisticReads;
+    this.copyOnWrite = copyOnWrite;
+    this.perThread = perThread;
+    this.pooled = pooled;
+    this.async = async;
+    this.broadcast = broadcast;
+    this.parallelBroadcast = parallelBroadcast;
+    this.balanced = balanced;
+    this.limited = limited;
+    this.hedged = hedged;
+    this.instrumentationEnabled = instrumentationEnabled;
+  }
+
+  /**
+   * @param annotationMirror of an {@link AutoDelegate} annotation
+   * @param instrumentationEnabled whether instrumentation is enabled for this compilation, see
+   *     {@link AutoDelegateProcessor#INSTRUMENTATION_OPTION}
+   * @return the {@link DelegationOptions} specified by the provided {@link AnnotationMirror},
+   *     including default values for unspecified options
+   */
+  static DelegationOptions of(
+      final AnnotationMirror annotationMirror, final boolean instrumentationEnabled) {
+    return new DelegationOptions(
+        booleanValue(annotationMirror, "sealed"),
+        booleanValue(annotationMirror, "skipOverridden"),
+        booleanValue(annotationMirror, "instrument"),
+        (Integer) getAnnotationValue(annotationMirror, "sampleRate").getValue(),
+        booleanValue(annotationMirror, "intercept"),
+        booleanValue(annotationMirror, "jfr"),
+        booleanValue(annotationMirror, "lazy"),
+        booleanValue(annotationMirror, "swappable"),
+        booleanValue(annotationMirror, "plainReads"),
+        booleanValue(annotationMirror, "sharded"),
+        ((List<?>) getAnnotationValue(annotationMirror, "keyedApis").getValue())
+            .stream()
+                .map(value -> (String) ((AnnotationValue) value).getValue())
+                .collect(Collectors.toSet()),
+        booleanValue(annotationMirror, "locked"),
+        booleanValue(annotationMirror, "optimisticReads"),
+        booleanValue(annotationMirror, "copyOnWrite"),
+        booleanValue(annotationMirror, "perThread"),
+        booleanValue(annotationMirror, "pooled"),
+        booleanValue(annotationMirror, "async"),
+        booleanValue(annotationMirror, "broadcast"),
+        booleanValue(annotationMirror, "parallelBroadcast"),
+        booleanValue(annotationMirror, "balanced"),
+        booleanValue(annotationMirror, "limited"),
+        booleanValue(annotationMirror, "hedged"),
+        instrumentationEnabled);
+  }
+
+  private static boolean booleanValue(final AnnotationMirror annotationMirror, final String name) {
+    return (Boolean) getAnnotationValue(annotationMirror, name).getValue();
+  }
+
+  /**
+   * @see AutoDelegate#sealed()
+   */
+  boolean sealed() {
+    return sealed;
+  }
+
+  /**
+   * @see AutoDelegate#skipOverridden()
+   */
+  boolean skipOverridden() {
+    return skipOverridden;
+  }
+
+  /**
+   * @see AutoDelegate#instrument()
+   */
+  boolean instrument() {
+    return instrument;
+  }
+
+  /**
+   * @see AutoDelegate#sampleRate()
+   */
+  int sampleRate() {
+    return sampleRate;
+  }
+
+  /**
+   * @see AutoDelegate#intercept()
+   */
+  boolean intercept() {
+    return intercept;
+  }
+
+  /**
+   * @see AutoDelegate#jfr()
+   */
+  boolean jfr() {
+    return jfr;
+  }
+
+  /**
+   * @see AutoDelegate#lazy()
+   */
+  boolean lazy() {
+    return lazy;
+  }
+
+  /**
+   * @see AutoDelegate#swappable()
+   */
+  boolean swappable() {
+    return swappable;
+  }
+
+  /**
+   * @see AutoDelegate#plainReads()
+   */
+  boolean plainReads() {
+    return plainReads;
+  }
+
+  /**
+   * @see AutoDelegate#sharded()
+   */
+  boolean sharded() {
+    return sharded;
+  }
+
+  /**
+   * @see AutoDelegate#keyedApis()
+   */
+  Set<String> keyedApis() {
+    return keyedApis;
+  }
+
+  /**
+   * @see AutoDelegate#locked()
+   */
+  boolean locked() {
+    return locked;
+  }
+
+  /**
+   * @see AutoDelegate#optimisticReads()
+   */
+  boolean optimisticReads() {
+    return optimisticReads;
+  }
+
+  /**
+   * @see AutoDelegate#copyOnWrite()
+   */
+  boolean copyOnWrite() {
+    return copyOnWrite;
+  }
+
+  /**
+   * @see AutoDelegate#perThread()
+   */
+  boolean perThread() {
+    return perThread;
+  }
+
+  /**
+   * @see AutoDelegate#pooled()
+   */
+  boolean pooled() {
+    return pooled;
+  }
+
+  /**
+   * @see AutoDelegate#async()
+   */
+  boolean async() {
+    return async;
+  }
+
+  /**
+   * @see AutoDelegate#broadcast()
+   */
+  boolean broadcast() {
+    return broadcast;
+  }
+
+  /**
+   * @see AutoDelegate#parallelBroadcast()
+   */
+  boolean parallelBroadcast() {
+    return parallelBroadcast;
+  }
+
+  /**
+   * @see AutoDelegate#balanced()
+   */
+  boolean balanced() {
+    return balanced;
+  }
+
+  /**
+   * @see AutoDelegate#limited()
+   */
+  boolean limited() {
+    return limited;
+  }
+
+  /**
+   * @see AutoDelegate#hedged()
+   */
+  boolean hedged() {
+    return hedged;
+  }
+
+  /**
+   * @return the {@link Feature}s these options enable
+   */
+  Set<Feature> features() {
+    final var features = EnumSet.noneOf(Feature.class);
+    for (Feature feature : Feature.values()) {
+      if (feature.enabled.test(this)) {
+        features.add(feature);
+      }
+    }
+    return features;
+  }
+
+  /**
+   * Validates that these options may be combined, as declared by each {@link Feature}
+   *
+   * @param element annotated with the {@link AutoDelegate} annotation these options were specified
+   *     by, which names it in the message of the exception
+   * @throws IllegalArgumentException if an enabled feature requires a feature that isn't enabled,
+   *     or excludes one that is
+   */
+  void validateCombination(final Element element) {
+    final var features = features();
+    for (Feature feature : features) {
+      if (feature.required != null && !features.contains(feature.required)) {
+        throw new IllegalArgumentException(
+            element + " can't use " + feature.attribute + " without " + feature.required.attribute);
+      }
+      for (Feature excluded : feature.excluded) {
+        if (features.contains(excluded)) {
+          throw new IllegalArgumentException(
+              element + " can't combine " + excluded.attribute + " and " + feature.attribute);
+        }
+      }
+    }
+  }
+
+  /**
+   * @return true if a class generated with these options can be written as a class file, which
+   *     requires that every enabled {@link Feature} supports it
+   */
+  boolean supportsClassFile() {
+    return features().stream().allMatch(feature -> feature.supportsClassFile);
+  }
+
+  /**
+   * @return false if generated instrumentation should be stripped from forwarding methods for this
+   *     compilation, see {@link AutoDelegateProcessor#INSTRUMENTATION_OPTION}
+   */
+  boolean instrumentationEnabled() {
+    return instrumentationEnabled;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    final DelegationOptions that = (DelegationOptions) o;
+    return sealed == that.sealed
+        && skipOverridden == that.skipOverridden
+        && instrument == that.instrument
+        && sampleRate == that.sampleRate
+        && intercept == that.intercept
+        && jfr == that.jfr
+        && lazy == that.lazy
+        && swappable == that.swappable
+        && plainReads == that.plainReads
+        && sharded == that.sharded
+        && keyedApis.equals(that.keyedApis)
+        && locked == that.locked
+        && optimisticReads == that.optimisticReads
+        && copyOnWrite == that.copyOnWrite
+        && perThread == that.perThread
+        && pooled == that.pooled
+        && async == that.async
+        && broadcast == that.broadcast
+        && parallelBroadcast == that.parallelBroadcast
+        && balanced == that.balanced
+        && limited == that.limited
+        && hedged == that.hedged
+        && instrumentationEnabled == that.instrumentationEnabled;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(
+        sealed,
+        skipOverridden,
+        instrument,
+        sampleRate,
+        intercept,
+        jfr,
+        lazy,
+        swappable,
+        plainReads,
+        sharded,
+        keyedApis,
+        locked,
+        optimisticReads,
+        copyOnWrite,
+        perThread,
+        pooled,
+        async,
+        broadcast,
+        parallelBroadcast,
+        balanced,
+        limited,
+        hedged,
+        instrumentationEnabled);
+  }
+
+  @Override
+  public String toString() {
+    return "DelegationOptions{"
+        + "sealed="
+        + sealed
+        + ", skipOverridden="
+        + skipOverridden
+        + ", instrument="
+        + instrument
+        + ", sampleRate="
+        + sampleRate
+        + ", intercept="
+        + intercept
+        + ", jfr="
+        + jfr
+        + ", lazy="
+        + lazy
+        + ", swappable="
+        + swappable
+        + ", plainReads="
+        + plainReads
+        + ", sharded="
+        + sharded
+        + ", keyedApis="
+        + keyedApis
+        + ", locked="
+        + locked
+        + ", optimisticReads="
+        + optimisticReads
+        + ", copyOnWrite="
+        + copyOnWrite
+        + ", perThread="
+        + perThread
+        + ", pooled="
+        + pooled
+        + ", async="
+        + async
+        + ", broadcast="
+        + broadcast
+        + ", parallelBroadcast="
+        + parallelBroadcast
+        + ", balanced="
+        + balanced
+        + ", limited="
+        + limited
+        + ", hedged="
+        + hedged
+        + ", instrumentationEnabled="
+        + instrumentationEnabled
+        + '}';
+  }
+}
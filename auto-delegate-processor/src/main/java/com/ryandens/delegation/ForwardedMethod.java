@@ -0,0 +1,127 @@
+package com.ryandens.delegation;
+
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.TypeName;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import javax.lang.model.element.ExecutableElement;
+
+/**
+ * Immutable value class encapsulating all the information about an API of an inner type that the
+ * generated class forwards to
+ */
+final class ForwardedMethod {
+
+  private final ExecutableElement executableElement;
+  private final DelegationTargetDescriptor descriptor;
+  private final int id;
+  private final String signature;
+  private final MethodSpec overridingSignature;
+
+  /**
+   * @param executableElement the API of the inner type
+   * @param descriptor the {@link DelegationTargetDescriptor} of the inner type
+   * @param id the stable ID of this method within the generated class
+   * @param signature the name and erased parameter types of the API
+   * @param overridingSignature a {@link MethodSpec} without a body that overrides the API
+   */
+  ForwardedMethod(
+      final ExecutableElement executableElement,
+      final DelegationTargetDescriptor descriptor,
+      final int id,
+      final String signature,
+      final MethodSpec overridingSignature) {
+    this.executableElement = Objects.requireNonNull(executableElement);
+    this.descriptor = Objects.requireNonNull(descriptor);
+    this.id = id;
+    this.signature = Objects.requireNonNull(signature);
+    this.overridingSignature = Objects.requireNonNull(overridingSignature);
+  }
+
+  ExecutableElement executableElement() {
+    return executableElement;
+  }
+
+  DelegationTargetDescriptor descriptor() {
+    return descriptor;
+  }
+
+  int id() {
+    return id;
+  }
+
+  String signature() {
+    return signature;
+  }
+
+  MethodSpec overridingSignature() {
+    return overridingSignature;
+  }
+
+  /**
+   * @return the simple name of the API
+   */
+  String name() {
+    return executableElement.getSimpleName().toString();
+  }
+
+  /**
+   * @return the return type of the API, resolved against the inner type
+   */
+  TypeName returnType() {
+    return overridingSignature.returnType;
+  }
+
+  /**
+   * @return true if the API returns {@code void}
+   */
+  boolean isVoid() {
+    return TypeName.VOID.equals(returnType());
+  }
+
+  /**
+   * @return the parameters of the API, resolved against the inner type
+   */
+  List<ParameterSpec> parameters() {
+    return overridingSignature.parameters;
+  }
+
+  /**
+   * @return the parameter names of the API, joined as arguments to an invocation
+   */
+  String arguments() {
+    return parameters().stream().map(parameter -> parameter.name).collect(Collectors.joining(", "));
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    final ForwardedMethod that = (ForwardedMethod) o;
+    return id == that.id
+        && executableElement.equals(that.executableElement)
+        && descriptor.equals(that.descriptor)
+        && signature.equals(that.signature)
+        && overridingSignature.equals(that.overridingSignature);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(executableElement, descriptor, id, signature, overridingSignature);
+  }
+
+  @Override
+  public String toString() {
+    return "ForwardedMethod{"
+        + "signature='"
+        + signature
+        + '\''
+        + ", descriptor="
+        + descriptor
+        + ", id="
+        + id
+        + '}';
+  }
+}
@@ -0,0 +1,328 @@
+package com.ryandens.delegation;
+
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.TypeVariableName;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.util.Types;
+
+/**
+ * Uses {@link com.squareup.javapoet} to create a typed interceptor interface for a generated class
+ * that {@link AutoDelegate#intercept()}s its forwarding methods. Each forwarded API gets its own
+ * {@code before} and {@code after} hook with the same parameter types as the API, so primitive
+ * arguments are never boxed and no argument arrays are allocated.
+ */
+final class InterceptorGenerator {
+  private static final String CHAIN_CLASS_NAME = "Chain";
+  private static final String INTERCEPTORS_FIELD_NAME = "interceptors";
+
+  private final ClassName interceptorClassName;
+  private final List<TypeVariableName> typeVariables;
+  private final List<ForwardedMethod> forwardedMethods;
+  private final Map<ForwardedMethod, String> beforeHookNames;
+  private final Map<ForwardedMethod, String> afterHookNames;
+
+  /**
+   * @param interceptorClassName of the generated interceptor interface
+   * @param typeVariables of the generated class, which the interceptor interface must also declare
+   * @param forwardedMethods the {@link ForwardedMethod}s of the generated class, ordered by ID
+   */
+  InterceptorGenerator(
+      final Types typeUtils,
+      final ClassName interceptorClassName,
+      final List<TypeVariableName> typeVariables,
+      final List<ForwardedMethod> forwardedMethods) {
+    this.interceptorClassName = Objects.requireNonNull(interceptorClassName);
+    this.typeVariables = Objects.requireNonNull(typeVariables);
+    this.forwardedMethods = Objects.requireNonNull(forwardedMethods);
+    this.beforeHookNames = new HashMap<>();
+    this.afterHookNames = new HashMap<>();
+    // hooks are named after the API they intercept, so overloaded APIs have overloaded hooks. As
+    // the after hook appends the result to the parameters, it may clash with the after hook of
+    // another overload (e.g. void m(A, B) and B m(A)), in which case the method ID disambiguates
+    // the name
+    final Set<String> erasedHookSignatures = new HashSet<>();
+    for (ForwardedMethod forwardedMethod : forwardedMethods) {
+      final var executableElement = forwardedMethod.executableElement();
+      final var erasedParameterTypes =
+          executableElement.getParameters().stream()
+              .map(parameter -> typeUtils.erasure(parameter.asType()).toString())
+              .collect(Collectors.toList());
+      beforeHookNames.put(
+          forwardedMethod,
+          hookName("before", forwardedMethod, erasedParameterTypes, erasedHookSignatures));
+      final var erasedAfterParameterTypes = new ArrayList<>(erasedParameterTypes);
+      if (!forwardedMethod.isVoid()) {
+        erasedAfterParameterTypes.add(
+            typeUtils.erasure(executableElement.getReturnType()).toString());
+      }
+      afterHookNames.put(
+          forwardedMethod,
+          hookName("after", forwardedMethod, erasedAfterParameterTypes, erasedHookSignatures));
+    }
+  }
+
+  /**
+   * @return the {@link TypeName} of the interceptor interface, parameterized if necessary
+   */
+  TypeName interceptorTypeName() {
+    if (typeVariables.isEmpty()) {
+      return interceptorClassName;
+    }
+    return ParameterizedTypeName.get(
+        interceptorClassName, typeVariables.toArray(new TypeVariableName[0]));
+  }
+
+  /**
+   * @return a {@link CodeBlock} invoking the before hook for the provided {@link ForwardedMethod}
+   *     on the interceptor referenced by the provided field name
+   */
+  CodeBlock invokeBefore(final String interceptorFieldName, final ForwardedMethod forwardedMethod) {
+    return invokeHook(
+        interceptorFieldName,
+        beforeHookNames.get(forwardedMethod),
+        CodeBlock.of("$L", forwardedMethod.id()),
+        forwardedMethod,
+        null);
+  }
+
+  /**
+   * @return a {@link CodeBlock} invoking the after hook for the provided {@link ForwardedMethod} on
+   *     the interceptor referenced by the provided field name, passing the result stored in the
+   *     provided local variable unless the API returns {@code void}
+   */
+  CodeBlock invokeAfter(
+      final String interceptorFieldName,
+      final ForwardedMethod forwardedMethod,
+      final String resultVariable) {
+    return invokeHook(
+        interceptorFieldName,
+        afterHookNames.get(forwardedMethod),
+        CodeBlock.of("$L", forwardedMethod.id()),
+        forwardedMethod,
+        resultVariable);
+  }
+
+  /**
+   * @return the {@link TypeSpec} of the interceptor interface
+   */
+  TypeSpec interceptorInterface(final ClassName interceptedClassName) {
+    final var interfaceBuilder =
+        TypeSpec.interfaceBuilder(interceptorClassName)
+            .addModifiers(Modifier.PUBLIC)
+            .addTypeVariables(typeVariables)
+            .addJavadoc(
+                "Typed interceptor for the forwarding methods of {@link $T}. Each forwarded API has"
+                    + " a before hook, invoked with\n"
+                    + "its arguments before the call is forwarded, and an after hook, invoked with"
+                    + " its arguments and result after\n"
+                    + "the inner composed instance returns normally. Every hook is also passed the"
+                    + " stable ID of the forwarded\n"
+                    + "API, which is its index in {@link #METHODS}. All hooks do nothing by"
+                    + " default.\n",
+                interceptedClassName)
+            .addField(
+                FieldSpec.builder(
+                        ParameterizedTypeName.get(List.class, String.class),
+                        "METHODS",
+                        Modifier.PUBLIC,
+                        Modifier.STATIC,
+                        Modifier.FINAL)
+                    .addJavadoc("The signatures of the forwarded APIs, indexed by their IDs\n")
+                    .initializer(
+                        "$T.of($L)",
+                        List.class,
+                        forwardedMethods.stream()
+                            .map(forwardedMethod -> CodeBlock.of("$S", forwardedMethod.signature()))
+                            .collect(CodeBlock.joining(", ")))
+                    .build());
+    final var chainBuilder =
+        TypeSpec.classBuilder(CHAIN_CLASS_NAME)
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+            .addTypeVariables(typeVariables)
+            .addSuperinterface(interceptorTypeName())
+            .addJavadoc(
+                "Invokes before hooks of a fixed sequence of interceptors in order, and after hooks"
+                    + " in reverse order\n")
+            .addField(
+                ArrayTypeName.of(interceptorTypeName()),
+                INTERCEPTORS_FIELD_NAME,
+                Modifier.PRIVATE,
+                Modifier.FINAL)
+            .addMethod(
+                MethodSpec.constructorBuilder()
+                    .addModifiers(Modifier.PRIVATE)
+                    .addParameter(
+                        ArrayTypeName.of(interceptorTypeName()),
+                        INTERCEPTORS_FIELD_NAME,
+                        Modifier.FINAL)
+                    .addStatement("this.$N = $N", INTERCEPTORS_FIELD_NAME, INTERCEPTORS_FIELD_NAME)
+                    .build());
+    for (ForwardedMethod forwardedMethod : forwardedMethods) {
+      interfaceBuilder.addMethod(
+          hookSpec(beforeHookNames.get(forwardedMethod), forwardedMethod, false)
+              .addModifiers(Modifier.PUBLIC, Modifier.DEFAULT)
+              .build());
+      interfaceBuilder.addMethod(
+          hookSpec(afterHookNames.get(forwardedMethod), forwardedMethod, true)
+              .addModifiers(Modifier.PUBLIC, Modifier.DEFAULT)
+              .build());
+      chainBuilder.addMethod(chainedHook(forwardedMethod, false));
+      chainBuilder.addMethod(chainedHook(forwardedMethod, true));
+    }
+    final var chainFactory =
+        MethodSpec.methodBuilder("chain")
+            .addJavadoc(
+                "@return an interceptor that invokes the provided interceptors in order, without"
+                    + " allocating\n")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .addTypeVariables(typeVariables)
+            .returns(interceptorTypeName())
+            .addParameter(
+                ArrayTypeName.of(interceptorTypeName()), INTERCEPTORS_FIELD_NAME, Modifier.FINAL)
+            .varargs()
+            .addStatement(
+                "return new $N$L($N.clone())",
+                CHAIN_CLASS_NAME,
+                typeVariables.isEmpty() ? "" : "<>",
+                INTERCEPTORS_FIELD_NAME);
+    if (!typeVariables.isEmpty()) {
+      chainFactory.addAnnotation(SafeVarargs.class);
+    }
+    return interfaceBuilder.addMethod(chainFactory.build()).addType(chainBuilder.build()).build();
+  }
+
+  /**
+   * @return a {@link MethodSpec.Builder} for a hook with the parameters of the provided {@link
+   *     ForwardedMethod}, preceded by the method ID and followed by the result for after hooks of
+   *     APIs that don't return {@code void}
+   */
+  private MethodSpec.Builder hookSpec(
+      final String hookName, final ForwardedMethod forwardedMethod, final boolean after) {
+    final var hookBuilder =
+        MethodSpec.methodBuilder(hookName)
+            .addTypeVariables(forwardedMethod.overridingSignature().typeVariables)
+            .addParameter(TypeName.INT, methodIdParameterName(forwardedMethod), Modifier.FINAL);
+    for (ParameterSpec parameter : forwardedMethod.parameters()) {
+      hookBuilder.addParameter(parameter.type, parameter.name, Modifier.FINAL);
+    }
+    if (after && !forwardedMethod.isVoid()) {
+      hookBuilder.addParameter(
+          forwardedMethod.returnType(), resultParameterName(forwardedMethod), Modifier.FINAL);
+    }
+    return hookBuilder;
+  }
+
+  /**
+   * @return a {@link MethodSpec} for the {@code Chain} implementation of a hook, which invokes the
+   *     same hook on each composed interceptor
+   */
+  private MethodSpec chainedHook(final ForwardedMethod forwardedMethod, final boolean after) {
+    final var hookName =
+        after ? afterHookNames.get(forwardedMethod) : beforeHookNames.get(forwardedMethod);
+    final var interceptor = localName("interceptor", forwardedMethod);
+    final var hookInvocation =
+        invokeHook(
+            interceptor,
+            hookName,
+            CodeBlock.of("$N", methodIdParameterName(forwardedMethod)),
+            forwardedMethod,
+            after ? resultParameterName(forwardedMethod) : null);
+    final var body = CodeBlock.builder();
+    if (after) {
+      // after hooks unwind in reverse order, like nested try/finally blocks would
+      final var index = localName("i", forwardedMethod);
+      body.beginControlFlow(
+              "for (int $N = $N.length - 1; $N >= 0; $N--)",
+              index,
+              INTERCEPTORS_FIELD_NAME,
+              index,
+              index)
+          .addStatement(
+              "final $T $N = $N[$N]",
+              interceptorTypeName(),
+              interceptor,
+              INTERCEPTORS_FIELD_NAME,
+              index);
+    } else {
+      body.beginControlFlow(
+          "for (final $T $N : $N)", interceptorTypeName(), interceptor, INTERCEPTORS_FIELD_NAME);
+    }
+    body.addStatement(hookInvocation).endControlFlow();
+    return hookSpec(hookName, forwardedMethod, after)
+        .addAnnotation(Override.class)
+        .addModifiers(Modifier.PUBLIC)
+        .addCode(body.build())
+        .build();
+  }
+
+  private static CodeBlock invokeHook(
+      final String receiver,
+      final String hookName,
+      final CodeBlock methodId,
+      final ForwardedMethod forwardedMethod,
+      final String resultVariable) {
+    final var arguments = new ArrayList<CodeBlock>();
+    arguments.add(methodId);
+    forwardedMethod.parameters().forEach(parameter -> arguments.add(CodeBlock.of("$N", parameter)));
+    if (resultVariable != null && !forwardedMethod.isVoid()) {
+      arguments.add(CodeBlock.of("$N", resultVariable));
+    }
+    return CodeBlock.of(
+        "$N.$N($L)", receiver, hookName, arguments.stream().collect(CodeBlock.joining(", ")));
+  }
+
+  private String hookName(
+      final String prefix,
+      final ForwardedMethod forwardedMethod,
+      final List<String> erasedParameterTypes,
+      final Set<String> erasedHookSignatures) {
+    final var name = forwardedMethod.name();
+    final var hookName = prefix + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    if (erasedHookSignatures.add(hookName + erasedParameterTypes)) {
+      return hookName;
+    }
+    final var disambiguatedHookName = hookName + forwardedMethod.id();
+    erasedHookSignatures.add(disambiguatedHookName + erasedParameterTypes);
+    return disambiguatedHookName;
+  }
+
+  private static String methodIdParameterName(final ForwardedMethod forwardedMethod) {
+    return localName("methodId", forwardedMethod);
+  }
+
+  private static String resultParameterName(final ForwardedMethod forwardedMethod) {
+    return localName("result", forwardedMethod);
+  }
+
+  /**
+   * @return a name for a parameter or local variable that does not shadow any of the parameters of
+   *     the provided {@link ForwardedMethod}
+   */
+  static String localName(final String name, final ForwardedMethod forwardedMethod) {
+    final var parameterNames =
+        forwardedMethod.parameters().stream()
+            .map(parameter -> parameter.name)
+            .collect(Collectors.toSet());
+    var localName = name;
+    while (parameterNames.contains(localName)) {
+      localName = localName + "_";
+    }
+    return localName;
+  }
+}
@@ -0,0 +1,139 @@
+package com.ryandens.delegation;
+
+import com.google.auto.common.MoreTypes;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.TypeName;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+
+/**
+ * Caches the resolution of the members of delegation targets, so that resolving them is only done
+ * once per processing round no matter how many classes annotated with {@link AutoDelegate} delegate
+ * to the same interface. Elements may not be reused across rounds, so a new instance must be
+ * created for each round.
+ *
+ * <p>Not thread-safe
+ */
+final class MemberResolutionCache {
+
+  private final Elements elementUtils;
+  private final Types typeUtils;
+  private final Map<TypeElement, List<ExecutableElement>> delegatableMembers;
+  private final Map<ExecutableElement, String> signatures;
+  private final Map<TypeName, Map<ExecutableElement, MethodSpec>> overridingSignatures;
+
+  MemberResolutionCache(final Elements elementUtils, final Types typeUtils) {
+    this.elementUtils = Objects.requireNonNull(elementUtils);
+    this.typeUtils = Objects.requireNonNull(typeUtils);
+    this.delegatableMembers = new HashMap<>();
+    this.signatures = new HashMap<>();
+    this.overridingSignatures = new HashMap<>();
+  }
+
+  /**
+   * @return all the abstract and default APIs of the provided interface, including those it
+   *     inherits, ordered by their declaration within the interface hierarchy so that the generated
+   *     source is identical on every build
+   */
+  List<ExecutableElement> delegatableMembers(final TypeElement delegationTarget) {
+    return delegatableMembers.computeIfAbsent(delegationTarget, this::resolveDelegatableMembers);
+  }
+
+  /**
+   * @return the name and erased parameter types of the provided {@link ExecutableElement}, e.g.
+   *     {@code put(java.lang.Object,java.lang.Object)}
+   */
+  String signature(final ExecutableElement executableElement) {
+    return signatures.computeIfAbsent(
+        executableElement,
+        key ->
+            key.getSimpleName()
+                + key.getParameters().stream()
+                    .map(parameter -> typeUtils.erasure(parameter.asType()).toString())
+                    .collect(Collectors.joining(",", "(", ")")));
+  }
+
+  /**
+   * @return a {@link MethodSpec} without a body that overrides the provided {@link
+   *     ExecutableElement} as a member of the provided {@link DeclaredType}. Callers must copy it
+   *     via {@link MethodSpec#toBuilder()} before modifying it
+   */
+  MethodSpec overridingSignature(
+      final ExecutableElement executableElement, final DeclaredType declaredType) {
+    // DeclaredTypes of the same interface declared by different annotated classes aren't equal, so
+    // key by the TypeName, which still distinguishes different type arguments
+    return overridingSignatures
+        .computeIfAbsent(TypeName.get(declaredType), key -> new HashMap<>())
+        .computeIfAbsent(
+            executableElement,
+            key -> MethodSpec.overriding(executableElement, declaredType, typeUtils).build());
+  }
+
+  private List<ExecutableElement> resolveDelegatableMembers(final TypeElement delegationTarget) {
+    final var declarationOrder = declarationOrder(delegationTarget);
+    return elementUtils
+        // first get all the members for the delegation target
+        .getAllMembers(delegationTarget)
+        .stream()
+        // then, reduce it to only ExecutableElements
+        .filter(typeElementMember -> typeElementMember instanceof ExecutableElement)
+        // then, map the members to the required type we reduced the stream to
+        .map(typeElementMember -> (ExecutableElement) typeElementMember)
+        // then, reduce it to the abstract APIs that we're interested in auto-delegating to
+        .filter(
+            typeElementMember ->
+                typeElementMember.getModifiers().contains(Modifier.ABSTRACT)
+                    || typeElementMember.getModifiers().contains(Modifier.DEFAULT))
+        // then, order them by their declaration within the interface hierarchy, falling back to
+        // their signature for members that are not declared by it
+        .sorted(
+            Comparator.<ExecutableElement>comparingInt(
+                    executableElement ->
+                        declarationOrder.getOrDefault(executableElement, Integer.MAX_VALUE))
+                .thenComparing(this::signature))
+        .collect(Collectors.toUnmodifiableList());
+  }
+
+  /**
+   * @return the position of each method declared in the provided interface or its superinterfaces,
+   *     ordered by declaration within the interface itself, followed by declaration within each of
+   *     its superinterfaces in the order they are extended
+   */
+  private static Map<ExecutableElement, Integer> declarationOrder(final TypeElement type) {
+    final var declarationOrder = new HashMap<ExecutableElement, Integer>();
+    final var visited = new HashSet<TypeElement>();
+    final var toVisit = new ArrayDeque<TypeElement>();
+    toVisit.push(type);
+    while (!toVisit.isEmpty()) {
+      final var current = toVisit.pop();
+      if (!visited.add(current)) {
+        continue;
+      }
+      for (ExecutableElement method : ElementFilter.methodsIn(current.getEnclosedElements())) {
+        declarationOrder.putIfAbsent(method, declarationOrder.size());
+      }
+      // push the superinterfaces in reverse, so that they are visited depth-first in the order
+      // they are extended
+      final var superinterfaces = new ArrayList<>(current.getInterfaces());
+      Collections.reverse(superinterfaces);
+      superinterfaces.forEach(
+          superinterface -> toVisit.push(MoreTypes.asTypeElement(superinterface)));
+    }
+    return declarationOrder;
+  }
+}
@@ -0,0 +1,1148 @@
+package com.ryandens.delegation;
+
+import static com.google.testing.compile.Compiler.javac;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.tools.JavaFileObject;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link AutoDelegateProcessor} */
+final class AutoDelegateProcessorTest {
+
+  private static final Pattern TYPE_DECLARATION = Pattern.compile("(?:class|interface) (\\w+)");
+
+  private static final String METERED_RUNNABLE =
+      "package test;\n"
+          + "\n"
+          + "import com.ryandens.delegation.AutoDelegate;\n"
+          + "\n"
+          + "@AutoDelegate(value = Runnable.class, instrument = true)\n"
+          + "final class MeteredRunnable extends AutoDelegate_MeteredRunnable implements Runnable {\n"
+          + "  MeteredRunnable(final Runnable inner) {\n"
+          + "    super(inner);\n"
+          + "  }\n"
+          + "}\n";
+
+  private static final String PROFILED_RUNNABLE =
+      "package test;\n"
+          + "\n"
+          + "import com.ryandens.delegation.AutoDelegate;\n"
+          + "\n"
+          + "@AutoDelegate(value = Runnable.class, jfr = true)\n"
+          + "final class ProfiledRunnable extends AutoDelegate_ProfiledRunnable implements Runnable {\n"
+          + "  ProfiledRunnable(final Runnable inner) {\n"
+          + "    super(inner);\n"
+          + "  }\n"
+          + "}\n";
+
+  private static final String INTERCEPTED_LIST =
+      "package test;\n"
+          + "\n"
+          + "import com.ryandens.delegation.AutoDelegate;\n"
+          + "import java.util.List;\n"
+          + "\n"
+          + "@AutoDelegate(value = List.class, intercept = true, instrument = true)\n"
+          + "final class InterceptedList<E> extends AutoDelegate_InterceptedList<E> implements List<E> {\n"
+          + "  InterceptedList(final List<E> inner, final AutoDelegate_InterceptedListInterceptor<E> interceptor) {\n"
+          + "    super(inner, interceptor);\n"
+          + "  }\n"
+          + "}\n";
+
+  private static final String OVERLOADED_API =
+      "package test;\n"
+          + "\n"
+          + "public interface Api {\n"
+          + "  void send(String message, String recipient);\n"
+          + "\n"
+          + "  String send(String message);\n"
+          + "}\n";
+
+  private static final String INTERCEPTED_API =
+      "package test;\n"
+          + "\n"
+          + "import com.ryandens.delegation.AutoDelegate;\n"
+          + "\n"
+          + "@AutoDelegate(value = Api.class, intercept = true)\n"
+          + "final class InterceptedApi extends AutoDelegate_InterceptedApi implements Api {\n"
+          + "  InterceptedApi(final Api inner, final AutoDelegate_InterceptedApiInterceptor interceptor) {\n"
+          + "    super(inner, interceptor);\n"
+          + "  }\n"
+          + "}\n";
+
+  private static final String HIERARCHY_API =
+      "package test;\n"
+          + "\n"
+          + "public interface HierarchyApi extends Runnable, Comparable<String> {\n"
+          + "  void zulu();\n"
+          + "\n"
+          + "  void alpha();\n"
+          + "\n"
+          + "  default void mike() {}\n"
+          + "}\n";
+
+  private static final String HIERARCHY_DELEGATOR =
+      "package test;\n"
+          + "\n"
+          + "import com.ryandens.delegation.AutoDelegate;\n"
+          + "\n"
+          + "@AutoDelegate(HierarchyApi.class)\n"
+          + "abstract class HierarchyDelegator extends AutoDelegate_HierarchyDelegator implements HierarchyApi {\n"
+          + "  HierarchyDelegator(final HierarchyApi inner) {\n"
+          + "    super(inner);\n"
+          + "  }\n"
+          + "}\n";
+
+  private static final String SIZED_LIST =
+      "package test;\n"
+          + "\n"
+          + "import com.ryandens.delegation.AutoDelegate;\n"
+          + "import java.util.List;\n"
+          + "\n"
+          + "@AutoDelegate(value = List.class, sealed = true, skipOverridden = true)\n"
+          + "final class SizedList<E> extends AutoDelegate_SizedList<E> implements List<E> {\n"
+          + "  SizedList(final List<E> inner) {\n"
+          + "    super(inner);\n"
+          + "  }\n"
+          + "\n"
+          + "  @Override\n"
+          + "  public int size() {\n"
+          + "    return inner0().size() + (super.isEmpty() ? 0 : 1);\n"
+          + "  }\n"
+          + "}\n";
+
+  private static final String ORDERED_HIERARCHY_API =
+      "package test;\n"
+          + "\n"
+          + "import com.ryandens.delegation.AutoDelegate;\n"
+          + "\n"
+          + "@AutoDelegate(HierarchyApi.class)\n"
+          + "final class OrderedHierarchyApi extends AutoDelegate_OrderedHierarchyApi implements HierarchyApi {\n"
+          + "  OrderedHierarchyApi(final HierarchyApi inner) {\n"
+          + "    super(inner);\n"
+          + "  }\n"
+          + "}\n";
+
+  @Test
+  void testSealed() throws IOException {
+    // WHEN we compile a sealed class whose annotated class is final
+    final var finalSubclass =
+        generatedSource(
+            compile(
+                "package test;\n"
+                    + "\n"
+                    + "import com.ryandens.delegation.AutoDelegate;\n"
+                    + "\n"
+                    + "@AutoDelegate(value = CharSequence.class, sealed = true)\n"
+                    + "final class Text extends AutoDelegate_Text implements CharSequence {\n"
+                    + "  Text(final CharSequence inner) {\n"
+                    + "    super(inner);\n"
+                    + "  }\n"
+                    + "\n"
+                    + "  @Override\n"
+                    + "  public int length() {\n"
+                    + "    return super.length();\n"
+                    + "  }\n"
+                    + "}\n"),
+            "test.AutoDelegate_Text");
+    // VERIFY it permits only the annotated class, and the forwarding methods that aren't overridden
+    // are final
+    assertTrue(finalSubclass.contains("implements CharSequence permits test.Text {"));
+    assertTrue(finalSubclass.contains("public final char charAt("));
+    assertFalse(finalSubclass.contains("public final int length()"));
+    // WHEN we compile a sealed class whose annotated class is non-sealed and has a subclass
+    final var nonSealedSubclass =
+        generatedSource(
+            compile(
+                List.of(
+                    "package test;\n"
+                        + "\n"
+                        + "import com.ryandens.delegation.AutoDelegate;\n"
+                        + "\n"
+                        + "@AutoDelegate(value = Runnable.class, sealed = true)\n"
+                        + "non-sealed class OpenRunnable extends AutoDelegate_OpenRunnable implements Runnable {\n"
+                        + "  OpenRunnable(final Runnable inner) {\n"
+                        + "    super(inner);\n"
+                        + "  }\n"
+                        + "}\n",
+                    "package test;\n"
+                        + "\n"
+                        + "final class CountingRunnable extends OpenRunnable {\n"
+                        + "  CountingRunnable(final Runnable inner) {\n"
+                        + "    super(inner);\n"
+                        + "  }\n"
+                        + "\n"
+                        + "  @Override\n"
+                        + "  public void run() {\n"
+                        + "    super.run();\n"
+                        + "  }\n"
+                        + "}\n")),
+            "test.AutoDelegate_OpenRunnable");
+    // VERIFY the forwarding methods stay overridable by its subclasses
+    assertTrue(nonSealedSubclass.contains("implements Runnable permits test.OpenRunnable {"));
+    assertTrue(nonSealedSubclass.contains("  public void run() {"));
+  }
+
+  @Test
+  void testInstrumentationEnabledByDefault() throws IOException {
+    // WHEN we compile a class that requests instrumentation
+    final var generated =
+        generatedSource(compile(METERED_RUNNABLE), "test.AutoDelegate_MeteredRunnable");
+    // VERIFY the forwarding method records into the metrics
+    assertTrue(generated.contains("delegationMetrics.record(0, System.nanoTime() - startNanos);"));
+  }
+
+  @Test
+  void testInstrumentationOff() throws IOException {
+    // WHEN we compile a class that requests instrumentation with instrumentation turned off
+    final var generated =
+        generatedSource(
+            compile(METERED_RUNNABLE, "-Aautodelegate.instrumentation=off"),
+            "test.AutoDelegate_MeteredRunnable");
+    // VERIFY the forwarding method is exactly a call to the inner composed instance
+    assertTrue(generated.contains("  public void run() {\n    inner0.run();\n  }\n"));
+    assertFalse(generated.contains("nanoTime"));
+    // VERIFY the annotated class can still access metrics, which are never recorded into
+    assertTrue(
+        generated.contains("private static final DelegationMetrics DISABLED_DELEGATION_METRICS"));
+  }
+
+  @Test
+  void testInvalidInstrumentationOption() {
+    // VERIFY an unrecognized value for the instrumentation option fails the compilation
+    assertThrows(
+        RuntimeException.class,
+        () -> compile(METERED_RUNNABLE, "-Aautodelegate.instrumentation=maybe"));
+  }
+
+  @Test
+  void testJfrEventRecordsCalledInstance() throws IOException {
+    // WHEN we compile a class that requests JFR events
+    final var generated =
+        generatedSource(compile(PROFILED_RUNNABLE), "test.AutoDelegate_ProfiledRunnable");
+    // VERIFY the inner composed instance is reached once, and both called and recorded
+    assertTrue(generated.contains("final Runnable receiver = inner0;"));
+    assertTrue(generated.contains("receiver.run();"));
+    assertTrue(generated.contains("delegationEvent.delegateClass = receiver.getClass();"));
+  }
+
+  @Test
+  void testSampledInstrumentation() throws IOException {
+    // WHEN we compile a class that requests sampled instrumentation
+    final var generated =
+        generatedSource(
+            compile(
+                METERED_RUNNABLE.replace("instrument = true", "instrument = true, sampleRate = 8")),
+            "test.AutoDelegate_MeteredRunnable");
+    // VERIFY the metrics extrapolate by the sample rate and only sampled calls are timed
+    assertTrue(generated.contains("new DelegationMetrics(8, \"run()\")"));
+    assertTrue(
+        generated.contains("final boolean sampled = ThreadLocalRandom.current().nextInt(8) == 0;"));
+    assertTrue(generated.contains("if (sampled) {"));
+  }
+
+  @Test
+  void testInvalidSampleRate() {
+    // VERIFY the sample rate must be positive
+    assertThrows(
+        RuntimeException.class,
+        () ->
+            compile(
+                METERED_RUNNABLE.replace(
+                    "instrument = true", "instrument = true, sampleRate = 0")));
+    // VERIFY a sample rate can only be specified for instrumented classes
+    final var exception =
+        assertThrows(
+            RuntimeException.class,
+            () -> compile(METERED_RUNNABLE.replace("instrument = true", "sampleRate = 8")));
+    assertTrue(
+        causes(exception)
+            .anyMatch(
+                cause ->
+                    "test.MeteredRunnable can't use sampleRate without instrument"
+                        .equals(cause.getMessage())));
+  }
+
+  @Test
+  void testJfrEventsStrippedWhenInstrumentationOff() throws IOException {
+    // WHEN we compile a class that requests JFR events with instrumentation turned off
+    final var generated =
+        generatedSource(
+            compile(PROFILED_RUNNABLE, "-Aautodelegate.instrumentation=off"),
+            "test.AutoDelegate_ProfiledRunnable");
+    // VERIFY neither the event class nor its usage are generated
+    assertTrue(generated.contains("  public void run() {\n    inner0.run();\n  }\n"));
+    assertFalse(generated.contains("DelegationEvent"));
+  }
+
+  @Test
+  void testInterceptorForGenericType() throws IOException {
+    // WHEN we compile a generic class that requests interception and instrumentation
+    final var compilation = compile(INTERCEPTED_LIST);
+    final var interceptor =
+        generatedSource(compilation, "test.AutoDelegate_InterceptedListInterceptor");
+    // VERIFY the interceptor declares the type variables of the generated class, and generic hooks
+    // for generic APIs
+    assertTrue(interceptor.contains("public interface AutoDelegate_InterceptedListInterceptor<E>"));
+    assertTrue(interceptor.contains("default void afterAdd(final int methodId, final E arg0,"));
+    assertTrue(
+        interceptor.contains("default <T> void beforeToArray(final int methodId, final T[] arg0)"));
+    // VERIFY the interceptor wraps the instrumentation
+    final var generated = generatedSource(compilation, "test.AutoDelegate_InterceptedList");
+    final var size = generated.substring(generated.indexOf("public int size()"));
+    assertTrue(size.indexOf("delegationInterceptor.beforeSize(") < size.indexOf("startNanos"));
+    assertTrue(size.indexOf("finally") < size.indexOf("delegationInterceptor.afterSize("));
+  }
+
+  @Test
+  void testInterceptionNotStrippedWhenInstrumentationOff() throws IOException {
+    // WHEN we compile a class that requests interception with instrumentation turned off
+    final var generated =
+        generatedSource(
+            compile(INTERCEPTED_LIST, "-Aautodelegate.instrumentation=off"),
+            "test.AutoDelegate_InterceptedList");
+    // VERIFY the interceptor is still invoked, as interception changes behavior
+    assertTrue(generated.contains("delegationInterceptor.beforeSize("));
+    assertFalse(generated.contains("nanoTime"));
+  }
+
+  @Test
+  void testClashingHookNamesAreDisambiguated() throws IOException {
+    // WHEN we compile a class intercepting overloads whose after hooks would have the same erasure
+    final var interceptor =
+        generatedSource(
+            compile(List.of(OVERLOADED_API, INTERCEPTED_API)),
+            "test.AutoDelegate_InterceptedApiInterceptor");
+    // VERIFY the second after hook is disambiguated by its method ID
+    assertTrue(interceptor.contains("default void afterSend("));
+    assertTrue(interceptor.contains("default void afterSend1("));
+  }
+
+  @Test
+  void testForwardingMethodsInDeclarationOrder() throws IOException {
+    // WHEN we compile a class delegating to an interface that extends other interfaces
+    final var generated =
+        generatedSource(
+            compile(List.of(HIERARCHY_API, HIERARCHY_DELEGATOR)),
+            "test.AutoDelegate_HierarchyDelegator");
+    // VERIFY forwarding methods are ordered by declaration within the interface, followed by
+    // declaration within each of its superinterfaces in the order they are extended
+    final var zulu = generated.indexOf("void zulu()");
+    final var alpha = generated.indexOf("void alpha()");
+    final var mike = generated.indexOf("void mike()");
+    final var run = generated.indexOf("void run()");
+    final var compareTo = generated.indexOf("int compareTo(");
+    assertTrue(
+        0 < zulu && zulu < alpha && alpha < mike && mike < run && run < compareTo, generated);
+  }
+
+  @Test
+  void testSameDelegationTargetInOneRound() throws IOException {
+    // WHEN we compile, in the same round, two classes that delegate to the same interface, one of
+    // which skips the APIs it overrides
+    final var compilation =
+        compile(
+            List.of(
+                INTERCEPTED_LIST,
+                "package test;\n"
+                    + "\n"
+                    + "import com.ryandens.delegation.AutoDelegate;\n"
+                    + "import java.util.List;\n"
+                    + "\n"
+                    + "@AutoDelegate(value = List.class, skipOverridden = true)\n"
+                    + "abstract class SizedList<E> extends AutoDelegate_SizedList<E> implements List<E> {\n"
+                    + "  SizedList(final List<E> inner) {\n"
+                    + "    super(inner);\n"
+                    + "  }\n"
+                    + "\n"
+                    + "  @Override\n"
+                    + "  public int size() {\n"
+                    + "    return 0;\n"
+                    + "  }\n"
+                    + "}\n"));
+    // VERIFY the members resolved for one class don't leak the options of the other
+    final var intercepted = generatedSource(compilation, "test.AutoDelegate_InterceptedList");
+    final var sized = generatedSource(compilation, "test.AutoDelegate_SizedList");
+    assertTrue(intercepted.contains("public int size() {"));
+    assertTrue(intercepted.contains("delegationInterceptor.beforeAdd("));
+    assertFalse(sized.contains("public int size() {"));
+    assertTrue(sized.contains("public boolean add(E arg0) {\n    return inner0.add(arg0);\n  }"));
+  }
+
+  @Test
+  void testOutputIsReproducible() throws IOException {
+    // WHEN we compile the same class, which uses every feature that generates code per method,
+    // twice
+    final var first = generatedFiles(compile(INTERCEPTED_LIST));
+    final var second = generatedFiles(compile(INTERCEPTED_LIST));
+    // VERIFY the generated sources and classes are byte for byte identical
+    assertEquals(first.keySet(), second.keySet());
+    for (Map.Entry<String, byte[]> entry : first.entrySet()) {
+      assertArrayEquals(entry.getValue(), second.get(entry.getKey()), entry.getKey());
+    }
+  }
+
+  @Test
+  void testLazyInitialization() throws IOException {
+    // WHEN we compile a generic, recorded class that lazily creates its inner composed instance
+    // and skips the APIs it overrides
+    final var generated =
+        generatedSource(
+            compile(
+                "package test;\n"
+                    + "\n"
+                    + "import com.ryandens.delegation.AutoDelegate;\n"
+                    + "import java.util.List;\n"
+                    + "import java.util.function.Supplier;\n"
+                    + "\n"
+                    + "@AutoDelegate(value = List.class, lazy = true, skipOverridden = true, jfr = true)\n"
+                    + "final class LazyList<E> extends AutoDelegate_LazyList<E> implements List<E> {\n"
+                    + "  LazyList(final Supplier<List<E>> inner) {\n"
+                    + "    super(inner);\n"
+                    + "  }\n"
+                    + "\n"
+                    + "  @Override\n"
+                    + "  public int size() {\n"
+                    + "    return inner0().size();\n"
+                    + "  }\n"
+                    + "}\n"),
+            "test.AutoDelegate_LazyList");
+    // VERIFY the constructor accepts a supplier and the accessor creates the instance on first use
+    assertTrue(
+        generated.contains("AutoDelegate_LazyList(final Supplier<? extends List<E>> inner0)"));
+    assertTrue(generated.contains("protected final List<E> inner0() {"));
+    assertTrue(generated.contains("final List<E> inner0 = (List<E>) INNER0.getAcquire(this);"));
+    // VERIFY recorded calls reach the instance via the accessor once, before the event begins, so
+    // that a supplier that throws isn't called again afterwards
+    assertTrue(generated.contains("final List<E> receiver = inner0();"));
+    assertTrue(generated.contains("return receiver.add(arg0);"));
+    assertTrue(generated.contains("delegationEvent.delegateClass = receiver.getClass();"));
+    assertFalse(generated.contains("inner0().add(arg0)"));
+  }
+
+  @Test
+  void testSwappableWithPlainReads() throws IOException {
+    // WHEN we compile a generic class whose inner composed instance can be swapped and is read
+    // with plain reads
+    final var generated =
+        generatedSource(
+            compile(
+                "package test;\n"
+                    + "\n"
+                    + "import com.ryandens.delegation.AutoDelegate;\n"
+                    + "import java.util.List;\n"
+                    + "\n"
+                    + "@AutoDelegate(value = List.class, swappable = true, plainReads = true)\n"
+                    + "final class SwappableList<E> extends AutoDelegate_SwappableList<E> implements List<E> {\n"
+                    + "  SwappableList(final List<E> inner) {\n"
+                    + "    super(inner);\n"
+                    + "  }\n"
+                    + "\n"
+                    + "  List<E> swap(final List<E> replacement) {\n"
+                    + "    return swapInner0(replacement);\n"
+                    + "  }\n"
+                    + "}\n"),
+            "test.AutoDelegate_SwappableList");
+    // VERIFY the instance is swapped atomically but read with a plain read
+    assertTrue(
+        generated.contains(
+            "return (List<E>) INNER0.getAndSet(this, Objects.requireNonNull(replacement));"));
+    assertTrue(generated.contains("private List<E> inner0() {\n    return inner0;\n  }"));
+    assertTrue(generated.contains("return inner0().add(arg0);"));
+    assertTrue(generated.contains("VarHandle.releaseFence();"));
+  }
+
+  @Test
+  void testInvalidSwappableOptions() {
+    // VERIFY plain reads require a swappable class, and swappable classes can't be lazy
+    assertThrows(
+        RuntimeException.class,
+        () -> compile(METERED_RUNNABLE.replace("instrument = true", "plainReads = true")));
+    final var exception =
+        assertThrows(
+            RuntimeException.class,
+            () ->
+                compile(
+                    METERED_RUNNABLE.replace(
+                        "instrument = true", "swappable = true, lazy = true")));
+    assertTrue(
+        causes(exception)
+            .anyMatch(
+                cause ->
+                    "test.MeteredRunnable can't combine lazy and swappable"
+                        .equals(cause.getMessage())));
+  }
+
+  @Test
+  void testShardedRoutingAndCombining() throws IOException {
+    // WHEN we compile an instrumented, recorded, sharded class that implements the APIs that can't
+    // be combined across shards
+    final var generated =
+        generatedSource(
+            compile(
+                "package test;\n"
+                    + "\n"
+                    + "import com.ryandens.delegation.AutoDelegate;\n"
+                    + "import java.util.List;\n"
+                    + "import java.util.Map;\n"
+                    + "\n"
+                    + "@AutoDelegate(value = Map.class, sharded = true, keyedApis = {\"get\", \"put\"}, instrument = true, jfr = true)\n"
+                    + "abstract class ShardedMap<K, V> extends AutoDelegate_ShardedMap<K, V> implements Map<K, V> {\n"
+                    + "  ShardedMap(final List<Map<K, V>> shards) {\n"
+                    + "    super(shards);\n"
+                    + "  }\n"
+                    + "}\n"),
+            "test.AutoDelegate_ShardedMap");
+    // VERIFY keyed APIs are routed by their first argument, once for both the call and its event
+    assertTrue(generated.contains("final Map<K, V> receiver = inner0(arg0);"));
+    assertTrue(generated.contains("return receiver.put(arg0, arg1);"));
+    assertFalse(generated.contains("inner0(arg0).put"));
+    // VERIFY APIs without parameters are combined across shards
+    assertTrue(generated.contains("combined += inner0Shard(shard).size();"));
+    assertTrue(
+        generated.contains("for (int shard = 0; combined && shard < inner0.length; shard++)"));
+    assertTrue(generated.contains("return Collections.unmodifiableSet(combined);"));
+    // VERIFY other APIs aren't forwarded
+    assertFalse(generated.contains("containsValue"));
+    assertFalse(generated.contains("remove("));
+  }
+
+  @Test
+  void testInvalidShardedOptions() {
+    // VERIFY keyed APIs require a sharded class, and must name an API with parameters
+    assertThrows(
+        RuntimeException.class,
+        () -> compile(METERED_RUNNABLE.replace("instrument = true", "keyedApis = \"run\"")));
+    assertThrows(
+        RuntimeException.class,
+        () ->
+            compile(
+                METERED_RUNNABLE.replace(
+                    "instrument = true", "sharded = true, keyedApis = \"run\"")));
+  }
+
+  @Test
+  void testLockedWithOptimisticReads() throws IOException {
+    // WHEN we compile an intercepted, locked class whose delegation target overrides the
+    // classification of some of its APIs
+    final var generated =
+        generatedSource(
+            compile(
+                List.of(
+                    "package test;\n"
+                        + "\n"
+                        + "import com.ryandens.delegation.AutoDelegate;\n"
+                        + "\n"
+                        + "interface Registry {\n"
+                        + "  @AutoDelegate.Write\n"
+                        + "  String getOrCreate(String name);\n"
+                        + "  @AutoDelegate.Read\n"
+                        + "  void validate();\n"
+                        + "  boolean contains(String name);\n"
+                        + "  void register(String name);\n"
+                        + "  String getAndClear(String name);\n"
+                        + "  String getAndroidName();\n"
+                        + "  @AutoDelegate.Read\n"
+                        + "  String load(String name) throws java.io.IOException;\n"
+                        + "}\n",
+                    "package test;\n"
+                        + "\n"
+                        + "import com.ryandens.delegation.AutoDelegate;\n"
+                        + "\n"
+                        + "@AutoDelegate(value = Registry.class, locked = true, optimisticReads = true, intercept = true)\n"
+                        + "abstract class LockedRegistry extends AutoDelegate_LockedRegistry implements Registry {\n"
+                        + "  LockedRegistry(final Registry registry, final AutoDelegate_LockedRegistryInterceptor interceptor) {\n"
+                        + "    super(registry, interceptor);\n"
+                        + "  }\n"
+                        + "}\n")),
+            "test.AutoDelegate_LockedRegistry");
+    // VERIFY writes take the write lock, including those annotated as writes
+    assertTrue(generated.contains("final long stamp = delegationLock.writeLock();"));
+    assertTrue(generated.contains("result = inner0.getOrCreate(name);"));
+    assertTrue(generated.contains("delegationLock.unlockWrite(stamp);"));
+    // VERIFY reads are attempted optimistically and assign the intercepted result, before falling
+    // back to the read lock
+    assertTrue(generated.contains("optimisticResult = inner0.contains(name);"));
+    assertTrue(generated.contains("result = optimisticResult;"));
+    assertTrue(generated.contains("break locked;"));
+    assertTrue(generated.contains("final long stamp = delegationLock.readLock();"));
+    assertTrue(generated.contains("protected final StampedLock delegationLock()"));
+    // VERIFY compound updates aren't reads, unlike other names that start with the same letters
+    assertFalse(generated.contains("optimisticResult = inner0.getAndClear(name);"));
+    assertTrue(generated.contains("optimisticResult = inner0.getAndroidName();"));
+    // VERIFY whatever an optimistic read throws is only rethrown if no write happened concurrently,
+    // including checked exceptions and errors
+    assertTrue(generated.contains("optimisticResult = inner0.load(name);"));
+    assertTrue(generated.contains("} catch (Throwable exception) {"));
+    assertFalse(generated.contains("catch (RuntimeException exception)"));
+  }
+
+  @Test
+  void testInvalidLockedOptions() {
+    // VERIFY optimistic reads require a locked class, which can't be sharded
+    assertThrows(
+        RuntimeException.class,
+        () -> compile(METERED_RUNNABLE.replace("instrument = true", "optimisticReads = true")));
+    assertThrows(
+        RuntimeException.class,
+        () ->
+            compile(
+                METERED_RUNNABLE.replace(
+                    "instrument = true", "locked = true, sharded = true, keyedApis = \"run\"")));
+  }
+
+  @Test
+  void testCopyOnWrite() throws IOException {
+    // WHEN we compile an intercepted, copy-on-write class
+    final var generated =
+        generatedSource(
+            compile(
+                "package test;\n"
+                    + "\n"
+                    + "import com.ryandens.delegation.AutoDelegate;\n"
+                    + "import java.util.HashSet;\n"
+                    + "import java.util.Set;\n"
+                    + "\n"
+                    + "@AutoDelegate(value = Set.class, copyOnWrite = true, intercept = true)\n"
+                    + "abstract class SnapshotSet<E> extends AutoDelegate_SnapshotSet<E> implements Set<E> {\n"
+                    + "  SnapshotSet(final AutoDelegate_SnapshotSetInterceptor<E> interceptor) {\n"
+                    + "    super(new HashSet<>(), HashSet::new, interceptor);\n"
+                    + "  }\n"
+                    + "}\n"),
+            "test.AutoDelegate_SnapshotSet");
+    // VERIFY reads are forwarded to the current snapshot
+    assertTrue(generated.contains("result = inner0().contains(arg0);"));
+    assertTrue(generated.contains("return (Set<E>) INNER0.getAcquire(this);"));
+    // VERIFY writes are applied to a copy, which is then published, and can be batched
+    assertTrue(generated.contains("final Set<E> copy = copyInner0();"));
+    assertTrue(generated.contains("final boolean written = copy.add(arg0);"));
+    assertTrue(generated.contains("INNER0.setRelease(this, copy);"));
+    assertTrue(generated.contains("result = written;"));
+    assertTrue(generated.contains("protected final void updateInner0("));
+  }
+
+  @Test
+  void testInvalidCopyOnWriteOptions() {
+    // VERIFY copy-on-write classes can't also be locked or swappable
+    assertThrows(
+        RuntimeException.class,
+        () ->
+            compile(
+                METERED_RUNNABLE.replace(
+                    "instrument = true", "copyOnWrite = true, locked = true")));
+    assertThrows(
+        RuntimeException.class,
+        () ->
+            compile(
+                METERED_RUNNABLE.replace(
+                    "instrument = true", "copyOnWrite = true, swappable = true")));
+  }
+
+  @Test
+  void testPerThread() throws IOException {
+    // WHEN we compile an instrumented and recorded per-thread class
+    final var generated =
+        generatedSource(
+            compile(
+                METERED_RUNNABLE
+                    .replace("instrument = true", "perThread = true, instrument = true, jfr = true")
+                    .replace("super(inner)", "super(() -> inner)")),
+            "test.AutoDelegate_MeteredRunnable");
+    // VERIFY the constructor accepts a factory of instances
+    assertTrue(generated.contains("Supplier<? extends Runnable> inner0"));
+    assertTrue(generated.contains("this.inner0 = new PerThreadInstances<>(inner0);"));
+    // VERIFY the instance of the calling thread is acquired around the instrumented call, and is
+    // released even if it throws
+    assertTrue(generated.contains("final Runnable instance = inner0.acquire();"));
+    assertTrue(generated.contains("instance.run();"));
+    assertTrue(generated.contains("delegationEvent.delegateClass = instance.getClass();"));
+    assertFalse(generated.contains("receiver"));
+    assertTrue(generated.contains("inner0.release(instance);"));
+  }
+
+  @Test
+  void testInvalidPerThreadOptions() {
+    // VERIFY per-thread classes can't also be lazy or locked
+    assertThrows(
+        RuntimeException.class,
+        () ->
+            compile(
+                METERED_RUNNABLE.replace("instrument = true", "perThread = true, lazy = true")));
+    assertThrows(
+        RuntimeException.class,
+        () ->
+            compile(
+                METERED_RUNNABLE.replace("instrument = true", "perThread = true, locked = true")));
+  }
+
+  @Test
+  void testPooled() throws IOException {
+    // WHEN we compile a pooled class
+    final var generated =
+        generatedSource(
+            compile(
+                METERED_RUNNABLE
+                    .replace("instrument = true", "pooled = true")
+                    .replace(
+                        "super(inner)",
+                        "super(com.ryandens.delegation.runtime.DelegatePool.blocking(() -> inner, 1))")),
+            "test.AutoDelegate_MeteredRunnable");
+    // VERIFY the constructor accepts a pool, and each call borrows an instance from it
+    assertTrue(generated.contains("final DelegatePool<Runnable> inner0"));
+    assertTrue(generated.contains("final Runnable instance = inner0.acquire();"));
+    assertTrue(generated.contains("inner0.release(instance);"));
+    // VERIFY pooled classes can't also be per-thread
+    assertThrows(
+        RuntimeException.class,
+        () ->
+            compile(
+                METERED_RUNNABLE.replace("instrument = true", "pooled = true, perThread = true")));
+  }
+
+  @Test
+  void testBroadcast() throws IOException {
+    // WHEN we compile a class that broadcasts sequentially
+    final var generated =
+        generatedSource(
+            compile(
+                METERED_RUNNABLE
+                    .replace("instrument = true", "broadcast = true")
+                    .replace("super(inner)", "super(java.util.List.of(inner))")),
+            "test.AutoDelegate_MeteredRunnable");
+    // VERIFY the constructor accepts a list of delegates, which are called in order
+    assertTrue(generated.contains("final List<? extends Runnable> inner0"));
+    assertTrue(generated.contains("for (int delegate = 0; delegate < inner0.length; delegate++)"));
+    assertTrue(generated.contains("inner0Delegate(delegate).run();"));
+    // VERIFY broadcasting classes can't also be sharded, and only they can broadcast in parallel
+    assertThrows(
+        RuntimeException.class,
+        () ->
+            compile(
+                METERED_RUNNABLE.replace("instrument = true", "broadcast = true, sharded = true")));
+    assertThrows(
+        RuntimeException.class,
+        () -> compile(METERED_RUNNABLE.replace("instrument = true", "parallelBroadcast = true")));
+  }
+
+  @Test
+  void testParallelBroadcast() throws IOException {
+    // WHEN we compile a generic class that broadcasts APIs that throw and return results in
+    // parallel
+    final var generated =
+        generatedSource(
+            compile(
+                List.of(
+                    "package test;\n"
+                        + "\n"
+                        + "public interface Sink<T> {\n"
+                        + "  void write(T value) throws java.io.IOException;\n"
+                        + "\n"
+                        + "  int count();\n"
+                        + "\n"
+                        + "  int count(String name);\n"
+                        + "\n"
+                        + "  <R> R first(Class<R> type);\n"
+                        + "}\n",
+                    "package test;\n"
+                        + "\n"
+                        + "import com.ryandens.delegation.AutoDelegate;\n"
+                        + "\n"
+                        + "@AutoDelegate(value = Sink.class, broadcast = true, parallelBroadcast = true)\n"
+                        + "abstract class FanOut<T> extends AutoDelegate_FanOut<T> implements Sink<T> {\n"
+                        + "  FanOut(final java.util.List<Sink<T>> sinks) {\n"
+                        + "    super(sinks);\n"
+                        + "  }\n"
+                        + "}\n")),
+            "test.AutoDelegate_FanOut");
+    // VERIFY calls are forked to every delegate but the first, which is called on the calling
+    // thread, and every forked call completes before the call returns
+    assertTrue(generated.contains("final Executor executor = inner0Executor();"));
+    assertTrue(
+        generated.contains("forked.add(ForkedCall.fork(executor, () -> instance.count(name)));"));
+    assertTrue(generated.contains("reduced = inner0Delegate(0).count(name);"));
+    assertTrue(generated.contains("ForkedCall.awaitAll(forked);"));
+    // VERIFY the executor defaults to the shared one, and may be overridden
+    assertTrue(
+        generated.contains(
+            "protected Executor inner0Executor() {\n    return AsyncCalls.defaultExecutor();"));
+    // VERIFY results are reduced in order, and declared exceptions are rethrown as is
+    assertTrue(generated.contains("reduced = reduceFirst(reduced, forkedCall.join());"));
+    assertTrue(generated.contains("if (exception instanceof IOException)"));
+    // VERIFY each API that returns a result gets a reducer, disambiguated between overloads
+    assertTrue(
+        generated.contains(
+            "protected abstract int reduceCount(final int accumulated, final int next);"));
+    assertTrue(
+        generated.contains(
+            "protected abstract int reduceCount1(final int accumulated, final int next);"));
+    assertTrue(
+        generated.contains(
+            "protected abstract <R> R reduceFirst(final R accumulated, final R next);"));
+    assertFalse(generated.contains("reduceWrite"));
+  }
+
+  @Test
+  void testInvalidBroadcastOptions() {
+    // VERIFY parallel broadcasts require a broadcasting class, which can't also be pooled
+    final var exception =
+        assertThrows(
+            RuntimeException.class,
+            () ->
+                compile(METERED_RUNNABLE.replace("instrument = true", "parallelBroadcast = true")));
+    assertTrue(
+        causes(exception)
+            .anyMatch(
+                cause ->
+                    "test.MeteredRunnable can't use parallelBroadcast without broadcast"
+                        .equals(cause.getMessage())));
+    assertThrows(
+        RuntimeException.class,
+        () ->
+            compile(
+                METERED_RUNNABLE.replace("instrument = true", "broadcast = true, pooled = true")));
+  }
+
+  @Test
+  void testBalanced() throws IOException {
+    // WHEN we compile an instrumented balanced class
+    final var generated =
+        generatedSource(
+            compile(
+                METERED_RUNNABLE
+                    .replace("instrument = true", "balanced = true, instrument = true")
+                    .replace(
+                        "super(inner)",
+                        "super(com.ryandens.delegation.runtime.LoadBalancer.roundRobin(java.util.List.of(inner)))")),
+            "test.AutoDelegate_MeteredRunnable");
+    // VERIFY the constructor accepts a load balancer, which routes each call by a ticket that is
+    // released even if the call throws
+    assertTrue(generated.contains("final LoadBalancer<Runnable> inner0"));
+    assertTrue(generated.contains("final long ticket = inner0.acquire();"));
+    assertTrue(generated.contains("final Runnable instance = inner0.delegate(ticket);"));
+    assertTrue(generated.contains("instance.run();"));
+    assertTrue(generated.contains("inner0.release(ticket);"));
+    // VERIFY balanced classes can't also be pooled
+    assertThrows(
+        RuntimeException.class,
+        () ->
+            compile(
+                METERED_RUNNABLE.replace("instrument = true", "balanced = true, pooled = true")));
+  }
+
+  @Test
+  void testLimited() throws IOException {
+    // WHEN we compile a limited class that marks none of its APIs
+    final var everyApi =
+        generatedSource(
+            compile(
+                List.of(
+                    "package test;\n"
+                        + "\n"
+                        + "public interface Store {\n"
+                        + "  String get(String key);\n"
+                        + "\n"
+                        + "  void put(String key, String value);\n"
+                        + "}\n",
+                    "package test;\n"
+                        + "\n"
+                        + "import com.ryandens.delegation.AutoDelegate;\n"
+                        + "import com.ryandens.delegation.runtime.ConcurrencyLimiter;\n"
+                        + "\n"
+                        + "@AutoDelegate(value = Store.class, limited = true)\n"
+                        + "final class LimitedStore extends AutoDelegate_LimitedStore implements Store {\n"
+                        + "  LimitedStore(final Store inner, final ConcurrencyLimiter limiter) {\n"
+                        + "    super(inner, limiter);\n"
+                        + "  }\n"
+                        + "}\n")),
+            "test.AutoDelegate_LimitedStore");
+    // VERIFY every call acquires a permit, which is released even if the call throws
+    assertTrue(everyApi.contains("final ConcurrencyLimiter delegationLimiter"));
+    assertTrue(everyApi.contains("protected final ConcurrencyLimiter delegationLimiter()"));
+    assertEquals(
+        2, everyApi.split("final long permit = delegationLimiter.acquire\\(\\);").length - 1);
+    assertEquals(2, everyApi.split("delegationLimiter.release\\(permit\\);").length - 1);
+    // WHEN we compile a limited class that marks one of its APIs in an overriding method
+    final var markedApi =
+        generatedSource(
+            compile(
+                List.of(
+                    "package test;\n"
+                        + "\n"
+                        + "public interface Store {\n"
+                        + "  String get(String key);\n"
+                        + "\n"
+                        + "  void put(String key, String value);\n"
+                        + "}\n",
+                    "package test;\n"
+                        + "\n"
+                        + "import com.ryandens.delegation.AutoDelegate;\n"
+                        + "import com.ryandens.delegation.runtime.ConcurrencyLimiter;\n"
+                        + "\n"
+                        + "@AutoDelegate(value = Store.class, limited = true)\n"
+                        + "final class LimitedStore extends AutoDelegate_LimitedStore implements Store {\n"
+                        + "  LimitedStore(final Store inner, final ConcurrencyLimiter limiter) {\n"
+                        + "    super(inner, limiter);\n"
+                        + "  }\n"
+                        + "\n"
+                        + "  @AutoDelegate.Limited\n"
+                        + "  @Override\n"
+                        + "  public void put(final String key, final String value) {\n"
+                        + "    super.put(key, value);\n"
+                        + "  }\n"
+                        + "}\n")),
+            "test.AutoDelegate_LimitedStore");
+    // VERIFY only the marked API acquires a permit
+    assertEquals(
+        1, markedApi.split("final long permit = delegationLimiter.acquire\\(\\);").length - 1);
+    assertTrue(markedApi.contains("return inner0.get(key);"));
+  }
+
+  @Test
+  void testHedged() throws IOException {
+    // WHEN we compile a hedged class of an API with reads and writes that throw
+    final var generated =
+        generatedSource(
+            compile(
+                List.of(
+                    "package test;\n"
+                        + "\n"
+                        + "public interface Store {\n"
+                        + "  String get(String key) throws java.io.IOException;\n"
+                        + "\n"
+                        + "  boolean isEmpty();\n"
+                        + "\n"
+                        + "  void put(String key, String value) throws java.io.IOException;\n"
+                        + "}\n",
+                    "package test;\n"
+                        + "\n"
+                        + "import com.ryandens.delegation.AutoDelegate;\n"
+                        + "import com.ryandens.delegation.runtime.Hedger;\n"
+                        + "\n"
+                        + "@AutoDelegate(value = Store.class, hedged = true)\n"
+                        + "final class HedgedStore extends AutoDelegate_HedgedStore implements Store {\n"
+                        + "  HedgedStore(final Store primary, final Store secondary) {\n"
+                        + "    super(Hedger.create(primary, secondary, 0.95));\n"
+                        + "  }\n"
+                        + "}\n")),
+            "test.AutoDelegate_HedgedStore");
+    // VERIFY the constructor accepts a hedger, which reads are forwarded through, rethrowing the
+    // exceptions they declare as is
+    assertTrue(generated.contains("final Hedger<Store> inner0"));
+    assertTrue(generated.contains("return inner0.call(instance -> instance.get(key));"));
+    assertTrue(generated.contains("return inner0.call(instance -> instance.isEmpty());"));
+    assertTrue(generated.contains("if (exception instanceof IOException)"));
+    // VERIFY writes are only forwarded to the primary replica
+    assertTrue(generated.contains("inner0.primary().put(key, value);"));
+    // VERIFY hedged classes can't also be balanced
+    assertThrows(
+        RuntimeException.class,
+        () ->
+            compile(
+                METERED_RUNNABLE.replace("instrument = true", "hedged = true, balanced = true")));
+    // VERIFY the error names both features when a hedged class is also lazy
+    final var exception =
+        assertThrows(
+            RuntimeException.class,
+            () ->
+                compile(
+                    METERED_RUNNABLE.replace("instrument = true", "lazy = true, hedged = true")));
+    assertTrue(
+        causes(exception)
+            .anyMatch(
+                cause ->
+                    "test.MeteredRunnable can't combine lazy and hedged"
+                        .equals(cause.getMessage())));
+  }
+
+  @Test
+  void testAsyncFacade() throws IOException {
+    // WHEN we compile a generic class with an asynchronous facade
+    final var compilation =
+        compile(
+            "package test;\n"
+                + "\n"
+                + "import com.ryandens.delegation.AutoDelegate;\n"
+                + "import java.util.List;\n"
+                + "\n"
+                + "@AutoDelegate(value = List.class, async = true)\n"
+                + "abstract class AsyncList<E> extends AutoDelegate_AsyncList<E> implements List<E> {\n"
+                + "  AsyncList(final List<E> inner) {\n"
+                + "    super(inner);\n"
+                + "  }\n"
+                + "}\n");
+    final var facade = generatedSource(compilation, "test.AutoDelegate_AsyncListAsync");
+    // VERIFY the facade declares the type variables, and accepts an executor
+    assertTrue(facade.contains("public final class AutoDelegate_AsyncListAsync<E>"));
+    assertTrue(facade.contains("final List<E> inner0, final Executor executor)"));
+    // VERIFY results are boxed, void APIs complete with null, and generic APIs keep their type
+    // variables
+    assertTrue(facade.contains("public CompletableFuture<Integer> size()"));
+    assertTrue(facade.contains("public CompletableFuture<Void> clear()"));
+    assertTrue(facade.contains("public <T> CompletableFuture<T[]> toArray(T[] arg0)"));
+    // VERIFY methods of Object aren't overloaded
+    assertFalse(facade.contains("equals("));
+    assertFalse(facade.contains("hashCode()"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testBytecodeOutput() throws Exception {
+    // WHEN we compile generic, sealed and bridged classes with class files written directly
+    final var compilation =
+        compile(
+            List.of(SIZED_LIST, HIERARCHY_API, ORDERED_HIERARCHY_API),
+            "-Aautodelegate.bytecode=on");
+    // VERIFY no source is generated, and the annotated classes compile against the class files
+    assertTrue(compilation.generatedSourceFile("test.AutoDelegate_SizedList").isEmpty());
+    assertTrue(compilation.generatedSourceFile("test.AutoDelegate_OrderedHierarchyApi").isEmpty());
+    final var classLoader = classLoader(compilation);
+    // VERIFY the generic forwarding methods, the accessor and super calls reach the inner instance
+    final var sizedListConstructor =
+        classLoader.loadClass("test.SizedList").getDeclaredConstructor(List.class);
+    sizedListConstructor.setAccessible(true);
+    final var inner = new ArrayList<String>();
+    final var sizedList = (List<String>) sizedListConstructor.newInstance(inner);
+    assertTrue(sizedList.add("a"));
+    assertEquals(List.of("a"), inner);
+    assertEquals("a", sizedList.get(0));
+    assertArrayEquals(new String[] {"a"}, sizedList.toArray(new String[0]));
+    assertEquals(2, sizedList.size());
+    // VERIFY calls through the erased API are bridged to the forwarding method
+    final var hierarchyApi = classLoader.loadClass("test.HierarchyApi");
+    final var orderedConstructor =
+        classLoader.loadClass("test.OrderedHierarchyApi").getDeclaredConstructor(hierarchyApi);
+    orderedConstructor.setAccessible(true);
+    final var ordered =
+        (Comparable<Object>)
+            orderedConstructor.newInstance(
+                Proxy.newProxyInstance(
+                    classLoader,
+                    new Class<?>[] {hierarchyApi},
+                    (proxy, method, args) -> method.getName().equals("compareTo") ? 42 : null));
+    assertEquals(42, ordered.compareTo("b"));
+    assertThrows(ClassCastException.class, () -> ordered.compareTo(1));
+  }
+
+  @Test
+  void testBytecodeOutputFallsBackToSource() throws IOException {
+    // WHEN we compile an instrumented class with class files written directly
+    final var generated =
+        generatedSource(
+            compile(METERED_RUNNABLE, "-Aautodelegate.bytecode=on"),
+            "test.AutoDelegate_MeteredRunnable");
+    // VERIFY it is still generated as source
+    assertTrue(generated.contains("delegationMetrics.record(0, System.nanoTime() - startNanos);"));
+  }
+
+  /** Compiles the provided source with the {@link AutoDelegateProcessor} and asserts success */
+  private static Compilation compile(final String source, final String... options) {
+    return compile(List.of(source), options);
+  }
+
+  /** Compiles the provided sources with the {@link AutoDelegateProcessor} and asserts success */
+  private static Compilation compile(final List<String> sources, final String... options) {
+    final var compilation =
+        javac()
+            .withProcessors(new AutoDelegateProcessor())
+            .withOptions((Object[]) options)
+            .compile(
+                sources.stream()
+                    .map(source -> JavaFileObjects.forSourceString(qualifiedName(source), source))
+                    .collect(Collectors.toList()));
+    assertEquals(
+        Compilation.Status.SUCCESS,
+        compilation.status(),
+        () -> compilation.diagnostics().toString());
+    return compilation;
+  }
+
+  /**
+   * @return the contents of every file generated by the provided {@link Compilation}, by name
+   */
+  private static Map<String, byte[]> generatedFiles(final Compilation compilation)
+      throws IOException {
+    final var generatedFiles = new TreeMap<String, byte[]>();
+    for (JavaFileObject generatedFile : compilation.generatedFiles()) {
+      try (InputStream inputStream = generatedFile.openInputStream()) {
+        generatedFiles.put(generatedFile.getName(), inputStream.readAllBytes());
+      }
+    }
+    return generatedFiles;
+  }
+
+  /**
+   * @return a {@link ClassLoader} that loads the classes compiled by the provided {@link
+   *     Compilation}
+   */
+  private static ClassLoader classLoader(final Compilation compilation) throws IOException {
+    final var classFiles = new HashMap<String, byte[]>();
+    for (Map.Entry<String, byte[]> entry : generatedFiles(compilation).entrySet()) {
+      final var name = entry.getKey();
+      if (name.endsWith(".class")) {
+        classFiles.put(
+            name.substring(name.indexOf("CLASS_OUTPUT/") + "CLASS_OUTPUT/".length())
+                .replace(".class", "")
+                .replace('/', '.'),
+            entry.getValue());
+      }
+    }
+    return new ClassLoader(AutoDelegateProcessorTest.class.getClassLoader()) {
+      @Override
+      protected Class<?> findClass(final String name) throws ClassNotFoundException {
+        final var classFile = classFiles.get(name);
+        if (classFile == null) {
+          throw new ClassNotFoundException(name);
+        }
+        return defineClass(name, classFile, 0, classFile.length);
+      }
+    };
+  }
+
+  /**
+   * @return the provided {@link Throwable} followed by each of its causes
+   */
+  private static Stream<Throwable> causes(final Throwable throwable) {
+    return Stream.iterate(throwable, Objects::nonNull, Throwable::getCause);
+  }
+
+  /**
+   * @return the contents of the generated source file with the provided qualified name
+   */
+  private static String generatedSource(final Compilation compilation, final String qualifiedName)
+      throws IOException {
+    return compilation
+        .generatedSourceFile(qualifiedName)
+        .orElseThrow()
+        .getCharContent(true)
+        .toString();
+  }
+
+  /**
+   * @return the qualified name of the first class or interface declared in the provided source
+   */
+  private static String qualifiedName(final String source) {
+    final var packageName = source.substring("package ".length(), source.indexOf(';'));
+    final var matcher = TYPE_DECLARATION.matcher(source);
+    if (!matcher.find()) {
+      throw new IllegalArgumentException("No type declared in " + source);
+    }
+    return packageName + "." + matcher.group(1);
+  }
+}
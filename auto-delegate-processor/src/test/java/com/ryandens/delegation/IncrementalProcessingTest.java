@@ -0,0 +1,153 @@
+package com.ryandens.delegation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.GradleRunner;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Verifies that the {@link AutoDelegateProcessor} supports Gradle incremental compilation as an
+ * isolating annotation processor, using a multi-module build where an {@code app} module contains a
+ * class annotated with {@link AutoDelegate} that delegates to an interface from an {@code api}
+ * module
+ */
+final class IncrementalProcessingTest {
+
+  /** System property with the runtime classpath of the processor, set by the Gradle build */
+  private static final String PROCESSOR_CLASSPATH_PROPERTY = "autodelegate.processor.classpath";
+
+  private static final String GENERATED_CLASS =
+      "app/build/generated/sources/annotationProcessor/java/main/test/app/AutoDelegate_DelegatingGreeter.java";
+
+  @TempDir Path projectDir;
+
+  @BeforeEach
+  void beforeEach() throws IOException {
+    // GIVEN a multi-module build applying the processor to the app module
+    final var processorClasspath =
+        Arrays.stream(System.getProperty(PROCESSOR_CLASSPATH_PROPERTY).split(File.pathSeparator))
+            .map(path -> "\"" + path.replace("\\", "\\\\") + "\"")
+            .collect(Collectors.joining(", "));
+    write("settings.gradle.kts", "include(\"api\", \"app\")\n");
+    write("api/build.gradle.kts", "plugins { `java-library` }\n");
+    write(
+        "app/build.gradle.kts",
+        "plugins { java }\n"
+            + "\n"
+            + "val processorClasspath = files("
+            + processorClasspath
+            + ")\n"
+            + "\n"
+            + "dependencies {\n"
+            + "  implementation(project(\":api\"))\n"
+            + "  compileOnly(processorClasspath)\n"
+            + "  annotationProcessor(processorClasspath)\n"
+            + "}\n");
+    write(
+        "api/src/main/java/test/api/Greeter.java",
+        "package test.api;\n"
+            + "\n"
+            + "public interface Greeter {\n"
+            + "  String greet(String name);\n"
+            + "}\n");
+    write(
+        "app/src/main/java/test/app/DelegatingGreeter.java",
+        "package test.app;\n"
+            + "\n"
+            + "import com.ryandens.delegation.AutoDelegate;\n"
+            + "import test.api.Greeter;\n"
+            + "\n"
+            + "@AutoDelegate(Greeter.class)\n"
+            + "final class DelegatingGreeter extends AutoDelegate_DelegatingGreeter implements Greeter {\n"
+            + "  DelegatingGreeter(final Greeter inner) {\n"
+            + "    super(inner);\n"
+            + "  }\n"
+            + "}\n");
+    write("app/src/main/java/test/app/Unrelated.java", unrelatedClass(0));
+    final var result = compile();
+    assertEquals(TaskOutcome.SUCCESS, result.task(":app:compileJava").getOutcome());
+    assertTrue(Files.exists(projectDir.resolve(GENERATED_CLASS)));
+  }
+
+  @Test
+  void testUnrelatedChangeIsIncremental() throws IOException {
+    // WHEN we change a class that is unrelated to the annotated class
+    write("app/src/main/java/test/app/Unrelated.java", unrelatedClass(1));
+    final var result = compile();
+    // VERIFY the app module was compiled incrementally
+    assertEquals(TaskOutcome.SUCCESS, result.task(":app:compileJava").getOutcome());
+    assertFalse(result.getOutput().contains("Full recompilation is required"), result::getOutput);
+    assertTrue(result.getOutput().contains("Incremental compilation of"), result::getOutput);
+  }
+
+  @Test
+  void testDeletedAnnotatedClassRemovesGeneratedClass() throws IOException {
+    // WHEN we delete the annotated class
+    Files.delete(projectDir.resolve("app/src/main/java/test/app/DelegatingGreeter.java"));
+    compile();
+    // VERIFY the class generated for it, whose only originating element it was, is deleted without
+    // recompiling the remaining classes
+    assertFalse(Files.exists(projectDir.resolve(GENERATED_CLASS)));
+    assertFalse(
+        Files.exists(
+            projectDir.resolve(
+                "app/build/classes/java/main/test/app/AutoDelegate_DelegatingGreeter.class")));
+    assertTrue(
+        Files.exists(projectDir.resolve("app/build/classes/java/main/test/app/Unrelated.class")));
+  }
+
+  @Test
+  void testChangedDelegationTargetRegeneratesClass() throws IOException {
+    // WHEN we add an API to the interface in the api module
+    write(
+        "api/src/main/java/test/api/Greeter.java",
+        "package test.api;\n"
+            + "\n"
+            + "public interface Greeter {\n"
+            + "  String greet(String name);\n"
+            + "\n"
+            + "  String farewell(String name);\n"
+            + "}\n");
+    final var result = compile();
+    // VERIFY the annotated class is reprocessed and forwards the new API
+    assertEquals(TaskOutcome.SUCCESS, result.task(":app:compileJava").getOutcome());
+    assertTrue(Files.readString(projectDir.resolve(GENERATED_CLASS)).contains("farewell("));
+  }
+
+  /**
+   * Compiles the app module. File system watching is disabled, as changes made by a test right
+   * after a build may otherwise not have been observed by the next build
+   */
+  private BuildResult compile() {
+    return GradleRunner.create()
+        .withProjectDir(projectDir.toFile())
+        .withArguments(":app:compileJava", "--info", "--stacktrace", "--no-watch-fs")
+        .build();
+  }
+
+  private void write(final String relativePath, final String content) throws IOException {
+    final var file = projectDir.resolve(relativePath);
+    Files.createDirectories(file.getParent());
+    Files.writeString(file, content);
+  }
+
+  private static String unrelatedClass(final int fieldCount) {
+    final var fields = new StringBuilder();
+    for (int i = 0; i < fieldCount; i++) {
+      fields.append("  int field").append(i).append(";\n");
+    }
+    return "package test.app;\n\nfinal class Unrelated {\n" + fields + "}\n";
+  }
+}
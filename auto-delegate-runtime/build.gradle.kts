@@ -0,0 +1,22 @@
+plugins {
+    `java-library`
+    id("com.ryandens.delegation.publish")
+}
+
+description =
+    """
+    Runtime support for the optional features of auto-delegating abstract implementations generated by the auto-delegate-processor.
+    """.trimIndent()
+
+tasks.compileJava {
+    options.release.set(11)
+}
+
+dependencies {
+    testImplementation("org.junit.jupiter:junit-jupiter:6.1.2")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+}
+
+tasks.test {
+    useJUnitPlatform()
+}
@@ -0,0 +1,119 @@
+package com.ryandens.delegation.runtime;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs calls forwarded by generated asynchronous facades on an {@link Executor}, completing a
+ * {@link CompletableFuture} with their outcome.
+ *
+ * <p>Thread-safe
+ */
+public final class AsyncCalls {
+
+  private static final Executor DEFAULT_EXECUTOR = createDefaultExecutor();
+
+  private AsyncCalls() {}
+
+  /**
+   * @return a shared {@link Executor} that runs each call on a new virtual thread, so that calls
+   *     that block don't limit how many calls are in progress. On versions of Java without virtual
+   *     threads, or where they are a preview feature that isn't enabled, calls run on a shared,
+   *     unbounded pool of daemon platform threads instead
+   */
+  public static Executor defaultExecutor() {
+    return DEFAULT_EXECUTOR;
+  }
+
+  /**
+   * @param executor that runs the call
+   * @param call to run
+   * @return a {@link CompletableFuture} that is completed with the result of the call, or with
+   *     whatever it throws, including checked exceptions and a {@link RejectedExecutionException}
+   *     if the executor doesn't accept it
+   */
+  public static <T> CompletableFuture<T> submit(
+      final Executor executor, final Callable<? extends T> call) {
+    Objects.requireNonNull(call);
+    final var future = new CompletableFuture<T>();
+    try {
+      executor.execute(
+          () -> {
+            try {
+              future.complete(call.call());
+            } catch (Throwable t) {
+              future.completeExceptionally(t);
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      future.completeExceptionally(e);
+    }
+    return future;
+  }
+
+  private static Executor createDefaultExecutor() {
+    final MethodHandle newVirtualThreadPerTaskExecutor;
+    try {
+      newVirtualThreadPerTaskExecutor =
+          MethodHandles.publicLookup()
+              .findStatic(
+                  Executors.class,
+                  "newVirtualThreadPerTaskExecutor",
+                  MethodType.methodType(ExecutorService.class));
+    } catch (NoSuchMethodException e) {
+      return platformThreadExecutor();
+    } catch (IllegalAccessException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+    return createDefaultExecutor(
+        () -> {
+          try {
+            return (ExecutorService) newVirtualThreadPerTaskExecutor.invokeExact();
+          } catch (RuntimeException | Error e) {
+            throw e;
+          } catch (Throwable t) {
+            throw new UndeclaredThrowableException(t);
+          }
+        });
+  }
+
+  /**
+   * @param virtualThreadExecutor creates an {@link Executor} that runs each call on a new virtual
+   *     thread
+   * @return the created {@link Executor}, or the {@link #platformThreadExecutor()} if virtual
+   *     threads can't be created, as on Java 19 and 20, where they are a preview feature whose
+   *     factory throws an {@link UnsupportedOperationException} unless previews are enabled
+   */
+  static Executor createDefaultExecutor(final Supplier<? extends Executor> virtualThreadExecutor) {
+    try {
+      return virtualThreadExecutor.get();
+    } catch (RuntimeException e) {
+      return platformThreadExecutor();
+    }
+  }
+
+  /**
+   * @return a new, unbounded pool of daemon platform threads
+   */
+  static Executor platformThreadExecutor() {
+    final var threadCount = new AtomicInteger();
+    return Executors.newCachedThreadPool(
+        runnable -> {
+          final var thread =
+              new Thread(runnable, "auto-delegate-async-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+}
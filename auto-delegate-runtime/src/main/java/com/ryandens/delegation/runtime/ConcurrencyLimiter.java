@@ -0,0 +1,284 @@
+package com.ryandens.delegation.runtime;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits how many calls to a delegate are in flight at once, so that an overloaded delegate queues
+ * work up to a bound rather than letting latency grow without one. A call {@link #acquire()
+ * acquires} a permit, and passes it to {@link #release(long)} once it completes, even if it throws.
+ * Calls over the limit either fail fast or wait for a permit up to a maximum duration, after which
+ * they are rejected with a {@link RejectedExecutionException}. Acquiring a permit while under the
+ * limit is a single compare-and-set, and the lock that waiting calls are woken up with is only
+ * taken while a call is waiting.
+ *
+ * <p>A {@link #fixed(int, Duration) fixed} limiter never changes its limit. An {@link #aimd(int,
+ * int, Duration, Duration) AIMD} limiter increases its limit by one for each call that completes
+ * within a latency threshold while the limit is being used, and decreases it by a tenth for a call
+ * that doesn't. Calls that started before the last decrease don't decrease it again, so a burst of
+ * slow calls that were in flight at once decreases it once rather than once per call. A {@link
+ * #vegas(int, int, Duration) Vegas} limiter estimates how many calls are queued within the delegate
+ * from the ratio of the minimum latency it has observed to the latency of each call, increasing its
+ * limit while fewer than 3 calls are queued and decreasing it while more than 6 are.
+ *
+ * <p>Thread-safe
+ */
+public final class ConcurrencyLimiter {
+
+  private static final double AIMD_BACKOFF = 0.9;
+  private static final int VEGAS_ALPHA = 3;
+  private static final int VEGAS_BETA = 6;
+
+  private enum Strategy {
+    FIXED,
+    AIMD,
+    VEGAS
+  }
+
+  private final Strategy strategy;
+  private final int maxLimit;
+  private final long latencyThresholdNanos;
+  private final long maxWaitNanos;
+  private final LongSupplier nanoTime;
+  private final AtomicInteger limit;
+  private final AtomicInteger inFlight;
+  private final AtomicLong minLatencyNanos;
+  // when the AIMD limit was last decreased, so that calls that started earlier don't decrease it
+  private final AtomicLong lastDecreaseNanos;
+  private final AtomicInteger waiting;
+  private final ReentrantLock lock;
+  private final Condition released;
+
+  private ConcurrencyLimiter(
+      final Strategy strategy,
+      final int initialLimit,
+      final int maxLimit,
+      final Duration latencyThreshold,
+      final Duration maxWait,
+      final LongSupplier nanoTime) {
+    if (initialLimit < 1 || initialLimit > maxLimit) {
+      throw new IllegalArgumentException(
+          "The limit must be between 1 and " + maxLimit + ", but was " + initialLimit);
+    } else if (latencyThreshold.isNegative() || maxWait.isNegative()) {
+      throw new IllegalArgumentException("Durations must not be negative");
+    }
+    this.strategy = Objects.requireNonNull(strategy);
+    this.maxLimit = maxLimit;
+    this.latencyThresholdNanos = latencyThreshold.toNanos();
+    this.maxWaitNanos = maxWait.toNanos();
+    this.nanoTime = Objects.requireNonNull(nanoTime);
+    this.limit = new AtomicInteger(initialLimit);
+    this.inFlight = new AtomicInteger();
+    this.minLatencyNanos = new AtomicLong(Long.MAX_VALUE);
+    this.lastDecreaseNanos = new AtomicLong(nanoTime.getAsLong());
+    this.waiting = new AtomicInteger();
+    this.lock = new ReentrantLock();
+    this.released = lock.newCondition();
+  }
+
+  /**
+   * @param limit the maximum number of calls in flight
+   * @param maxWait how long calls over the limit wait for a permit, or zero to fail fast
+   * @return a limiter whose limit never changes
+   * @throws IllegalArgumentException if the limit is not positive or the duration is negative
+   */
+  public static ConcurrencyLimiter fixed(final int limit, final Duration maxWait) {
+    return new ConcurrencyLimiter(
+        Strategy.FIXED, limit, limit, Duration.ZERO, maxWait, System::nanoTime);
+  }
+
+  /**
+   * @param initialLimit the limit until calls complete
+   * @param maxLimit the limit the limit may grow to
+   * @param latencyThreshold the latency above which a call is considered a sign of overload
+   * @param maxWait how long calls over the limit wait for a permit, or zero to fail fast
+   * @return a limiter whose limit increases additively while calls complete within the latency
+   *     threshold, and decreases multiplicatively when they don't
+   * @throws IllegalArgumentException if the initial limit is not between 1 and the maximum limit,
+   *     or either duration is negative
+   */
+  public static ConcurrencyLimiter aimd(
+      final int initialLimit,
+      final int maxLimit,
+      final Duration latencyThreshold,
+      final Duration maxWait) {
+    return aimd(initialLimit, maxLimit, latencyThreshold, maxWait, System::nanoTime);
+  }
+
+  static ConcurrencyLimiter aimd(
+      final int initialLimit,
+      final int maxLimit,
+      final Duration latencyThreshold,
+      final Duration maxWait,
+      final LongSupplier nanoTime) {
+    return new ConcurrencyLimiter(
+        Strategy.AIMD, initialLimit, maxLimit, latencyThreshold, maxWait, nanoTime);
+  }
+
+  /**
+   * @param initialLimit the limit until calls complete
+   * @param maxLimit the limit the limit may grow to
+   * @param maxWait how long calls over the limit wait for a permit, or zero to fail fast
+   * @return a limiter whose limit follows the number of calls that the delegate appears to queue
+   *     rather than process, as estimated from their latency
+   * @throws IllegalArgumentException if the initial limit is not between 1 and the maximum limit,
+   *     or the duration is negative
+   */
+  public static ConcurrencyLimiter vegas(
+      final int initialLimit, final int maxLimit, final Duration maxWait) {
+    return vegas(initialLimit, maxLimit, maxWait, System::nanoTime);
+  }
+
+  static ConcurrencyLimiter vegas(
+      final int initialLimit,
+      final int maxLimit,
+      final Duration maxWait,
+      final LongSupplier nanoTime) {
+    return new ConcurrencyLimiter(
+        Strategy.VEGAS, initialLimit, maxLimit, Duration.ZERO, maxWait, nanoTime);
+  }
+
+  /**
+   * @return a permit for the current call, which must be passed to {@link #release(long)} once the
+   *     call completes
+   * @throws RejectedExecutionException if the limit is reached and no permit is released in time
+   * @throws IllegalStateException if the current thread is interrupted while waiting for a permit
+   */
+  public long acquire() {
+    if (!tryAcquire()) {
+      awaitPermit();
+    }
+    // adaptive limiters measure the latency of each call from the start time held by its permit
+    return strategy == Strategy.FIXED ? 0L : nanoTime.getAsLong();
+  }
+
+  /**
+   * Releases a permit acquired by {@link #acquire()}, adjusting the limit of an adaptive limiter by
+   * the latency of the call
+   *
+   * @param permit returned by {@link #acquire()}
+   */
+  public void release(final long permit) {
+    if (strategy != Strategy.FIXED) {
+      adjustLimit(permit, nanoTime.getAsLong());
+    }
+    inFlight.decrementAndGet();
+    // a call that starts waiting after this check retries acquiring a permit before it waits, so it
+    // can't miss the one released above
+    if (waiting.get() > 0) {
+      lock.lock();
+      try {
+        released.signal();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * @return the current limit
+   */
+  public int limit() {
+    return limit.get();
+  }
+
+  /**
+   * @return the number of calls in flight
+   */
+  public int inFlight() {
+    return inFlight.get();
+  }
+
+  private boolean tryAcquire() {
+    while (true) {
+      final int current = inFlight.get();
+      if (current >= limit.get()) {
+        return false;
+      } else if (inFlight.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  private void awaitPermit() {
+    if (maxWaitNanos == 0L) {
+      throw rejected();
+    }
+    lock.lock();
+    waiting.incrementAndGet();
+    try {
+      long remainingNanos = maxWaitNanos;
+      while (!tryAcquire()) {
+        if (remainingNanos <= 0L) {
+          throw rejected();
+        }
+        remainingNanos = released.awaitNanos(remainingNanos);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for a permit", e);
+    } finally {
+      waiting.decrementAndGet();
+      lock.unlock();
+    }
+  }
+
+  private RejectedExecutionException rejected() {
+    return new RejectedExecutionException(
+        "Concurrency limit of " + limit.get() + " calls in flight reached");
+  }
+
+  private void adjustLimit(final long startNanos, final long endNanos) {
+    final long latencyNanos = endNanos - startNanos;
+    // the limit is only increased while it is being used, so that it doesn't grow unboundedly
+    // while the delegate is underused
+    final boolean used = inFlight.get() * 2 >= limit.get();
+    final boolean overloaded;
+    final boolean underused;
+    if (strategy == Strategy.AIMD) {
+      underused = latencyNanos <= latencyThresholdNanos;
+      // a slow call only decreases the limit if it started after the last decrease, as calls that
+      // were in flight at the time were slowed down by the same overload
+      overloaded = !underused && claimDecrease(startNanos, endNanos);
+    } else {
+      long minLatency = minLatencyNanos.get();
+      while (latencyNanos < minLatency
+          && !minLatencyNanos.compareAndSet(minLatency, latencyNanos)) {
+        minLatency = minLatencyNanos.get();
+      }
+      minLatency = Math.min(minLatency, latencyNanos);
+      // the number of calls the delegate queued rather than processed, by Little's law
+      final double queued =
+          latencyNanos == 0L ? 0 : limit.get() * (1 - (double) minLatency / latencyNanos);
+      overloaded = queued > VEGAS_BETA;
+      underused = queued < VEGAS_ALPHA;
+    }
+    while (true) {
+      final int current = limit.get();
+      final int updated;
+      if (overloaded) {
+        updated =
+            Math.max(1, strategy == Strategy.AIMD ? (int) (current * AIMD_BACKOFF) : current - 1);
+      } else if (underused && used) {
+        updated = Math.min(maxLimit, current + 1);
+      } else {
+        return;
+      }
+      if (updated == current || limit.compareAndSet(current, updated)) {
+        return;
+      }
+    }
+  }
+
+  private boolean claimDecrease(final long startNanos, final long endNanos) {
+    final long lastDecrease = lastDecreaseNanos.get();
+    return startNanos - lastDecrease >= 0L
+        && lastDecreaseNanos.compareAndSet(lastDecrease, endNanos);
+  }
+}
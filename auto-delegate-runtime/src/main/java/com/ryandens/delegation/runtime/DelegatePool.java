@@ -0,0 +1,184 @@
+package com.ryandens.delegation.runtime;
+
+import java.util.Objects;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * Pool of instances of a type that isn't thread-safe and is too expensive to create one of per
+ * thread, such as a compressor or a connection, each of which is borrowed for the duration of a
+ * call. Instances are created on demand, and idle instances are kept in an array of slots that is
+ * claimed and filled with compare-and-set. Each thread starts searching the slots at an offset
+ * spread from its ID, so that threads borrowing and returning instances concurrently mostly touch
+ * different slots, rather than contending on the head of a single free list.
+ *
+ * <p>A {@link #blocking(Supplier, int) blocking} pool creates at most a fixed number of instances,
+ * and a call that finds all of them borrowed waits for one to be returned. A {@link
+ * #growing(Supplier, int) growing} pool creates a new instance instead of waiting, and keeps at
+ * most a fixed number of them once they are returned, leaving the rest to the garbage collector.
+ *
+ * <p>Thread-safe
+ */
+public final class DelegatePool<T> {
+
+  private final Supplier<? extends T> factory;
+  private final AtomicReferenceArray<T> idleInstances;
+  private final Semaphore available;
+  private final AtomicInteger createdInstances;
+
+  private DelegatePool(
+      final Supplier<? extends T> factory, final int slots, final boolean blocking) {
+    if (slots < 1) {
+      throw new IllegalArgumentException("Pool size must be positive, but was " + slots);
+    }
+    this.factory = Objects.requireNonNull(factory);
+    this.idleInstances = new AtomicReferenceArray<>(slots);
+    this.available = blocking ? new Semaphore(slots) : null;
+    this.createdInstances = new AtomicInteger();
+  }
+
+  /**
+   * @param factory that creates a new instance each time it is called
+   * @param size the maximum number of instances, which are only created when every existing
+   *     instance is borrowed
+   * @return a pool whose calls wait for an instance to be returned once all of them are borrowed
+   * @throws IllegalArgumentException if the size is not positive
+   */
+  public static <T> DelegatePool<T> blocking(final Supplier<? extends T> factory, final int size) {
+    return new DelegatePool<>(factory, size, true);
+  }
+
+  /**
+   * @param factory that creates a new instance each time it is called
+   * @param maxIdleInstances the maximum number of idle instances kept once they are returned
+   * @return a pool whose calls create a new instance when all of them are borrowed
+   * @throws IllegalArgumentException if the maximum number of idle instances is not positive
+   */
+  public static <T> DelegatePool<T> growing(
+      final Supplier<? extends T> factory, final int maxIdleInstances) {
+    return new DelegatePool<>(factory, maxIdleInstances, false);
+  }
+
+  /**
+   * @return an idle instance, or a new one if there is none and the pool may create one, which must
+   *     be passed to {@link #release(Object)} once the current call completes
+   * @throws IllegalStateException if the current thread is interrupted while waiting for an
+   *     instance to be returned to a blocking pool
+   */
+  public T acquire() {
+    if (available == null) {
+      final T idleInstance = poll();
+      return idleInstance != null ? idleInstance : create();
+    }
+    try {
+      available.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for a pooled instance", e);
+    }
+    try {
+      // holding a permit guarantees that an instance is idle or may be created, but one that is
+      // returned concurrently may be missed by a single pass over the slots
+      while (true) {
+        final T idleInstance = poll();
+        if (idleInstance != null) {
+          return idleInstance;
+        }
+        final int created = createdInstances.get();
+        if (created < idleInstances.length()
+            && createdInstances.compareAndSet(created, created + 1)) {
+          try {
+            return create();
+          } catch (RuntimeException | Error e) {
+            createdInstances.decrementAndGet();
+            throw e;
+          }
+        }
+        Thread.onSpinWait();
+      }
+    } catch (RuntimeException | Error e) {
+      available.release();
+      throw e;
+    }
+  }
+
+  /**
+   * Returns an instance borrowed by {@link #acquire()} to the pool
+   *
+   * @param instance returned by {@link #acquire()}
+   */
+  public void release(final T instance) {
+    Objects.requireNonNull(instance);
+    if (available == null) {
+      // the instance is discarded if the pool already holds the maximum number of idle instances
+      offer(instance);
+      return;
+    }
+    // a blocking pool always has a slot for each of its instances, but one that is emptied
+    // concurrently may be missed by a single pass over the slots
+    while (!offer(instance)) {
+      Thread.onSpinWait();
+    }
+    available.release();
+  }
+
+  /**
+   * @return the number of instances this pool has created, or the number it holds at most once they
+   *     are returned if it is growing
+   */
+  public int size() {
+    return available == null ? idleInstances.length() : createdInstances.get();
+  }
+
+  /**
+   * @return the number of instances that are not borrowed
+   */
+  public int idleInstances() {
+    int idle = 0;
+    for (int slot = 0; slot < idleInstances.length(); slot++) {
+      if (idleInstances.get(slot) != null) {
+        idle++;
+      }
+    }
+    return idle;
+  }
+
+  private T poll() {
+    final int slots = idleInstances.length();
+    final int start = startSlot(slots);
+    for (int i = 0; i < slots; i++) {
+      final int slot = (start + i) % slots;
+      final T idleInstance = idleInstances.get(slot);
+      if (idleInstance != null && idleInstances.compareAndSet(slot, idleInstance, null)) {
+        return idleInstance;
+      }
+    }
+    return null;
+  }
+
+  private boolean offer(final T instance) {
+    final int slots = idleInstances.length();
+    final int start = startSlot(slots);
+    for (int i = 0; i < slots; i++) {
+      final int slot = (start + i) % slots;
+      if (idleInstances.get(slot) == null && idleInstances.compareAndSet(slot, null, instance)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private T create() {
+    return Objects.requireNonNull(factory.get(), "Factory returned null");
+  }
+
+  /**
+   * @return the slot the current thread starts searching from, spread from its ID by multiplying by
+   *     the golden ratio so that threads with consecutive IDs start far apart
+   */
+  private static int startSlot(final int slots) {
+    return (int) ((Thread.currentThread().getId() * 0x9E3779B97F4A7C15L) >>> 33) % slots;
+  }
+}
@@ -0,0 +1,198 @@
+package com.ryandens.delegation.runtime;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-method invocation counters and latency histograms for the forwarding methods of a generated
+ * class. Each forwarding method is identified by a stable {@code int} ID assigned at compile time,
+ * which indexes into arrays of {@link LongAdder}s so that recording an invocation never contends on
+ * a shared counter. The number of invocations of a method is the sum of its histogram, so each
+ * invocation increments a single counter.
+ *
+ * <p>Histograms and their buckets are allocated on first use, so that metrics of generated classes
+ * that are instantiated often, such as per request or per collection, only cost a reference per
+ * method until a method is invoked, and then a {@link LongAdder} per bucket its latencies fall
+ * into, which is usually a handful.
+ *
+ * <p>Latencies are recorded into {@value #BUCKET_COUNT} fixed buckets with power-of-two upper
+ * bounds in nanoseconds. Bucket {@code 0} holds latencies of {@code 0} nanoseconds, bucket {@code
+ * i} holds latencies in {@code [2^(i-1), 2^i)} nanoseconds, and the last bucket holds all latencies
+ * of at least {@code 2^(BUCKET_COUNT - 2)} nanoseconds (roughly one second).
+ *
+ * <p>When only a sample of invocations is recorded, e.g. 1 in every {@link #sampleRate()}
+ * invocations, {@link #count(int)} extrapolates the number of recorded invocations to estimate the
+ * total number of invocations, while {@link #histogram(int)} holds the recorded samples.
+ *
+ * <p>Thread-safe
+ */
+public final class DelegationMetrics {
+
+  /** Number of buckets in each latency histogram */
+  public static final int BUCKET_COUNT = 32;
+
+  private final int sampleRate;
+  private final List<String> methodNames;
+  // the buckets of the histogram of each method, allocated on first use
+  private final AtomicReferenceArray<AtomicReferenceArray<LongAdder>> histograms;
+
+  /**
+   * @param methodNames the names of the instrumented methods, where the index of each name is the
+   *     ID of that method
+   */
+  public DelegationMetrics(final String... methodNames) {
+    this(1, methodNames);
+  }
+
+  /**
+   * @param sampleRate the average number of invocations per recorded invocation
+   * @param methodNames the names of the instrumented methods, where the index of each name is the
+   *     ID of that method
+   * @throws IllegalArgumentException if the sample rate is not positive
+   */
+  public DelegationMetrics(final int sampleRate, final String... methodNames) {
+    if (sampleRate < 1) {
+      throw new IllegalArgumentException("Sample rate must be positive, but was " + sampleRate);
+    }
+    this.sampleRate = sampleRate;
+    this.methodNames = List.of(methodNames);
+    this.histograms = new AtomicReferenceArray<>(methodNames.length);
+  }
+
+  /**
+   * Records a single invocation of the method identified by {@code methodId}
+   *
+   * @param methodId the ID of the invoked method
+   * @param elapsedNanos how long the invocation took
+   */
+  public void record(final int methodId, final long elapsedNanos) {
+    var histogram = histograms.get(methodId);
+    if (histogram == null) {
+      histograms.compareAndSet(methodId, null, new AtomicReferenceArray<>(BUCKET_COUNT));
+      histogram = histograms.get(methodId);
+    }
+    final int bucket = bucket(elapsedNanos);
+    var counter = histogram.get(bucket);
+    if (counter == null) {
+      histogram.compareAndSet(bucket, null, new LongAdder());
+      counter = histogram.get(bucket);
+    }
+    counter.increment();
+  }
+
+  /**
+   * @return the average number of invocations per recorded invocation, {@code 1} if every
+   *     invocation is recorded
+   */
+  public int sampleRate() {
+    return sampleRate;
+  }
+
+  /**
+   * @return the number of instrumented methods
+   */
+  public int methodCount() {
+    return methodNames.size();
+  }
+
+  /**
+   * @return the name of the method identified by {@code methodId}
+   */
+  public String methodName(final int methodId) {
+    return methodNames.get(methodId);
+  }
+
+  /**
+   * @return the ID of the method with the provided name
+   * @throws IllegalArgumentException if no instrumented method has the provided name
+   */
+  public int methodId(final String methodName) {
+    final int methodId = methodNames.indexOf(Objects.requireNonNull(methodName));
+    if (methodId < 0) {
+      throw new IllegalArgumentException(
+          "No instrumented method named " + methodName + " in " + methodNames);
+    }
+    return methodId;
+  }
+
+  /**
+   * @return the estimated number of invocations of the method identified by {@code methodId},
+   *     extrapolated from the number of recorded invocations by the {@link #sampleRate()}
+   */
+  public long count(final int methodId) {
+    return sampledCount(methodId) * sampleRate;
+  }
+
+  /**
+   * @return the number of recorded invocations of the method identified by {@code methodId}
+   */
+  public long sampledCount(final int methodId) {
+    long sampledCount = 0;
+    for (long bucketCount : histogram(methodId)) {
+      sampledCount += bucketCount;
+    }
+    return sampledCount;
+  }
+
+  /**
+   * @return a snapshot of the latency histogram of the method identified by {@code methodId}, where
+   *     each element is the number of recorded invocations in the bucket at that index
+   */
+  public long[] histogram(final int methodId) {
+    final long[] snapshot = new long[BUCKET_COUNT];
+    final var histogram = histograms.get(methodId);
+    if (histogram != null) {
+      for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+        final var counter = histogram.get(bucket);
+        snapshot[bucket] = counter == null ? 0 : counter.sum();
+      }
+    }
+    return snapshot;
+  }
+
+  /**
+   * @return the exclusive upper bound in nanoseconds of latencies recorded in the provided bucket,
+   *     or {@link Long#MAX_VALUE} for the last bucket
+   */
+  public static long bucketUpperBoundNanos(final int bucket) {
+    Objects.checkIndex(bucket, BUCKET_COUNT);
+    return bucket == BUCKET_COUNT - 1 ? Long.MAX_VALUE : 1L << bucket;
+  }
+
+  /** Resets all counters and histograms to zero */
+  public void reset() {
+    for (int methodId = 0; methodId < histograms.length(); methodId++) {
+      final var histogram = histograms.get(methodId);
+      if (histogram == null) {
+        continue;
+      }
+      for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+        final var counter = histogram.get(bucket);
+        if (counter != null) {
+          counter.reset();
+        }
+      }
+    }
+  }
+
+  private static int bucket(final long elapsedNanos) {
+    // the number of significant bits is 0 for 0ns, 1 for 1ns, 2 for 2-3ns, 3 for 4-7ns and so on.
+    // Negative values are treated as 0ns
+    final int significantBits = Long.SIZE - Long.numberOfLeadingZeros(Math.max(elapsedNanos, 0));
+    return Math.min(significantBits, BUCKET_COUNT - 1);
+  }
+
+  @Override
+  public String toString() {
+    final var builder = new StringBuilder("DelegationMetrics{");
+    for (int methodId = 0; methodId < histograms.length(); methodId++) {
+      if (methodId > 0) {
+        builder.append(", ");
+      }
+      builder.append(methodNames.get(methodId)).append('=').append(count(methodId));
+    }
+    return builder.append('}').toString();
+  }
+}
@@ -0,0 +1,95 @@
+package com.ryandens.delegation.runtime;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A call forwarded by a generated class that broadcasts in parallel to one of its delegates, which
+ * runs on an {@link Executor}. The call never runs on the thread that waits for it, so calls that
+ * block, such as I/O, overlap regardless of what the waiting threads do. Unlike {@link
+ * CompletableFuture#join()}, {@link #join()} rethrows whatever the call throws as is, including
+ * checked exceptions, so that generated classes can rethrow the exceptions declared by the API they
+ * forward.
+ *
+ * <p>Thread-safe
+ */
+public final class ForkedCall<T> {
+
+  private final CompletableFuture<T> future;
+
+  private ForkedCall(final CompletableFuture<T> future) {
+    this.future = future;
+  }
+
+  /**
+   * @param call to run
+   * @return a {@link ForkedCall} that runs the provided call on the {@link
+   *     AsyncCalls#defaultExecutor()}
+   */
+  public static <T> ForkedCall<T> fork(final Callable<? extends T> call) {
+    return fork(AsyncCalls.defaultExecutor(), call);
+  }
+
+  /**
+   * @param executor that runs the call
+   * @param call to run
+   * @return a {@link ForkedCall} that runs the provided call on the provided executor. If the
+   *     executor doesn't accept it, {@link #join()} throws a {@link RejectedExecutionException}
+   */
+  public static <T> ForkedCall<T> fork(final Executor executor, final Callable<? extends T> call) {
+    return new ForkedCall<>(AsyncCalls.submit(executor, call));
+  }
+
+  /**
+   * Waits for each of the provided calls to complete, without throwing what they throw, so that no
+   * call is still running when the caller fails. If the current thread is interrupted while
+   * waiting, it keeps waiting and its interrupt status is restored afterwards
+   */
+  public static void awaitAll(final List<? extends ForkedCall<?>> forkedCalls) {
+    boolean interrupted = false;
+    for (ForkedCall<?> forkedCall : forkedCalls) {
+      while (true) {
+        try {
+          forkedCall.future.get();
+          break;
+        } catch (ExecutionException e) {
+          break;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Waits for the call to complete
+   *
+   * @return the result of the call
+   * @throws Exception the exception thrown by the call, as is
+   * @throws IllegalStateException if the current thread is interrupted while waiting
+   */
+  public T join() throws Exception {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      final var cause = e.getCause();
+      if (cause instanceof Exception) {
+        throw (Exception) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new UndeclaredThrowableException(cause);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for a forked call", e);
+    }
+  }
+}
@@ -0,0 +1,229 @@
+package com.ryandens.delegation.runtime;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hedges calls to a primary delegate with a secondary one, such as two replicas of the same data,
+ * to cut the tail latency of calls that are safe to repeat, such as reads. A {@link #call(Call)
+ * call} runs against the primary on an {@link Executor}, and if it hasn't completed once a delay
+ * has passed, the same call runs against the secondary. The first call to return wins, and the
+ * other is cancelled by interrupting it. The delay is a streaming estimate of a quantile of the
+ * latency of calls, such as the 95th percentile, so only about that fraction of calls is hedged,
+ * and the load on the delegates grows by about as much. Calls aren't hedged until {@value
+ * #WARM_UP_CALLS} calls have completed, so that the estimate is seeded first.
+ *
+ * <p>Thread-safe
+ */
+public final class Hedger<T> {
+
+  /** The number of calls that complete before calls are hedged */
+  public static final int WARM_UP_CALLS = 32;
+
+  /**
+   * A call to a delegate, which may throw checked exceptions
+   *
+   * @param <T> the type of the delegate
+   * @param <R> the type of the result of the call
+   */
+  @FunctionalInterface
+  public interface Call<T, R> {
+
+    /**
+     * @param delegate to call
+     * @return the result of the call
+     * @throws Exception if the call fails
+     */
+    R call(T delegate) throws Exception;
+  }
+
+  private final T primary;
+  private final T secondary;
+  private final long minDelayNanos;
+  private final Executor executor;
+  private final StreamingQuantile latencies;
+  private final AtomicInteger warmUpCalls;
+  private final LongAdder hedgedCalls;
+  private volatile boolean warm;
+
+  private Hedger(
+      final T primary,
+      final T secondary,
+      final double quantile,
+      final Duration minDelay,
+      final Executor executor) {
+    if (minDelay.isNegative()) {
+      throw new IllegalArgumentException("The minimum delay must not be negative");
+    }
+    this.primary = Objects.requireNonNull(primary);
+    this.secondary = Objects.requireNonNull(secondary);
+    this.minDelayNanos = minDelay.toNanos();
+    this.executor = Objects.requireNonNull(executor);
+    this.latencies = new StreamingQuantile(quantile);
+    this.warmUpCalls = new AtomicInteger();
+    this.hedgedCalls = new LongAdder();
+  }
+
+  /**
+   * @param primary delegate that every call is sent to
+   * @param secondary delegate that slow calls are also sent to
+   * @param quantile of the latency of calls after which they are hedged, such as {@code 0.95}
+   * @return a hedger that runs calls on the {@link AsyncCalls#defaultExecutor()}
+   * @throws IllegalArgumentException if the quantile is not between 0 and 1, exclusive
+   */
+  public static <T> Hedger<T> create(final T primary, final T secondary, final double quantile) {
+    return create(primary, secondary, quantile, Duration.ZERO, AsyncCalls.defaultExecutor());
+  }
+
+  /**
+   * @param primary delegate that every call is sent to
+   * @param secondary delegate that slow calls are also sent to
+   * @param quantile of the latency of calls after which they are hedged, such as {@code 0.95}
+   * @param minDelay before a call is hedged, regardless of the estimated quantile, e.g. so that
+   *     calls that are fast regardless aren't hedged
+   * @param executor that runs the calls to both delegates
+   * @return a hedger
+   * @throws IllegalArgumentException if the quantile is not between 0 and 1, exclusive, or the
+   *     minimum delay is negative
+   */
+  public static <T> Hedger<T> create(
+      final T primary,
+      final T secondary,
+      final double quantile,
+      final Duration minDelay,
+      final Executor executor) {
+    return new Hedger<>(primary, secondary, quantile, minDelay, executor);
+  }
+
+  /**
+   * @param call to send to the primary delegate, and to the secondary one if the primary is slow
+   * @return the result of the first call to return
+   * @throws Exception the exception thrown by the primary call if it fails before the call is
+   *     hedged, or otherwise the first exception thrown if both calls fail, as is
+   * @throws RejectedExecutionException if the executor doesn't accept the primary call
+   * @throws IllegalStateException if the current thread is interrupted while waiting for a result
+   */
+  public <R> R call(final Call<? super T, ? extends R> call) throws Exception {
+    final long start = System.nanoTime();
+    final var race = new Race<R>();
+    final var primaryCall = race.start(executor, call, primary);
+    FutureTask<Void> secondaryCall = null;
+    try {
+      if (warm) {
+        try {
+          return race.result.get(
+              Math.max(minDelayNanos, latencies.estimate()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+          hedgedCalls.increment();
+          try {
+            secondaryCall = race.start(executor, call, secondary);
+          } catch (RejectedExecutionException rejected) {
+            // the primary call may still complete
+          }
+        }
+      }
+      return race.result.get();
+    } catch (ExecutionException e) {
+      final var cause = e.getCause();
+      if (cause instanceof Exception) {
+        throw (Exception) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new UndeclaredThrowableException(cause);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for a hedged call", e);
+    } finally {
+      primaryCall.cancel(true);
+      if (secondaryCall != null) {
+        secondaryCall.cancel(true);
+      }
+      recordLatency(System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * @return the delegate that every call is sent to, e.g. for calls that must not be repeated
+   */
+  public T primary() {
+    return primary;
+  }
+
+  /**
+   * @return the delegate that slow calls are also sent to
+   */
+  public T secondary() {
+    return secondary;
+  }
+
+  /**
+   * @return the number of calls that have been hedged
+   */
+  public long hedgedCalls() {
+    return hedgedCalls.sum();
+  }
+
+  private void recordLatency(final long latency) {
+    // a hedged call is recorded by the latency it was observed with, which is a lower bound of the
+    // latency of its primary call. As both exceed the delay, and so the estimate, the estimate is
+    // adjusted as it would have been by the latency of the primary call
+    latencies.record(latency);
+    if (!warm && warmUpCalls.incrementAndGet() >= WARM_UP_CALLS) {
+      warm = true;
+    }
+  }
+
+  /** The calls to both delegates, the first of which to return completes the result */
+  private static final class Race<R> {
+
+    private final CompletableFuture<R> result = new CompletableFuture<>();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    <T> FutureTask<Void> start(
+        final Executor executor, final Call<? super T, ? extends R> call, final T delegate) {
+      running.incrementAndGet();
+      final var task =
+          new FutureTask<Void>(
+              () -> {
+                try {
+                  result.complete(call.call(delegate));
+                } catch (Throwable t) {
+                  failure.compareAndSet(null, t);
+                }
+                finished();
+              },
+              null);
+      try {
+        executor.execute(task);
+      } catch (RejectedExecutionException e) {
+        finished();
+        throw e;
+      }
+      return task;
+    }
+
+    private void finished() {
+      // the result is only completed with a failure once every call has failed, as the other call
+      // may still succeed
+      if (running.decrementAndGet() == 0) {
+        final var firstFailure = failure.get();
+        if (firstFailure != null) {
+          result.completeExceptionally(firstFailure);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,223 @@
+package com.ryandens.delegation.runtime;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Routes each call to one of a fixed set of interchangeable delegates, such as several smaller
+ * thread pools that together replace one big pool, so that callers contend on different delegates.
+ * A call {@link #acquire() acquires} a ticket that names the chosen delegate, and passes it to
+ * {@link #release(long)} once the call completes, even if it throws. Tickets are plain {@code long}
+ * values, so routing a call doesn't allocate.
+ *
+ * <p>A {@link #roundRobin(List) round-robin} balancer cycles through the delegates with a single
+ * atomic counter. A {@link #powerOfTwoChoices(List) power-of-two-choices} balancer picks two
+ * delegates at random and routes to the one with fewer calls in flight, which avoids the herding of
+ * always choosing the least loaded delegate. A {@link #leastLatency(List) least-latency} balancer
+ * picks two delegates at random in the same way, and routes to the one whose exponentially weighted
+ * moving average (EWMA) latency, multiplied by its calls in flight, is lower. Every counter is
+ * padded onto its own cache lines, so that concurrent calls to different delegates don't contend
+ * through false sharing.
+ *
+ * <p>Thread-safe
+ */
+public final class LoadBalancer<T> {
+
+  /**
+   * The maximum number of delegates, as the index of the chosen delegate is held by the low bits of
+   * a ticket
+   */
+  public static final int MAX_DELEGATES = 1 << 16;
+
+  private static final int INDEX_BITS = 16;
+  private static final long INDEX_MASK = MAX_DELEGATES - 1;
+  // 128 bytes between counters, and between the first counter and the header of the array, which
+  // is read by every bounds check, as adjacent cache lines may be prefetched together
+  private static final int LONG_STRIDE = 16;
+  private static final int INT_STRIDE = 32;
+  // the weight of the latency of the latest call in the moving average
+  private static final double LATENCY_WEIGHT = 0.2;
+
+  private enum Strategy {
+    ROUND_ROBIN,
+    POWER_OF_TWO_CHOICES,
+    LEAST_LATENCY
+  }
+
+  private final Object[] delegates;
+  private final Strategy strategy;
+  private final LongSupplier nanoTime;
+  // a single counter, padded on both sides
+  private final AtomicLongArray nextIndex;
+  private final AtomicIntegerArray inFlight;
+  // the moving average latency of each delegate in nanoseconds, as the bits of a double
+  private final AtomicLongArray latencies;
+
+  private LoadBalancer(
+      final List<? extends T> delegates, final Strategy strategy, final LongSupplier nanoTime) {
+    this.delegates = List.copyOf(delegates).toArray();
+    if (this.delegates.length == 0 || this.delegates.length > MAX_DELEGATES) {
+      throw new IllegalArgumentException(
+          "The number of delegates must be between 1 and "
+              + MAX_DELEGATES
+              + ", but was "
+              + this.delegates.length);
+    }
+    this.strategy = Objects.requireNonNull(strategy);
+    this.nanoTime = Objects.requireNonNull(nanoTime);
+    this.nextIndex = strategy == Strategy.ROUND_ROBIN ? new AtomicLongArray(2 * LONG_STRIDE) : null;
+    this.inFlight =
+        strategy == Strategy.ROUND_ROBIN
+            ? null
+            : new AtomicIntegerArray((this.delegates.length + 2) * INT_STRIDE);
+    this.latencies =
+        strategy == Strategy.LEAST_LATENCY
+            ? new AtomicLongArray((this.delegates.length + 2) * LONG_STRIDE)
+            : null;
+  }
+
+  /**
+   * @param delegates to route calls to, in the order they are cycled through
+   * @return a balancer that routes calls to each delegate in turn
+   * @throws IllegalArgumentException if there are no delegates, or more than {@link #MAX_DELEGATES}
+   */
+  public static <T> LoadBalancer<T> roundRobin(final List<? extends T> delegates) {
+    return new LoadBalancer<>(delegates, Strategy.ROUND_ROBIN, System::nanoTime);
+  }
+
+  /**
+   * @param delegates to route calls to
+   * @return a balancer that routes each call to the delegate with fewer calls in flight out of two
+   *     chosen at random
+   * @throws IllegalArgumentException if there are no delegates, or more than {@link #MAX_DELEGATES}
+   */
+  public static <T> LoadBalancer<T> powerOfTwoChoices(final List<? extends T> delegates) {
+    return new LoadBalancer<>(delegates, Strategy.POWER_OF_TWO_CHOICES, System::nanoTime);
+  }
+
+  /**
+   * @param delegates to route calls to
+   * @return a balancer that routes each call to the delegate with the lower moving average latency,
+   *     weighted by its calls in flight, out of two chosen at random. Delegates that haven't
+   *     completed a call yet are preferred, so that each of them is measured
+   * @throws IllegalArgumentException if there are no delegates, or more than {@link #MAX_DELEGATES}
+   */
+  public static <T> LoadBalancer<T> leastLatency(final List<? extends T> delegates) {
+    return leastLatency(delegates, System::nanoTime);
+  }
+
+  static <T> LoadBalancer<T> leastLatency(
+      final List<? extends T> delegates, final LongSupplier nanoTime) {
+    return new LoadBalancer<>(delegates, Strategy.LEAST_LATENCY, nanoTime);
+  }
+
+  /**
+   * @return a ticket naming the delegate the current call is routed to, which must be passed to
+   *     {@link #release(long)} once the call completes
+   */
+  public long acquire() {
+    if (strategy == Strategy.ROUND_ROBIN) {
+      // the counter would take centuries to overflow, but is masked to stay positive regardless
+      return (nextIndex.getAndIncrement(LONG_STRIDE) & Long.MAX_VALUE) % delegates.length;
+    }
+    final int index = choose();
+    inFlight.incrementAndGet((index + 1) * INT_STRIDE);
+    if (strategy == Strategy.LEAST_LATENCY) {
+      // the high bits of the ticket hold the low bits of the start time of the call
+      return nanoTime.getAsLong() << INDEX_BITS | index;
+    }
+    return index;
+  }
+
+  /**
+   * @param ticket returned by {@link #acquire()}
+   * @return the delegate named by the ticket
+   */
+  @SuppressWarnings("unchecked")
+  public T delegate(final long ticket) {
+    return (T) delegates[(int) (ticket & INDEX_MASK)];
+  }
+
+  /**
+   * Records that the call a ticket was acquired for has completed
+   *
+   * @param ticket returned by {@link #acquire()}
+   */
+  public void release(final long ticket) {
+    if (strategy == Strategy.ROUND_ROBIN) {
+      return;
+    }
+    final int index = (int) (ticket & INDEX_MASK);
+    inFlight.decrementAndGet((index + 1) * INT_STRIDE);
+    if (strategy == Strategy.LEAST_LATENCY) {
+      // subtracting the truncated start time from the equally truncated current time yields the
+      // latency, as long as it is shorter than 2^48 nanoseconds, which is about 78 hours
+      final long latency =
+          ((nanoTime.getAsLong() << INDEX_BITS) - (ticket & ~INDEX_MASK)) >>> INDEX_BITS;
+      recordLatency(index, latency);
+    }
+  }
+
+  /**
+   * @return the delegates, in the order they were provided
+   */
+  @SuppressWarnings("unchecked")
+  public List<T> delegates() {
+    return (List<T>) (List<?>) List.of(delegates);
+  }
+
+  /**
+   * @return the number of calls in flight for each delegate, or zeros if this balancer routes calls
+   *     round-robin, as it doesn't track them
+   */
+  public int[] inFlight() {
+    final var inFlight = new int[delegates.length];
+    if (this.inFlight != null) {
+      Arrays.setAll(inFlight, index -> this.inFlight.get((index + 1) * INT_STRIDE));
+    }
+    return inFlight;
+  }
+
+  private int choose() {
+    final int delegateCount = delegates.length;
+    if (delegateCount == 1) {
+      return 0;
+    }
+    // choose two distinct delegates
+    final var random = ThreadLocalRandom.current();
+    final int first = random.nextInt(delegateCount);
+    int second = random.nextInt(delegateCount - 1);
+    if (second >= first) {
+      second++;
+    }
+    return cost(second) < cost(first) ? second : first;
+  }
+
+  private double cost(final int index) {
+    final int calls = inFlight.get((index + 1) * INT_STRIDE);
+    if (strategy == Strategy.POWER_OF_TWO_CHOICES) {
+      return calls;
+    }
+    // a nanosecond is added, so that delegates that haven't been measured yet are balanced by their
+    // calls in flight
+    return (Double.longBitsToDouble(latencies.get((index + 1) * LONG_STRIDE)) + 1) * (calls + 1);
+  }
+
+  private void recordLatency(final int index, final long latency) {
+    final int slot = (index + 1) * LONG_STRIDE;
+    while (true) {
+      final long bits = latencies.get(slot);
+      final double average = Double.longBitsToDouble(bits);
+      // the first latency of a delegate seeds its average
+      final double updated = bits == 0L ? latency : average + LATENCY_WEIGHT * (latency - average);
+      if (latencies.compareAndSet(slot, bits, Double.doubleToRawLongBits(updated))) {
+        return;
+      }
+    }
+  }
+}
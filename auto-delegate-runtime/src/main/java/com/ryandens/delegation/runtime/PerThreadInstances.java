@@ -0,0 +1,148 @@
+package com.ryandens.delegation.runtime;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Instances of a type that isn't thread-safe, each of which is only used by one thread at a time.
+ * Each platform thread is confined to its own instance, created on its first {@link #acquire()}.
+ * Virtual threads may be too numerous to create an instance for each of them, so they borrow an
+ * instance from a pool for the duration of each call instead, which bounds the number of instances
+ * by the number of concurrent calls. At most {@link #maxIdleInstances()} idle instances are kept in
+ * the pool, and released instances beyond that are left to the garbage collector.
+ *
+ * <p>As virtual threads are only available on Java 21 and above, every thread is treated as a
+ * platform thread on earlier versions.
+ *
+ * <p>Thread-safe
+ */
+public final class PerThreadInstances<T> {
+
+  private static final MethodHandle IS_VIRTUAL = isVirtualHandle();
+
+  private final Supplier<? extends T> factory;
+  private final int maxIdleInstances;
+  private final Predicate<Thread> isVirtual;
+  private final ThreadLocal<T> platformThreadInstances;
+  private final ConcurrentLinkedDeque<T> idleInstances;
+  private final AtomicInteger idleInstanceCount;
+
+  /**
+   * Creates instances that keep up to one idle instance per available processor for virtual threads
+   *
+   * @param factory that creates a new instance each time it is called
+   */
+  public PerThreadInstances(final Supplier<? extends T> factory) {
+    this(factory, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * @param factory that creates a new instance each time it is called
+   * @param maxIdleInstances the maximum number of idle instances kept for virtual threads
+   * @throws IllegalArgumentException if the maximum number of idle instances is negative
+   */
+  public PerThreadInstances(final Supplier<? extends T> factory, final int maxIdleInstances) {
+    this(factory, maxIdleInstances, PerThreadInstances::isVirtual);
+  }
+
+  PerThreadInstances(
+      final Supplier<? extends T> factory,
+      final int maxIdleInstances,
+      final Predicate<Thread> isVirtual) {
+    if (maxIdleInstances < 0) {
+      throw new IllegalArgumentException(
+          "Maximum number of idle instances must not be negative, but was " + maxIdleInstances);
+    }
+    this.factory = Objects.requireNonNull(factory);
+    this.maxIdleInstances = maxIdleInstances;
+    this.isVirtual = Objects.requireNonNull(isVirtual);
+    this.platformThreadInstances = ThreadLocal.withInitial(this::create);
+    this.idleInstances = new ConcurrentLinkedDeque<>();
+    this.idleInstanceCount = new AtomicInteger();
+  }
+
+  /**
+   * @return the instance of the current platform thread, or an instance borrowed from the pool by
+   *     the current virtual thread, which must be passed to {@link #release(Object)} once the
+   *     current call completes
+   */
+  public T acquire() {
+    if (!isVirtual.test(Thread.currentThread())) {
+      return platformThreadInstances.get();
+    }
+    // the most recently released instance is reused first, as it is the most likely to be cached
+    final T idleInstance = idleInstances.pollFirst();
+    if (idleInstance == null) {
+      return create();
+    }
+    idleInstanceCount.decrementAndGet();
+    return idleInstance;
+  }
+
+  /**
+   * Returns an instance borrowed by {@link #acquire()} to the pool, if the current thread is
+   * virtual and the pool isn't full
+   *
+   * @param instance returned by {@link #acquire()} on the current thread
+   */
+  public void release(final T instance) {
+    if (!isVirtual.test(Thread.currentThread())) {
+      return;
+    }
+    if (idleInstanceCount.incrementAndGet() <= maxIdleInstances) {
+      idleInstances.offerFirst(instance);
+    } else {
+      idleInstanceCount.decrementAndGet();
+    }
+  }
+
+  /**
+   * @return the maximum number of idle instances kept for virtual threads
+   */
+  public int maxIdleInstances() {
+    return maxIdleInstances;
+  }
+
+  /**
+   * @return the number of idle instances currently kept for virtual threads
+   */
+  public int idleInstances() {
+    return idleInstanceCount.get();
+  }
+
+  private T create() {
+    return Objects.requireNonNull(factory.get(), "Factory returned null");
+  }
+
+  private static boolean isVirtual(final Thread thread) {
+    if (IS_VIRTUAL == null) {
+      return false;
+    }
+    try {
+      return (boolean) IS_VIRTUAL.invokeExact(thread);
+    } catch (Throwable t) {
+      throw new IllegalStateException("Failed to determine whether " + thread + " is virtual", t);
+    }
+  }
+
+  /**
+   * @return a handle to {@code Thread.isVirtual()}, or null on versions of Java without virtual
+   *     threads
+   */
+  private static MethodHandle isVirtualHandle() {
+    try {
+      return MethodHandles.publicLookup()
+          .findVirtual(Thread.class, "isVirtual", MethodType.methodType(boolean.class));
+    } catch (NoSuchMethodException e) {
+      return null;
+    } catch (IllegalAccessException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+}
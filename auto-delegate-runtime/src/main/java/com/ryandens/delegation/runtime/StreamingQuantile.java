@@ -0,0 +1,66 @@
+package com.ryandens.delegation.runtime;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Estimates a quantile of a stream of positive values, such as latencies, in constant space. Each
+ * value above the estimate raises it by a fraction proportional to the quantile, and each value at
+ * or below it lowers it by a fraction proportional to its complement, so that the estimate settles
+ * where the expected adjustment is zero, which is where the requested fraction of values fall at or
+ * below it. As adjustments are relative, the estimate converges at the same rate whatever the scale
+ * of the values, and only depends on whether each value is above or below it.
+ *
+ * <p>Thread-safe
+ */
+final class StreamingQuantile {
+
+  // the fraction of the estimate it is adjusted by, at most
+  private static final double RATE = 0.05;
+
+  private final double quantile;
+  // the estimate as the bits of a double, or zero until the first value seeds it
+  private final AtomicLong estimate;
+
+  /**
+   * @param quantile to estimate, such as {@code 0.95} for the 95th percentile
+   * @throws IllegalArgumentException if the quantile is not between 0 and 1, exclusive
+   */
+  StreamingQuantile(final double quantile) {
+    if (!(quantile > 0 && quantile < 1)) {
+      throw new IllegalArgumentException(
+          "The quantile must be between 0 and 1, exclusive, but was " + quantile);
+    }
+    this.quantile = quantile;
+    this.estimate = new AtomicLong();
+  }
+
+  /**
+   * @param value to adjust the estimate by. Values below one are recorded as one, as the estimate
+   *     can't be adjusted relatively from zero
+   */
+  void record(final long value) {
+    final double sample = Math.max(1L, value);
+    while (true) {
+      final long bits = estimate.get();
+      final double current = Double.longBitsToDouble(bits);
+      final double updated;
+      if (bits == 0L) {
+        updated = sample;
+      } else if (sample > current) {
+        updated = current * (1 + RATE * quantile);
+      } else {
+        updated = current * (1 - RATE * (1 - quantile));
+      }
+      if (estimate.compareAndSet(bits, Double.doubleToRawLongBits(updated))) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * @return the estimate of the quantile, or zero if no value has been recorded yet
+   */
+  long estimate() {
+    return (long) Double.longBitsToDouble(estimate.get());
+  }
+}
@@ -0,0 +1,65 @@
+package com.ryandens.delegation.runtime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link AsyncCalls} */
+final class AsyncCallsTest {
+
+  @Test
+  void testCallsRunOnTheExecutor() throws Exception {
+    // WHEN we submit a call to the default executor
+    final var future =
+        AsyncCalls.submit(AsyncCalls.defaultExecutor(), () -> Thread.currentThread());
+    // VERIFY it runs on another thread
+    assertNotSame(Thread.currentThread(), future.get(1, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void testPlatformThreadsWithoutVirtualThreads() throws Exception {
+    // WHEN virtual threads can't be created, as on Java 19 and 20 without preview features
+    final var executor =
+        AsyncCalls.createDefaultExecutor(
+            () -> {
+              throw new UnsupportedOperationException("Preview features are not enabled");
+            });
+    // VERIFY calls run on daemon platform threads instead
+    final var thread = AsyncCalls.submit(executor, Thread::currentThread).get(1, TimeUnit.SECONDS);
+    assertTrue(thread.isDaemon());
+    assertTrue(thread.getName().startsWith("auto-delegate-async-"));
+  }
+
+  @Test
+  void testFailuresCompleteTheFuture() {
+    // WHEN we submit a call that throws a checked exception
+    final var exception = new IOException();
+    final var failed =
+        AsyncCalls.submit(
+            Runnable::run,
+            () -> {
+              throw exception;
+            });
+    // VERIFY the future is completed with it
+    assertSame(exception, assertThrows(ExecutionException.class, failed::get).getCause());
+    // WHEN the executor rejects a call
+    final var rejected =
+        AsyncCalls.submit(
+            runnable -> {
+              throw new RejectedExecutionException();
+            },
+            () -> "unreachable");
+    // VERIFY the future is completed with the rejection
+    assertEquals(
+        RejectedExecutionException.class,
+        assertThrows(ExecutionException.class, rejected::get).getCause().getClass());
+  }
+}
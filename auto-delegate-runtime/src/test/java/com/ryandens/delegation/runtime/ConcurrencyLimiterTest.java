@@ -0,0 +1,134 @@
+package com.ryandens.delegation.runtime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link ConcurrencyLimiter} */
+final class ConcurrencyLimiterTest {
+
+  @Test
+  void testFailFast() {
+    // GIVEN a fixed limiter of one call that fails fast, whose permit is acquired
+    final var limiter = ConcurrencyLimiter.fixed(1, Duration.ZERO);
+    final long permit = limiter.acquire();
+    // VERIFY another call is rejected
+    assertThrows(RejectedExecutionException.class, limiter::acquire);
+    assertEquals(1, limiter.inFlight());
+    // VERIFY a call may proceed once the permit is released
+    limiter.release(permit);
+    limiter.release(limiter.acquire());
+    assertEquals(0, limiter.inFlight());
+  }
+
+  @Test
+  void testQueueing() throws Exception {
+    // GIVEN a fixed limiter of one call that waits, whose permit is acquired
+    final var limiter = ConcurrencyLimiter.fixed(1, Duration.ofSeconds(5));
+    final long permit = limiter.acquire();
+    final var executor = Executors.newSingleThreadExecutor();
+    try {
+      // WHEN another thread acquires a permit
+      final var acquiring = new CountDownLatch(1);
+      final var waiting =
+          executor.submit(
+              () -> {
+                acquiring.countDown();
+                return limiter.acquire();
+              });
+      acquiring.await();
+      // VERIFY it waits until the permit is released, and then gets it
+      Thread.sleep(50);
+      assertFalse(waiting.isDone());
+      limiter.release(permit);
+      limiter.release(waiting.get(5, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+    // VERIFY a call that waits too long is rejected
+    final var impatient = ConcurrencyLimiter.fixed(1, Duration.ofMillis(10));
+    impatient.acquire();
+    assertThrows(RejectedExecutionException.class, impatient::acquire);
+  }
+
+  @Test
+  void testAimd() {
+    // GIVEN an AIMD limiter with a fake clock, whose limit is being used
+    final var now = new AtomicLong();
+    final var limiter =
+        ConcurrencyLimiter.aimd(4, 10, Duration.ofNanos(100), Duration.ZERO, now::get);
+    final long first = limiter.acquire();
+    final long second = limiter.acquire();
+    // WHEN a call completes within the latency threshold
+    now.addAndGet(50);
+    limiter.release(first);
+    // VERIFY the limit increases by one
+    assertEquals(5, limiter.limit());
+    // WHEN a call exceeds the latency threshold
+    now.addAndGet(150);
+    limiter.release(second);
+    // VERIFY the limit decreases by a tenth
+    assertEquals(4, limiter.limit());
+  }
+
+  @Test
+  void testAimdDecreasesOncePerBurstOfSlowCalls() {
+    // GIVEN an AIMD limiter with a fake clock, and a burst of calls in flight at once
+    final var now = new AtomicLong();
+    final var limiter =
+        ConcurrencyLimiter.aimd(10, 10, Duration.ofNanos(100), Duration.ZERO, now::get);
+    final var permits = new long[10];
+    for (int i = 0; i < permits.length; i++) {
+      permits[i] = limiter.acquire();
+    }
+    // WHEN every call in the burst exceeds the latency threshold
+    now.addAndGet(150);
+    for (long permit : permits) {
+      limiter.release(permit);
+    }
+    // VERIFY the limit decreases by a tenth once, rather than once per call
+    assertEquals(9, limiter.limit());
+    // WHEN a call that started after the decrease exceeds the latency threshold
+    final long permit = limiter.acquire();
+    now.addAndGet(150);
+    limiter.release(permit);
+    // VERIFY the limit decreases again
+    assertEquals(8, limiter.limit());
+  }
+
+  @Test
+  void testVegas() {
+    // GIVEN a Vegas limiter with a fake clock, whose limit is being used
+    final var now = new AtomicLong();
+    final var limiter = ConcurrencyLimiter.vegas(10, 20, Duration.ZERO, now::get);
+    final var permits = new long[5];
+    for (int i = 0; i < permits.length; i++) {
+      permits[i] = limiter.acquire();
+    }
+    // WHEN a call completes at the minimum latency
+    now.addAndGet(100);
+    limiter.release(permits[0]);
+    // VERIFY the limit increases, as nothing appears to be queued
+    assertEquals(11, limiter.limit());
+    // WHEN a call takes ten times longer than the minimum latency
+    now.addAndGet(900);
+    limiter.release(permits[1]);
+    // VERIFY the limit decreases, as most of the calls appear to be queued
+    assertEquals(10, limiter.limit());
+  }
+
+  @Test
+  void testInvalidLimits() {
+    assertThrows(IllegalArgumentException.class, () -> ConcurrencyLimiter.fixed(0, Duration.ZERO));
+    assertThrows(
+        IllegalArgumentException.class, () -> ConcurrencyLimiter.vegas(10, 5, Duration.ZERO));
+  }
+}
@@ -0,0 +1,146 @@
+package com.ryandens.delegation.runtime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link DelegatePool} */
+final class DelegatePoolTest {
+
+  @Test
+  void testInstancesAreReused() {
+    // GIVEN a blocking pool of two instances
+    final var created = new AtomicInteger();
+    final var pool =
+        DelegatePool.blocking(() -> new StringBuilder().append(created.incrementAndGet()), 2);
+    // WHEN an instance is borrowed and returned, and then borrowed again
+    final var first = pool.acquire();
+    pool.release(first);
+    assertEquals(1, pool.idleInstances());
+    // VERIFY the same instance is reused rather than creating another
+    assertSame(first, pool.acquire());
+    assertEquals(1, created.get());
+    // WHEN a second instance is borrowed concurrently
+    final var second = pool.acquire();
+    // VERIFY a new instance is created
+    assertNotSame(first, second);
+    assertEquals(2, pool.size());
+  }
+
+  @Test
+  void testBlockingPoolWaitsForAnInstance() throws Exception {
+    // GIVEN a blocking pool of one instance, which is borrowed
+    final var pool = DelegatePool.blocking(StringBuilder::new, 1);
+    final var borrowed = pool.acquire();
+    final var executor = Executors.newSingleThreadExecutor();
+    try {
+      // WHEN another thread borrows an instance
+      final var acquiring = new CountDownLatch(1);
+      final Future<StringBuilder> waiting =
+          executor.submit(
+              () -> {
+                acquiring.countDown();
+                return pool.acquire();
+              });
+      acquiring.await();
+      // VERIFY it waits until the instance is returned, and then gets it
+      Thread.sleep(50);
+      assertFalse(waiting.isDone());
+      pool.release(borrowed);
+      assertSame(borrowed, waiting.get(1, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(1, pool.size());
+  }
+
+  @Test
+  void testGrowingPoolCreatesInstances() {
+    // GIVEN a growing pool that keeps one idle instance
+    final var pool = DelegatePool.growing(StringBuilder::new, 1);
+    // WHEN two instances are borrowed and then returned
+    final var first = pool.acquire();
+    final var second = pool.acquire();
+    pool.release(first);
+    pool.release(second);
+    // VERIFY only one of them is kept
+    assertNotSame(first, second);
+    assertEquals(1, pool.idleInstances());
+    assertSame(first, pool.acquire());
+  }
+
+  @Test
+  void testConcurrentBorrowersNeverShareAnInstance() throws Exception {
+    // GIVEN a blocking pool smaller than the number of threads
+    final var pool = DelegatePool.blocking(Object::new, 3);
+    final var inUse = ConcurrentHashMap.<Object>newKeySet();
+    final var threads = Executors.newFixedThreadPool(8);
+    try {
+      // WHEN many threads borrow and return instances
+      final var futures = new ArrayList<Future<?>>();
+      for (int thread = 0; thread < 8; thread++) {
+        futures.add(threads.submit(() -> borrowRepeatedly(pool, inUse)));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      threads.shutdownNow();
+    }
+    // VERIFY no more instances were created than the size, and all of them were returned
+    assertTrue(pool.size() <= 3);
+    assertEquals(pool.size(), pool.idleInstances());
+  }
+
+  @Test
+  void testFailedCreationReleasesCapacity() {
+    // GIVEN a blocking pool of one instance whose factory fails once
+    final var attempts = new AtomicInteger();
+    final var pool =
+        DelegatePool.blocking(
+            () -> {
+              if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException();
+              }
+              return new Object();
+            },
+            1);
+    // VERIFY the failure is propagated, and the next call can still create the instance
+    assertThrows(IllegalStateException.class, pool::acquire);
+    pool.acquire();
+    assertEquals(1, pool.size());
+  }
+
+  @Test
+  void testInvalidSize() {
+    // VERIFY pools must hold at least one instance
+    assertThrows(IllegalArgumentException.class, () -> DelegatePool.blocking(Object::new, 0));
+    assertThrows(IllegalArgumentException.class, () -> DelegatePool.growing(Object::new, 0));
+  }
+
+  private static void borrowRepeatedly(final DelegatePool<Object> pool, final Set<Object> inUse) {
+    for (int i = 0; i < 10_000; i++) {
+      final var instance = pool.acquire();
+      try {
+        // VERIFY no other thread is using the borrowed instance
+        assertTrue(inUse.add(instance));
+        inUse.remove(instance);
+      } finally {
+        pool.release(instance);
+      }
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package com.ryandens.delegation.runtime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link DelegationMetrics} */
+final class DelegationMetricsTest {
+
+  private DelegationMetrics metrics;
+
+  @BeforeEach
+  void beforeEach() {
+    // GIVEN metrics for two methods
+    metrics = new DelegationMetrics("a()", "b(int)");
+  }
+
+  @Test
+  void testMethodIds() {
+    // VERIFY method IDs are the indices of the provided method names
+    assertEquals(2, metrics.methodCount());
+    assertEquals(1, metrics.methodId("b(int)"));
+    assertEquals("a()", metrics.methodName(0));
+    assertThrows(IllegalArgumentException.class, () -> metrics.methodId("c()"));
+  }
+
+  @Test
+  void testHistogramBuckets() {
+    // WHEN we record latencies on bucket boundaries
+    metrics.record(0, 0);
+    metrics.record(0, 1);
+    metrics.record(0, 3);
+    metrics.record(0, 4);
+    metrics.record(0, Long.MAX_VALUE);
+    // VERIFY each latency is recorded in the bucket whose upper bound exceeds it
+    final var histogram = metrics.histogram(0);
+    assertEquals(1, histogram[0]);
+    assertEquals(1, histogram[1]);
+    assertEquals(1, histogram[2]);
+    assertEquals(1, histogram[3]);
+    assertEquals(1, histogram[DelegationMetrics.BUCKET_COUNT - 1]);
+    assertEquals(4, DelegationMetrics.bucketUpperBoundNanos(2));
+    assertEquals(
+        Long.MAX_VALUE,
+        DelegationMetrics.bucketUpperBoundNanos(DelegationMetrics.BUCKET_COUNT - 1));
+    // VERIFY the other method is unaffected
+    assertEquals(5, metrics.count(0));
+    assertEquals(0, metrics.count(1));
+  }
+
+  @Test
+  void testSampledCountsAreExtrapolated() {
+    // GIVEN metrics that record 1 in 16 invocations
+    final var sampledMetrics = new DelegationMetrics(16, "a()");
+    // WHEN we record three samples
+    sampledMetrics.record(0, 1);
+    sampledMetrics.record(0, 1);
+    sampledMetrics.record(0, 1);
+    // VERIFY the count is extrapolated while the histogram holds the samples
+    assertEquals(16, sampledMetrics.sampleRate());
+    assertEquals(3, sampledMetrics.sampledCount(0));
+    assertEquals(48, sampledMetrics.count(0));
+    assertEquals(3, Arrays.stream(sampledMetrics.histogram(0)).sum());
+    // VERIFY the sample rate must be positive
+    assertThrows(IllegalArgumentException.class, () -> new DelegationMetrics(0, "a()"));
+  }
+
+  @Test
+  void testConcurrentRecording() throws InterruptedException {
+    final var threads = 8;
+    final var recordsPerThread = 10_000;
+    // WHEN many threads record concurrently
+    final var executor = Executors.newFixedThreadPool(threads);
+    for (int i = 0; i < threads; i++) {
+      executor.execute(
+          () -> {
+            for (int j = 0; j < recordsPerThread; j++) {
+              metrics.record(1, j);
+            }
+          });
+    }
+    executor.shutdown();
+    executor.awaitTermination(10, TimeUnit.SECONDS);
+    // VERIFY no records were lost
+    assertEquals(threads * recordsPerThread, metrics.count(1));
+    assertEquals(threads * recordsPerThread, Arrays.stream(metrics.histogram(1)).sum());
+  }
+
+  @Test
+  void testReset() {
+    metrics.record(0, 10);
+    // WHEN metrics are reset
+    metrics.reset();
+    // VERIFY everything is zero
+    assertEquals(0, metrics.count(0));
+    assertEquals(0, Arrays.stream(metrics.histogram(0)).sum());
+  }
+}
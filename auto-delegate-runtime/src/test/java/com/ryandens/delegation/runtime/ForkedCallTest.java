@@ -0,0 +1,109 @@
+package com.ryandens.delegation.runtime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link ForkedCall} */
+final class ForkedCallTest {
+
+  @Test
+  void testCallsOverlap() throws Exception {
+    // GIVEN calls that each block until both of them have started
+    final var started = new CountDownLatch(2);
+    final Callable<Boolean> call =
+        () -> {
+          started.countDown();
+          return started.await(5, TimeUnit.SECONDS);
+        };
+    // WHEN we fork both of them
+    final var first = ForkedCall.fork(call);
+    final var second = ForkedCall.fork(call);
+    // VERIFY both complete, so they ran at the same time on threads other than the caller
+    assertTrue(first.join());
+    assertTrue(second.join());
+  }
+
+  @Test
+  void testCallsRunOnTheProvidedExecutor() throws Exception {
+    // GIVEN an executor that runs calls on a thread of its own
+    final var executor = Executors.newSingleThreadExecutor();
+    try {
+      final var thread = executor.submit(Thread::currentThread).get();
+      // WHEN we fork a call to it
+      final var forkedCall = ForkedCall.fork(executor, Thread::currentThread);
+      // VERIFY the call runs on that thread
+      assertSame(thread, forkedCall.join());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void testRejectedCallsThrowWhenJoined() {
+    // GIVEN an executor that doesn't accept calls
+    final var executor = Executors.newSingleThreadExecutor();
+    executor.shutdown();
+    // WHEN we fork a call to it
+    final var forkedCall = ForkedCall.fork(executor, () -> true);
+    // VERIFY joining it throws the rejection
+    assertThrows(RejectedExecutionException.class, forkedCall::join);
+  }
+
+  @Test
+  void testFailuresAreRethrownAsIs() {
+    // WHEN we fork calls that throw a checked exception and an error
+    final var exception = new IOException();
+    final var error = new AssertionError();
+    final var failedWithException =
+        ForkedCall.fork(
+            () -> {
+              throw exception;
+            });
+    final var failedWithError =
+        ForkedCall.fork(
+            () -> {
+              throw error;
+            });
+    // VERIFY joining them throws them without wrapping
+    assertSame(exception, assertThrows(IOException.class, failedWithException::join));
+    assertSame(error, assertThrows(AssertionError.class, failedWithError::join));
+  }
+
+  @Test
+  void testAwaitAllWaitsForEveryCall() throws Exception {
+    // GIVEN a call that fails and a call that blocks until it is released
+    final var released = new CountDownLatch(1);
+    final var completed = new AtomicBoolean();
+    final var failed =
+        ForkedCall.<Void>fork(
+            () -> {
+              throw new IllegalStateException();
+            });
+    final var blocked =
+        ForkedCall.<Void>fork(
+            () -> {
+              assertTrue(released.await(5, TimeUnit.SECONDS));
+              completed.set(true);
+              return null;
+            });
+    // WHEN we await both after releasing the blocked call
+    released.countDown();
+    ForkedCall.awaitAll(List.of(failed, blocked));
+    // VERIFY the blocked call completed, and the failure is only thrown when joining
+    assertTrue(completed.get());
+    assertEquals(
+        IllegalStateException.class, assertThrows(Exception.class, failed::join).getClass());
+  }
+}
@@ -0,0 +1,103 @@
+package com.ryandens.delegation.runtime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link Hedger} */
+final class HedgerTest {
+
+  @Test
+  void testSlowCallsAreHedged() throws Exception {
+    // GIVEN a warmed up hedger, whose primary delegate blocks once it becomes slow
+    final var slow = new AtomicBoolean();
+    final var interrupted = new CountDownLatch(1);
+    final Callable<String> primary =
+        () -> {
+          if (slow.get()) {
+            try {
+              new CountDownLatch(1).await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+              interrupted.countDown();
+              throw e;
+            }
+          }
+          return "primary";
+        };
+    final var hedger = Hedger.<Callable<String>>create(primary, () -> "secondary", 0.9);
+    for (int i = 0; i < Hedger.WARM_UP_CALLS; i++) {
+      assertEquals("primary", hedger.call(Callable::call));
+    }
+    // WHEN the primary delegate becomes slow
+    slow.set(true);
+    // VERIFY the call is hedged, and the slow call to the primary delegate is cancelled
+    assertEquals("secondary", hedger.call(Callable::call));
+    assertEquals(1, hedger.hedgedCalls());
+    assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void testCallsWithinTheMinimumDelayAreNotHedged() throws Exception {
+    // GIVEN a warmed up hedger that doesn't hedge calls within a second
+    final var secondaryCalls = new AtomicInteger();
+    final var hedger =
+        Hedger.<Callable<String>>create(
+            () -> "primary",
+            () -> {
+              secondaryCalls.incrementAndGet();
+              return "secondary";
+            },
+            0.5,
+            Duration.ofSeconds(1),
+            AsyncCalls.defaultExecutor());
+    for (int i = 0; i < Hedger.WARM_UP_CALLS; i++) {
+      hedger.call(Callable::call);
+    }
+    // WHEN a call takes longer than the estimated median, but not the minimum delay
+    final var result =
+        hedger.call(
+            delegate -> {
+              Thread.sleep(50);
+              return delegate.call();
+            });
+    // VERIFY it isn't hedged
+    assertEquals("primary", result);
+    assertEquals(0, hedger.hedgedCalls());
+    assertEquals(0, secondaryCalls.get());
+  }
+
+  @Test
+  void testFailuresAreRethrownAsIs() {
+    // WHEN the primary delegate throws a checked exception
+    final var exception = new IOException();
+    final var hedger =
+        Hedger.<Callable<String>>create(
+            () -> {
+              throw exception;
+            },
+            () -> "secondary",
+            0.9);
+    // VERIFY it is rethrown without wrapping
+    assertSame(exception, assertThrows(IOException.class, () -> hedger.call(Callable::call)));
+  }
+
+  @Test
+  void testInvalidArguments() {
+    assertThrows(IllegalArgumentException.class, () -> Hedger.create("primary", "secondary", 1.5));
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            Hedger.create(
+                "primary", "secondary", 0.9, Duration.ofMillis(-1), AsyncCalls.defaultExecutor()));
+  }
+}
@@ -0,0 +1,73 @@
+package com.ryandens.delegation.runtime;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link LoadBalancer} */
+final class LoadBalancerTest {
+
+  @Test
+  void testRoundRobin() {
+    // GIVEN a round-robin balancer of three delegates
+    final var balancer = LoadBalancer.roundRobin(List.of("a", "b", "c"));
+    // VERIFY calls are routed to each delegate in turn
+    for (String expected : List.of("a", "b", "c", "a", "b")) {
+      final long ticket = balancer.acquire();
+      assertEquals(expected, balancer.delegate(ticket));
+      balancer.release(ticket);
+    }
+  }
+
+  @Test
+  void testPowerOfTwoChoices() {
+    // GIVEN a power-of-two-choices balancer of two delegates
+    final var balancer = LoadBalancer.powerOfTwoChoices(List.of("a", "b"));
+    // WHEN two calls are in flight
+    final long first = balancer.acquire();
+    final long second = balancer.acquire();
+    // VERIFY they are routed to different delegates
+    assertNotEquals(balancer.delegate(first), balancer.delegate(second));
+    assertArrayEquals(new int[] {1, 1}, balancer.inFlight());
+    // VERIFY releasing them is tracked
+    balancer.release(first);
+    balancer.release(second);
+    assertArrayEquals(new int[] {0, 0}, balancer.inFlight());
+  }
+
+  @Test
+  void testLeastLatency() {
+    // GIVEN a least-latency balancer of two delegates with a fake clock
+    final var now = new AtomicLong(-5_000L);
+    final var balancer = LoadBalancer.leastLatency(List.of("slow", "fast"), now::get);
+    // WHEN a call to each delegate completes, the slow one after 2000ns and the fast one after
+    // 10ns
+    final long first = balancer.acquire();
+    final long second = balancer.acquire();
+    final long slow = "slow".equals(balancer.delegate(first)) ? first : second;
+    final long fast = slow == first ? second : first;
+    now.addAndGet(10L);
+    balancer.release(fast);
+    now.addAndGet(1_990L);
+    balancer.release(slow);
+    // VERIFY calls are routed to the fast delegate, until so many of them are in flight that the
+    // slow delegate is cheaper
+    final var tickets = new long[181];
+    for (int i = 0; i < tickets.length; i++) {
+      tickets[i] = balancer.acquire();
+      assertEquals("fast", balancer.delegate(tickets[i]));
+    }
+    assertEquals("slow", balancer.delegate(balancer.acquire()));
+  }
+
+  @Test
+  void testDelegatesAreRequired() {
+    // VERIFY a balancer of no delegates can't be created
+    assertThrows(IllegalArgumentException.class, () -> LoadBalancer.roundRobin(List.of()));
+  }
+}
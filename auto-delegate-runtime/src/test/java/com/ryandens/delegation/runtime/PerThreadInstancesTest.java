@@ -0,0 +1,70 @@
+package com.ryandens.delegation.runtime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link PerThreadInstances} */
+final class PerThreadInstancesTest {
+
+  @Test
+  void testPlatformThreadsAreConfinedToTheirInstance() throws Exception {
+    // GIVEN instances treating every thread as a platform thread
+    final var created = new AtomicInteger();
+    final var instances =
+        new PerThreadInstances<>(() -> new StringBuilder().append(created.incrementAndGet()), 4);
+    // WHEN the current thread acquires and releases twice
+    final var first = instances.acquire();
+    instances.release(first);
+    // VERIFY it gets the same instance, which isn't pooled
+    assertSame(first, instances.acquire());
+    assertEquals(0, instances.idleInstances());
+    // WHEN another thread acquires
+    final var executor = Executors.newSingleThreadExecutor();
+    try {
+      // VERIFY it gets its own instance
+      assertNotSame(first, executor.submit(instances::acquire).get());
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(1, TimeUnit.SECONDS);
+    }
+    assertEquals(2, created.get());
+  }
+
+  @Test
+  void testVirtualThreadsBorrowPooledInstances() {
+    // GIVEN instances treating every thread as a virtual thread, keeping one idle instance
+    final var created = new AtomicInteger();
+    final var instances =
+        new PerThreadInstances<>(
+            () -> new StringBuilder().append(created.incrementAndGet()), 1, thread -> true);
+    // WHEN two calls are in progress at once
+    final var first = instances.acquire();
+    final var second = instances.acquire();
+    // VERIFY they use different instances
+    assertNotSame(first, second);
+    // WHEN they complete
+    instances.release(first);
+    instances.release(second);
+    // VERIFY only one is kept, and the next call reuses it
+    assertEquals(1, instances.idleInstances());
+    assertSame(first, instances.acquire());
+    assertEquals(0, instances.idleInstances());
+    assertEquals(2, created.get());
+  }
+
+  @Test
+  void testInvalidArguments() {
+    // VERIFY the maximum number of idle instances can't be negative, and the factory can't return
+    // null
+    assertThrows(
+        IllegalArgumentException.class, () -> new PerThreadInstances<>(StringBuilder::new, -1));
+    assertThrows(NullPointerException.class, () -> new PerThreadInstances<>(() -> null).acquire());
+  }
+}
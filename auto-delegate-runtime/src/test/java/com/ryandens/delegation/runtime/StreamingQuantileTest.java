@@ -0,0 +1,35 @@
+package com.ryandens.delegation.runtime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link StreamingQuantile} */
+final class StreamingQuantileTest {
+
+  @Test
+  void testEstimateConverges() {
+    // GIVEN an estimate of the 90th percentile, seeded by a value far below it
+    final var quantile = new StreamingQuantile(0.9);
+    assertEquals(0, quantile.estimate());
+    quantile.record(1);
+    // WHEN we record values distributed uniformly between 1 and 1000
+    final var random = new Random(42);
+    for (int i = 0; i < 20_000; i++) {
+      quantile.record(1 + random.nextInt(1000));
+    }
+    // VERIFY the estimate is close to the 90th percentile
+    final long estimate = quantile.estimate();
+    assertTrue(estimate > 850 && estimate < 950, () -> "Estimated " + estimate);
+  }
+
+  @Test
+  void testInvalidQuantiles() {
+    assertThrows(IllegalArgumentException.class, () -> new StreamingQuantile(0));
+    assertThrows(IllegalArgumentException.class, () -> new StreamingQuantile(1));
+    assertThrows(IllegalArgumentException.class, () -> new StreamingQuantile(Double.NaN));
+  }
+}
@@ -8,4 +8,10 @@
  */
 
 rootProject.name = "auto-delegate"
-include("auto-delegate-annotations", "auto-delegate-processor", "auto-delegate-examples")
+include(
+    "auto-delegate-annotations",
+    "auto-delegate-runtime",
+    "auto-delegate-processor",
+    "auto-delegate-examples",
+    "auto-delegate-benchmarks",
+)